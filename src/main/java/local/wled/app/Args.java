@@ -3,9 +3,19 @@ package local.wled.app;
 import local.wled.core.OutputMode;
 import local.wled.core.DdpLayoutMode;
 import local.wled.core.DdpColorPalette;
+import local.wled.core.FramePacing;
+import local.wled.core.PushTransport;
+import local.wled.core.TargetSpec;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -14,16 +24,37 @@ final class Args {
   static final int DEFAULT_PORT = 11988;
   static final int DEFAULT_DDP_PORT = 4048;
   static final int DEFAULT_DDP_PIXELS = 42;
+  static final int MAX_DDP_PIXELS = 16384;
+  static final int DEFAULT_DDP_PACKET_PIXELS = 480;
+  static final int MAX_DDP_PACKET_PIXELS = 21831;
+  static final int DEFAULT_RENDER_THREADS = 0;
+  static final int MAX_RENDER_THREADS = 64;
+  static final int DEFAULT_RENDER_RESOLUTION = 0;
+  static final int MIN_RENDER_RESOLUTION = 16;
+  static final int MAX_RENDER_RESOLUTION = 4096;
+  static final int DEFAULT_CANVAS_PIXELS = 0;
+  static final int MAX_CANVAS_PIXELS = 65536;
+  static final int DEFAULT_TIMECODE_DELAY = -1;
+  static final int MAX_TIMECODE_DELAY = 2000;
+  static final int DEFAULT_PACKET_PACING = 0;
+  static final int MAX_PACKET_PACING = 90;
+  static final String DEFAULT_METRICS_BIND = "127.0.0.1";
+  static final int DEFAULT_METRICS_PORT = 0;
+  static final String DEFAULT_JFR_FILE = "wled-audio-sync.jfr";
   static final DdpLayoutMode DEFAULT_DDP_LAYOUT = DdpLayoutMode.REPEAT;
   static final DdpColorPalette DEFAULT_DDP_PALETTE = DdpColorPalette.NIGHTCLUB;
   static final int DEFAULT_SAMPLE_RATE = 44100;
   static final int DEFAULT_CHANNELS = 2;
   static final int DEFAULT_FFT_SIZE = 1024;
+  static final int DEFAULT_HOP_SIZE = 0;
   static final int DEFAULT_FPS = 50;
+  static final FramePacing DEFAULT_PACING = FramePacing.SLEEP_SPIN;
+  static final PushTransport DEFAULT_TRANSPORT = PushTransport.CHANNEL;
   static final String DEFAULT_INPUT = "BlackHole";
 
   final boolean showHelp;
   final boolean listDevices;
+  final boolean probePayload;
   final boolean verbose;
   final String dest;
   final int port;
@@ -31,16 +62,30 @@ final class Args {
   final int sampleRate;
   final int channels;
   final int fftSize;
+  final int hopSize;
   final int fps;
+  final FramePacing framePacing;
   final OutputMode outputMode;
   final int ddpPixelCount;
   final DdpLayoutMode ddpLayoutMode;
   final DdpColorPalette ddpColorPalette;
+  final int ddpPacketPixels;
+  final int renderThreads;
+  final int renderResolution;
+  final PushTransport pushTransport;
+  final List<TargetSpec> extraTargets;
+  final int canvasPixelCount;
+  final int ddpTimecodeDelayMs;
+  final int packetPacingPercent;
+  final String metricsBind;
+  final int metricsPort;
+  final String jfrFile;
   final String[] rawArgs;
 
   private Args(
       boolean showHelp,
       boolean listDevices,
+      boolean probePayload,
       boolean verbose,
       String dest,
       int port,
@@ -48,15 +93,29 @@ final class Args {
       int sampleRate,
       int channels,
       int fftSize,
+      int hopSize,
       int fps,
+      FramePacing framePacing,
       OutputMode outputMode,
       int ddpPixelCount,
       DdpLayoutMode ddpLayoutMode,
       DdpColorPalette ddpColorPalette,
+      int ddpPacketPixels,
+      int renderThreads,
+      int renderResolution,
+      PushTransport pushTransport,
+      List<TargetSpec> extraTargets,
+      int canvasPixelCount,
+      int ddpTimecodeDelayMs,
+      int packetPacingPercent,
+      String metricsBind,
+      int metricsPort,
+      String jfrFile,
       String[] rawArgs
   ) {
     this.showHelp = showHelp;
     this.listDevices = listDevices;
+    this.probePayload = probePayload;
     this.verbose = verbose;
     this.dest = dest;
     this.port = port;
@@ -64,11 +123,24 @@ final class Args {
     this.sampleRate = sampleRate;
     this.channels = channels;
     this.fftSize = fftSize;
+    this.hopSize = hopSize;
     this.fps = fps;
+    this.framePacing = framePacing;
     this.outputMode = outputMode;
     this.ddpPixelCount = ddpPixelCount;
     this.ddpLayoutMode = ddpLayoutMode;
     this.ddpColorPalette = ddpColorPalette;
+    this.ddpPacketPixels = ddpPacketPixels;
+    this.renderThreads = renderThreads;
+    this.renderResolution = renderResolution;
+    this.pushTransport = pushTransport;
+    this.extraTargets = extraTargets;
+    this.canvasPixelCount = canvasPixelCount;
+    this.ddpTimecodeDelayMs = ddpTimecodeDelayMs;
+    this.packetPacingPercent = packetPacingPercent;
+    this.metricsBind = metricsBind;
+    this.metricsPort = metricsPort;
+    this.jfrFile = jfrFile;
     this.rawArgs = rawArgs;
   }
 
@@ -86,6 +158,10 @@ final class Args {
         flags.add("list");
         continue;
       }
+      if (a.equals("--probe-payload")) {
+        flags.add("probe-payload");
+        continue;
+      }
       if (a.equals("--verbose")) {
         flags.add("verbose");
         continue;
@@ -108,10 +184,29 @@ final class Args {
     int sampleRate = parseInt(getOr(kv, "rate", String.valueOf(DEFAULT_SAMPLE_RATE)), DEFAULT_SAMPLE_RATE);
     int channels = parseInt(getOr(kv, "channels", String.valueOf(DEFAULT_CHANNELS)), DEFAULT_CHANNELS);
     int fftSize = parseInt(getOr(kv, "fft", String.valueOf(DEFAULT_FFT_SIZE)), DEFAULT_FFT_SIZE);
+    int hopSize = parseInt(getOr(kv, "hop", String.valueOf(DEFAULT_HOP_SIZE)), DEFAULT_HOP_SIZE);
     int fps = parseInt(getOr(kv, "fps", String.valueOf(DEFAULT_FPS)), DEFAULT_FPS);
+    FramePacing framePacing = FramePacing.fromCliValue(getOr(kv, "pacing", DEFAULT_PACING.cliValue()));
     int ddpPixelCount = parseInt(getOr(kv, "ddp-pixels", String.valueOf(DEFAULT_DDP_PIXELS)), DEFAULT_DDP_PIXELS);
     DdpLayoutMode ddpLayoutMode = DdpLayoutMode.fromCliValue(getOr(kv, "ddp-layout", DEFAULT_DDP_LAYOUT.cliValue()));
     DdpColorPalette ddpColorPalette = DdpColorPalette.fromCliValue(getOr(kv, "ddp-palette", DEFAULT_DDP_PALETTE.cliValue()));
+    int ddpPacketPixels = parseInt(getOr(kv, "ddp-packet-pixels", String.valueOf(DEFAULT_DDP_PACKET_PIXELS)), DEFAULT_DDP_PACKET_PIXELS);
+    int renderThreads = parseInt(getOr(kv, "render-threads", String.valueOf(DEFAULT_RENDER_THREADS)), DEFAULT_RENDER_THREADS);
+    int renderResolution = parseInt(getOr(kv, "render-resolution", String.valueOf(DEFAULT_RENDER_RESOLUTION)), DEFAULT_RENDER_RESOLUTION);
+    PushTransport pushTransport = PushTransport.fromCliValue(getOr(kv, "transport", DEFAULT_TRANSPORT.cliValue()));
+    List<TargetSpec> extraTargets = new ArrayList<>();
+    String targetsFile = kv.get("targets-file");
+    if (targetsFile != null) {
+      extraTargets.addAll(readTargetsFile(targetsFile));
+    }
+    extraTargets.addAll(parseTargets(kv.get("targets")));
+    extraTargets = uniqueTargets(extraTargets);
+    int canvasPixelCount = parseInt(getOr(kv, "canvas-pixels", String.valueOf(DEFAULT_CANVAS_PIXELS)), DEFAULT_CANVAS_PIXELS);
+    int ddpTimecodeDelayMs = parseInt(getOr(kv, "timecode-delay", String.valueOf(DEFAULT_TIMECODE_DELAY)), DEFAULT_TIMECODE_DELAY);
+    int packetPacingPercent = parseInt(getOr(kv, "packet-pacing", String.valueOf(DEFAULT_PACKET_PACING)), DEFAULT_PACKET_PACING);
+    String metricsBind = getOr(kv, "metrics-bind", DEFAULT_METRICS_BIND);
+    int metricsPort = parseInt(getOr(kv, "metrics-port", String.valueOf(DEFAULT_METRICS_PORT)), -1);
+    String jfrFile = kv.containsKey("jfr") ? getOr(kv, "jfr", DEFAULT_JFR_FILE) : null;
     if (kv.containsKey("ui")) {
       throw new IllegalArgumentException("--ui has been removed; JavaFX GUI is now the default.");
     }
@@ -119,16 +214,43 @@ final class Args {
     if ((fftSize & (fftSize - 1)) != 0) {
       throw new IllegalArgumentException("--fft must be a power of two (e.g. 512, 1024, 2048)");
     }
+    if (hopSize < 0 || hopSize > fftSize) {
+      throw new IllegalArgumentException("--hop must be between 0 (same as --fft) and --fft");
+    }
     if (channels < 1 || channels > 2) {
       throw new IllegalArgumentException("--channels must be 1 or 2");
     }
-    if (ddpPixelCount < 1 || ddpPixelCount > 4096) {
-      throw new IllegalArgumentException("--ddp-pixels must be between 1 and 4096");
+    if (ddpPixelCount < 1 || ddpPixelCount > MAX_DDP_PIXELS) {
+      throw new IllegalArgumentException("--ddp-pixels must be between 1 and " + MAX_DDP_PIXELS);
+    }
+    if (ddpPacketPixels < 1 || ddpPacketPixels > MAX_DDP_PACKET_PIXELS) {
+      throw new IllegalArgumentException("--ddp-packet-pixels must be between 1 and " + MAX_DDP_PACKET_PIXELS);
+    }
+    if (renderThreads < 0 || renderThreads > MAX_RENDER_THREADS) {
+      throw new IllegalArgumentException("--render-threads must be between 0 (auto) and " + MAX_RENDER_THREADS);
+    }
+    if (renderResolution != 0 && (renderResolution < MIN_RENDER_RESOLUTION || renderResolution > MAX_RENDER_RESOLUTION)) {
+      throw new IllegalArgumentException("--render-resolution must be 0 (per pixel) or between "
+          + MIN_RENDER_RESOLUTION + " and " + MAX_RENDER_RESOLUTION);
+    }
+    if (canvasPixelCount < 0 || canvasPixelCount > MAX_CANVAS_PIXELS) {
+      throw new IllegalArgumentException("--canvas-pixels must be between 0 (off) and " + MAX_CANVAS_PIXELS);
+    }
+    checkCanvasTargets(extraTargets, canvasPixelCount);
+    if (ddpTimecodeDelayMs < -1 || ddpTimecodeDelayMs > MAX_TIMECODE_DELAY) {
+      throw new IllegalArgumentException("--timecode-delay must be -1 (off) or between 0 and " + MAX_TIMECODE_DELAY);
+    }
+    if (packetPacingPercent < 0 || packetPacingPercent > MAX_PACKET_PACING) {
+      throw new IllegalArgumentException("--packet-pacing must be between 0 (off) and " + MAX_PACKET_PACING);
+    }
+    if (metricsPort < 0 || metricsPort > 65535) {
+      throw new IllegalArgumentException("--metrics-port must be between 0 (off) and 65535");
     }
 
     return new Args(
         flags.contains("help"),
         flags.contains("list"),
+        flags.contains("probe-payload"),
         flags.contains("verbose"),
         dest,
         port,
@@ -136,11 +258,24 @@ final class Args {
         sampleRate,
         channels,
         fftSize,
+        hopSize,
         fps,
+        framePacing,
         mode,
         ddpPixelCount,
         ddpLayoutMode,
         ddpColorPalette,
+        ddpPacketPixels,
+        renderThreads,
+        renderResolution,
+        pushTransport,
+        extraTargets,
+        canvasPixelCount,
+        ddpTimecodeDelayMs,
+        packetPacingPercent,
+        metricsBind,
+        metricsPort,
+        jfrFile,
         argv
     );
   }
@@ -160,13 +295,164 @@ final class Args {
     System.out.println("  --ddp-pixels <n>          DDP 模式像素数 (默认: " + DEFAULT_DDP_PIXELS + ")");
     System.out.println("  --ddp-layout <stretch|repeat|mirror>  DDP 灯带布局 (默认: " + DEFAULT_DDP_LAYOUT.cliValue() + ")");
     System.out.println("  --ddp-palette <nightclub|aurora|sunset|fire|ocean|candy>  DDP 配色 (默认: " + DEFAULT_DDP_PALETTE.cliValue() + ")");
+    System.out.println("  --ddp-packet-pixels <n>   每个 DDP 分片的像素数, 有线或支持大包的接收端可调大以减少包数 (默认: " + DEFAULT_DDP_PACKET_PIXELS + ")");
+    System.out.println("  --probe-payload           向 --dest/--port 上的 UDP 回显服务探测能往返的最大分片, 打印后退出");
+    System.out.println("  --render-threads <n>      DDP 渲染线程数, 0 表示按 CPU 核数, 像素数达到 2048 才并行 (默认: 0)");
+    System.out.println("  --render-resolution <n>   DDP 内部渲染分辨率, 像素数更多时线性插值放大, 0 表示逐像素渲染 (默认: 0)");
     System.out.println("  --rate <hz>               采样率 (默认: 44100)");
     System.out.println("  --channels <1|2>          声道数 (默认: 2)");
     System.out.println("  --fft <n>                 FFT 点数, 2 的幂 (默认: 1024)");
+    System.out.println("  --hop <n>                 分析步长(新样本数), 0 表示与 FFT 相同 (默认: 0)");
     System.out.println("  --fps <n>                 发送帧率 (默认: 50)");
+    System.out.println("  --pacing <sleep-spin|park|audio-clock>  帧调度策略 (默认: " + DEFAULT_PACING.cliValue() + ")");
+    System.out.println("  --transport <nio|socket>  UDP 发送方式, nio 为单播 connect 的 DatagramChannel (默认: " + DEFAULT_TRANSPORT.cliValue() + ")");
+    System.out.println("  --targets \"<目标>; <目标>\"  附加推送目标, 共用同一路音频分析, 格式: ip[:端口] [mode=ddp|audio-sync] [pixels=n] [layout=..] [palette=..] [packet=n] [name=..]");
+    System.out.println("  --targets-file <路径>     从文件读取附加目标, 每行一个, # 开头为注释");
+    System.out.println("  --canvas-pixels <n>       虚拟画布像素数, 带 canvas=<起点> 的目标各取画布的一段, 0 表示关闭 (默认: 0)");
+    System.out.println("  --timecode-delay <ms>     DDP 包带上时间码 (当前时间 + 延迟), 支持的控制器按时间码同步显示, -1 表示关闭 (默认: -1)");
+    System.out.println("  --packet-pacing <百分比>  把一帧的多个 UDP 分片按令牌桶均匀分布在帧间隔的该比例内, 避免突发丢包, 0 表示连发 (默认: 0)");
+    System.out.println("  --metrics-port <n>        在该端口开启 Prometheus 文本格式的 /metrics 接口, 0 表示关闭 (默认: 0)");
+    System.out.println("  --metrics-bind <ip>       /metrics 接口监听的地址 (默认: " + DEFAULT_METRICS_BIND + ")");
+    System.out.println("  --jfr [文件]              启动 JFR 连续录制 (保留最近 10 分钟, 退出时写入文件), 含采集/FFT/渲染/发送事件 (默认文件: " + DEFAULT_JFR_FILE + ")");
     System.out.println("  --verbose                 每约 10 帧打印一次调试信息\n");
   }
 
+  static List<TargetSpec> readTargetsFile(String path) {
+    try {
+      return parseTargets(String.join("\n", Files.readAllLines(Path.of(path), StandardCharsets.UTF_8)));
+    } catch (IOException e) {
+      throw new IllegalArgumentException("--targets-file cannot be read: " + path);
+    }
+  }
+
+  static List<TargetSpec> parseTargets(String text) {
+    List<TargetSpec> targets = new ArrayList<>();
+    if (text == null) {
+      return targets;
+    }
+    for (String entry : text.split("[;\n]")) {
+      String trimmed = entry.trim();
+      if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+        continue;
+      }
+      targets.add(parseTarget(trimmed));
+    }
+    return uniqueTargets(targets);
+  }
+
+  static String formatTargets(List<TargetSpec> targets) {
+    StringBuilder sb = new StringBuilder();
+    for (TargetSpec target : targets) {
+      if (sb.length() > 0) {
+        sb.append("; ");
+      }
+      sb.append(target.cliValue());
+    }
+    return sb.toString();
+  }
+
+  private static TargetSpec parseTarget(String entry) {
+    String[] tokens = entry.split("\\s+");
+    String address = tokens[0];
+    String dest = address;
+    int port = 0;
+    int colon = address.lastIndexOf(':');
+    if (colon > 0) {
+      dest = address.substring(0, colon);
+      port = parseInt(address.substring(colon + 1), -1);
+      if (port < 1 || port > 65535) {
+        throw new IllegalArgumentException("target port must be between 1 and 65535: " + entry);
+      }
+    }
+    OutputMode mode = OutputMode.DDP;
+    int pixels = DEFAULT_DDP_PIXELS;
+    DdpLayoutMode layout = DEFAULT_DDP_LAYOUT;
+    DdpColorPalette palette = DEFAULT_DDP_PALETTE;
+    String name = null;
+    int canvasStart = -1;
+    int destinationId = 1;
+    int deviceOffset = 0;
+    int packetPixels = DEFAULT_DDP_PACKET_PIXELS;
+    for (int i = 1; i < tokens.length; i++) {
+      int eq = tokens[i].indexOf('=');
+      if (eq <= 0) {
+        throw new IllegalArgumentException("target option must be key=value: " + tokens[i]);
+      }
+      String key = tokens[i].substring(0, eq).toLowerCase();
+      String value = tokens[i].substring(eq + 1);
+      switch (key) {
+        case "mode":
+          mode = OutputMode.fromCliValue(value);
+          break;
+        case "pixels":
+          pixels = parseInt(value, -1);
+          break;
+        case "layout":
+          layout = DdpLayoutMode.fromCliValue(value);
+          break;
+        case "palette":
+          palette = DdpColorPalette.fromCliValue(value);
+          break;
+        case "name":
+          name = value;
+          break;
+        case "canvas":
+          canvasStart = parseInt(value, -1);
+          if (canvasStart < 0) {
+            throw new IllegalArgumentException("target canvas start must be >= 0: " + entry);
+          }
+          break;
+        case "dest-id":
+          destinationId = parseInt(value, -1);
+          if (destinationId < 1 || destinationId > 255) {
+            throw new IllegalArgumentException("target dest-id must be between 1 and 255: " + entry);
+          }
+          break;
+        case "offset":
+          deviceOffset = parseInt(value, -1);
+          if (deviceOffset < 0) {
+            throw new IllegalArgumentException("target offset must be >= 0: " + entry);
+          }
+          break;
+        case "packet":
+          packetPixels = parseInt(value, -1);
+          if (packetPixels < 1 || packetPixels > MAX_DDP_PACKET_PIXELS) {
+            throw new IllegalArgumentException("target packet must be between 1 and " + MAX_DDP_PACKET_PIXELS + ": " + entry);
+          }
+          break;
+        default:
+          throw new IllegalArgumentException("unknown target option: " + key);
+      }
+    }
+    if (pixels < 1 || pixels > MAX_DDP_PIXELS) {
+      throw new IllegalArgumentException("target pixels must be between 1 and " + MAX_DDP_PIXELS + ": " + entry);
+    }
+    if (canvasStart >= 0 && mode != OutputMode.DDP) {
+      throw new IllegalArgumentException("canvas targets must use mode=ddp: " + entry);
+    }
+    return new TargetSpec(name, dest, port > 0 ? port : mode.defaultPort(), mode, pixels, layout, palette,
+        canvasStart, destinationId, deviceOffset, packetPixels);
+  }
+
+  static void checkCanvasTargets(List<TargetSpec> targets, int canvasPixelCount) {
+    for (TargetSpec target : targets) {
+      if (target.canvasStart() >= 0 && target.canvasEnd() > canvasPixelCount) {
+        throw new IllegalArgumentException("target " + target.id() + " covers canvas pixels up to " + target.canvasEnd()
+            + " but --canvas-pixels is " + canvasPixelCount);
+      }
+    }
+  }
+
+  private static List<TargetSpec> uniqueTargets(List<TargetSpec> targets) {
+    Map<String, TargetSpec> byId = new LinkedHashMap<>();
+    for (TargetSpec target : targets) {
+      if (byId.put(target.id(), target) != null) {
+        throw new IllegalArgumentException("duplicate target: " + target.id());
+      }
+    }
+    return new ArrayList<>(byId.values());
+  }
+
   private static String getOr(Map<String, String> kv, String key, String def) {
     String v = kv.get(key);
     return (v == null || v.isEmpty()) ? def : v;
@@ -0,0 +1,64 @@
+package local.wled.app;
+
+import javafx.collections.ObservableListBase;
+
+import local.wled.core.LogHistory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class LogListModel extends ObservableListBase<String> {
+  private final LogHistory history;
+  private final List<String> evicted = new ArrayList<>();
+
+  LogListModel(int capacity) {
+    this.history = new LogHistory(capacity);
+  }
+
+  @Override
+  public String get(int index) {
+    return history.visibleLine(index);
+  }
+
+  @Override
+  public int size() {
+    return history.visibleSize();
+  }
+
+  void appendAll(List<String> batch) {
+    int before = history.visibleSize();
+    evicted.clear();
+    for (int i = Math.max(0, batch.size() - history.capacity()); i < batch.size(); i++) {
+      String gone = history.append(batch.get(i));
+      if (gone != null) {
+        evicted.add(gone);
+      }
+    }
+    int after = history.visibleSize();
+    int added = after - (before - evicted.size());
+    if (evicted.isEmpty() && added == 0) {
+      return;
+    }
+    beginChange();
+    if (!evicted.isEmpty()) {
+      nextRemove(0, evicted);
+    }
+    if (added > 0) {
+      nextAdd(after - added, after);
+    }
+    endChange();
+    evicted.clear();
+  }
+
+  boolean setFilter(String query) {
+    return history.setFilter(query);
+  }
+
+  int find(String query, int fromIndex) {
+    return history.find(query, fromIndex);
+  }
+
+  void clearHistory() {
+    history.clear();
+  }
+}
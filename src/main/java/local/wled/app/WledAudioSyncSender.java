@@ -3,6 +3,10 @@ package local.wled.app;
 import javafx.application.Application;
 
 import local.wled.core.AudioDeviceCatalog;
+import local.wled.core.DdpPayloadProbe;
+import local.wled.core.FlightRecording;
+
+import java.io.IOException;
 
 public final class WledAudioSyncSender {
   static final String APP_NAME = "WLED 音频同步发送器";
@@ -33,6 +37,15 @@ public final class WledAudioSyncSender {
       return;
     }
 
+    if (parsed.probePayload) {
+      probePayloadCli(parsed);
+      return;
+    }
+
+    if (parsed.jfrFile != null) {
+      startFlightRecordingCli(parsed.jfrFile);
+    }
+
     Application.launch(WledAudioSyncSenderFxApp.class, parsed.rawArgs);
   }
 
@@ -43,4 +56,25 @@ public final class WledAudioSyncSender {
     }
     System.out.println("\n提示：一般用 --input \"BlackHole\" 来选择 BlackHole 2ch。\n");
   }
+
+  static void startFlightRecordingCli(String file) {
+    try {
+      System.out.println("JFR 连续录制已开启, 保留最近 " + FlightRecording.MAX_AGE.toMinutes() + " 分钟, 退出时写入: "
+          + FlightRecording.startContinuous(file));
+    } catch (IOException | IllegalStateException | SecurityException e) {
+      System.err.println("JFR 录制启动失败: " + e.getMessage());
+    }
+  }
+
+  static void probePayloadCli(Args parsed) {
+    System.out.println("探测 DDP 最大分片: " + parsed.dest + ":" + parsed.port + " (需要对端回显 UDP 包)");
+    try {
+      int pixels = new DdpPayloadProbe(parsed.dest, parsed.port, 300, System.out::println).largestPacketPixels();
+      if (pixels > 0) {
+        System.out.println("\n最大可用分片: " + pixels + " 像素, 可使用 --ddp-packet-pixels " + pixels + " 或目标选项 packet=" + pixels + "\n");
+      }
+    } catch (IOException e) {
+      System.err.println("探测失败: " + e.getMessage());
+    }
+  }
 }
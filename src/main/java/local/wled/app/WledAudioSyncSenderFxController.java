@@ -12,10 +12,11 @@ import javafx.scene.control.Button;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
 import javafx.scene.control.OverrunStyle;
 import javafx.scene.control.Slider;
 import javafx.scene.control.ScrollBar;
-import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
 import javafx.scene.control.ToggleButton;
 import javafx.scene.control.Tooltip;
@@ -33,14 +34,22 @@ import javafx.util.Duration;
 import local.wled.core.AudioDeviceCatalog;
 import local.wled.core.DdpColorPalette;
 import local.wled.core.DdpLayoutMode;
+import local.wled.core.FramePacing;
+import local.wled.core.PushTransport;
 import local.wled.core.OutputMode;
+import local.wled.core.PipelineStage;
 import local.wled.core.SenderConfig;
 import local.wled.core.SenderController;
 import local.wled.core.SenderMetrics;
+import local.wled.core.TargetSpec;
 
+import java.util.ArrayList;
 import java.util.Locale;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.prefs.Preferences;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
@@ -64,6 +73,7 @@ public final class WledAudioSyncSenderFxController {
   private static final int PEAK_HOLD_TICKS = 6;
   private static final long UI_FRAME_INTERVAL_NANOS = 33_000_000L;
   private static final int STATS_UPDATE_INTERVAL = 3;
+  private static final int LOG_CAPACITY = 5_000;
 
   private static final String THEME_CYBER_BLUE = "赛博蓝 (Cyber Blue)";
   private static final String THEME_ELECTRO_GREEN = "电子绿 (Electro Green)";
@@ -116,8 +126,6 @@ public final class WledAudioSyncSenderFxController {
       "-fx-control-inner-background: -app-log-bg;"
           + "-fx-background-color: -app-log-bg;"
           + "-fx-text-fill: -app-log-text;"
-          + "-fx-highlight-fill: -app-mark;"
-          + "-fx-highlight-text-fill: -app-button-start-text;"
           + "-fx-border-color: -app-input-border;"
           + "-fx-border-radius: 14;"
           + "-fx-background-radius: 14;"
@@ -180,6 +188,10 @@ public final class WledAudioSyncSenderFxController {
   @FXML
   private ComboBox<String> ddpPaletteBox;
   @FXML
+  private ComboBox<String> pacingBox;
+  @FXML
+  private ComboBox<String> transportBox;
+  @FXML
   private ComboBox<String> spectrumStyleBox;
   @FXML
   private Slider effectIntensitySlider;
@@ -199,6 +211,26 @@ public final class WledAudioSyncSenderFxController {
   @FXML
   private TextField fftField;
   @FXML
+  private TextField hopField;
+  @FXML
+  private TextField renderThreadsField;
+  @FXML
+  private TextField renderResolutionField;
+  @FXML
+  private TextField targetsField;
+  @FXML
+  private TextField canvasPixelsField;
+  @FXML
+  private TextField timecodeDelayField;
+  @FXML
+  private TextField packetPacingField;
+  @FXML
+  private TextField packetPixelsField;
+  @FXML
+  private TextField metricsPortField;
+  @FXML
+  private TextField metricsBindField;
+  @FXML
   private TextField fpsField;
 
   @FXML
@@ -213,7 +245,11 @@ public final class WledAudioSyncSenderFxController {
   private ToggleButton pushSwitchCheck;
 
   @FXML
-  private TextArea logArea;
+  private ListView<String> logList;
+  @FXML
+  private TextField logFilterField;
+  @FXML
+  private TextField logSearchField;
 
   private SenderController sender;
   private GraphicsContext spectrumGraphics;
@@ -230,7 +266,9 @@ public final class WledAudioSyncSenderFxController {
   private int activeEnergyLevel = -1;
   private int statsUpdateCountdown;
   private final Object metricsRenderLock = new Object();
-  private SenderMetrics pendingMetrics;
+  private final SenderMetrics pendingMetrics = new SenderMetrics();
+  private final SenderMetrics renderMetrics = new SenderMetrics();
+  private boolean hasPendingMetrics;
   private boolean renderScheduled;
   private long lastUiRenderAtNanos;
   private boolean syncingMasterSwitch;
@@ -238,6 +276,10 @@ public final class WledAudioSyncSenderFxController {
   private Timeline refreshResultTimeline;
   private final Tooltip refreshTooltip = new Tooltip("刷新输入设备列表");
   private final Map<ToggleButton, SwitchVisual> switchVisuals = new HashMap<>();
+  private final LogListModel logModel = new LogListModel(LOG_CAPACITY);
+  private final ConcurrentLinkedQueue<String> pendingLog = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean logFlushScheduled = new AtomicBoolean();
+  private final List<String> logBatch = new ArrayList<>();
 
   private Stage stage;
   private double initialWindowWidth = 980.0;
@@ -280,6 +322,10 @@ public final class WledAudioSyncSenderFxController {
         DdpColorPalette.CANDY.uiLabel()
     );
     ddpPaletteBox.setValue(effectiveArgs.ddpColorPalette.uiLabel());
+    pacingBox.getItems().setAll(FramePacing.SLEEP_SPIN.uiLabel(), FramePacing.PARK.uiLabel(), FramePacing.AUDIO_CLOCK.uiLabel());
+    pacingBox.setValue(effectiveArgs.framePacing.uiLabel());
+    transportBox.getItems().setAll(PushTransport.CHANNEL.uiLabel(), PushTransport.SOCKET.uiLabel());
+    transportBox.setValue(effectiveArgs.pushTransport.uiLabel());
     ddpLayoutBox.valueProperty().addListener((obs, oldValue, newValue) -> applyLiveDdpRuntimeSettings());
     ddpPaletteBox.valueProperty().addListener((obs, oldValue, newValue) -> applyLiveDdpRuntimeSettings());
     spectrumStyleBox.getItems().setAll(
@@ -315,9 +361,19 @@ public final class WledAudioSyncSenderFxController {
     destField.setText(effectiveArgs.dest);
     portField.setText(String.valueOf(effectiveArgs.port));
     pixelCountField.setText(String.valueOf(effectiveArgs.ddpPixelCount));
+    packetPixelsField.setText(String.valueOf(effectiveArgs.ddpPacketPixels));
     rateField.setText(String.valueOf(effectiveArgs.sampleRate));
     channelsField.setText(String.valueOf(effectiveArgs.channels));
     fftField.setText(String.valueOf(effectiveArgs.fftSize));
+    hopField.setText(String.valueOf(effectiveArgs.hopSize));
+    renderThreadsField.setText(String.valueOf(effectiveArgs.renderThreads));
+    renderResolutionField.setText(String.valueOf(effectiveArgs.renderResolution));
+    targetsField.setText(Args.formatTargets(effectiveArgs.extraTargets));
+    canvasPixelsField.setText(String.valueOf(effectiveArgs.canvasPixelCount));
+    timecodeDelayField.setText(String.valueOf(effectiveArgs.ddpTimecodeDelayMs));
+    packetPacingField.setText(String.valueOf(effectiveArgs.packetPacingPercent));
+    metricsPortField.setText(String.valueOf(effectiveArgs.metricsPort));
+    metricsBindField.setText(effectiveArgs.metricsBind);
     fpsField.setText(String.valueOf(effectiveArgs.fps));
     verboseCheck.setSelected(effectiveArgs.verbose);
     verboseCheck.selectedProperty().addListener((obs, oldValue, newValue) -> {
@@ -344,9 +400,7 @@ public final class WledAudioSyncSenderFxController {
     refreshStatusLabel.setText("");
     refreshStatusLabel.setManaged(false);
     refreshStatusLabel.setVisible(false);
-    logArea.getStyleClass().add("log-area");
-    logArea.setStyle(LOG_AREA_INLINE_STYLE);
-    logArea.skinProperty().addListener((obs, oldSkin, newSkin) -> Platform.runLater(this::applyLogAreaSkinStyles));
+    installLogList();
     Platform.runLater(this::applyLogAreaSkinStyles);
     refreshOutputModeUiState(true);
 
@@ -390,11 +444,29 @@ public final class WledAudioSyncSenderFxController {
 
   @FXML
   private void onClearLog() {
-    if (logArea != null) {
-      logArea.clear();
+    if (logList != null) {
+      logList.setItems(null);
+      logModel.clearHistory();
+      logList.setItems(logModel);
     }
   }
 
+  @FXML
+  private void onSearchLog() {
+    String query = logSearchField.getText();
+    if (query == null || query.trim().isEmpty()) {
+      logList.getSelectionModel().clearSelection();
+      return;
+    }
+    int index = logModel.find(query.trim(), logList.getSelectionModel().getSelectedIndex() + 1);
+    if (index < 0) {
+      logList.getSelectionModel().clearSelection();
+      return;
+    }
+    logList.getSelectionModel().select(index);
+    logList.scrollTo(index);
+  }
+
   private void playRefreshFeedback(int deviceCount) {
     if (refreshButton == null) {
       return;
@@ -509,6 +581,18 @@ public final class WledAudioSyncSenderFxController {
     }
   }
 
+  @FXML
+  private void onTargetsChanged() {
+    if (sender == null || !sender.isRunning()) {
+      return;
+    }
+    try {
+      sender.setTargets(Args.parseTargets(targetsField.getText()));
+    } catch (RuntimeException ex) {
+      appendLog("参数错误: " + ex.getMessage());
+    }
+  }
+
   private void applyLiveDdpRuntimeSettings() {
     if (sender == null || !sender.isRunning()) {
       return;
@@ -705,18 +789,54 @@ public final class WledAudioSyncSenderFxController {
     int rate = parseInt(rateField.getText(), Args.DEFAULT_SAMPLE_RATE);
     int channels = parseInt(channelsField.getText(), Args.DEFAULT_CHANNELS);
     int fft = parseInt(fftField.getText(), Args.DEFAULT_FFT_SIZE);
+    int hop = parseInt(hopField.getText(), Args.DEFAULT_HOP_SIZE);
     int fps = parseInt(fpsField.getText(), Args.DEFAULT_FPS);
     int ddpPixelCount = parseInt(pixelCountField.getText(), Args.DEFAULT_DDP_PIXELS);
+    int ddpPacketPixels = parseInt(packetPixelsField.getText(), Args.DEFAULT_DDP_PACKET_PIXELS);
+    int renderThreads = parseInt(renderThreadsField.getText(), Args.DEFAULT_RENDER_THREADS);
+    int renderResolution = parseInt(renderResolutionField.getText(), Args.DEFAULT_RENDER_RESOLUTION);
+    int canvasPixelCount = parseInt(canvasPixelsField.getText(), Args.DEFAULT_CANVAS_PIXELS);
+    int ddpTimecodeDelayMs = parseInt(timecodeDelayField.getText(), Args.DEFAULT_TIMECODE_DELAY);
+    int packetPacingPercent = parseInt(packetPacingField.getText(), Args.DEFAULT_PACKET_PACING);
+    int metricsPort = parseInt(metricsPortField.getText(), -1);
+    List<TargetSpec> extraTargets = Args.parseTargets(targetsField.getText());
     DdpLayoutMode ddpLayoutMode = selectedDdpLayoutMode();
     DdpColorPalette ddpColorPalette = selectedDdpColorPalette();
     if ((fft & (fft - 1)) != 0) {
       throw new IllegalArgumentException("频谱窗口大小 (FFT Size) 必须为 2 的幂");
     }
+    if (hop < 0 || hop > fft) {
+      throw new IllegalArgumentException("分析步长 (Hop) 必须在 0 到 FFT Size 之间 (0 表示与 FFT Size 相同)");
+    }
     if (channels < 1 || channels > 2) {
       throw new IllegalArgumentException("声道数 (Channels) 只能是 1 或 2");
     }
-    if (ddpPixelCount < 1 || ddpPixelCount > 4096) {
-      throw new IllegalArgumentException("DDP 像素数 (Pixels) 必须在 1 到 4096 之间");
+    if (ddpPixelCount < 1 || ddpPixelCount > Args.MAX_DDP_PIXELS) {
+      throw new IllegalArgumentException("DDP 像素数 (Pixels) 必须在 1 到 " + Args.MAX_DDP_PIXELS + " 之间");
+    }
+    if (ddpPacketPixels < 1 || ddpPacketPixels > Args.MAX_DDP_PACKET_PIXELS) {
+      throw new IllegalArgumentException("DDP 分片像素 (Packet Px) 必须在 1 到 " + Args.MAX_DDP_PACKET_PIXELS + " 之间");
+    }
+    if (renderThreads < 0 || renderThreads > Args.MAX_RENDER_THREADS) {
+      throw new IllegalArgumentException("渲染线程 (Render Threads) 必须在 0 到 " + Args.MAX_RENDER_THREADS + " 之间 (0 表示自动)");
+    }
+    if (renderResolution != 0
+        && (renderResolution < Args.MIN_RENDER_RESOLUTION || renderResolution > Args.MAX_RENDER_RESOLUTION)) {
+      throw new IllegalArgumentException("渲染分辨率 (Render Res) 必须为 0 (逐像素) 或在 "
+          + Args.MIN_RENDER_RESOLUTION + " 到 " + Args.MAX_RENDER_RESOLUTION + " 之间");
+    }
+    if (canvasPixelCount < 0 || canvasPixelCount > Args.MAX_CANVAS_PIXELS) {
+      throw new IllegalArgumentException("虚拟画布 (Canvas) 像素数必须在 0 到 " + Args.MAX_CANVAS_PIXELS + " 之间 (0 表示关闭)");
+    }
+    Args.checkCanvasTargets(extraTargets, canvasPixelCount);
+    if (ddpTimecodeDelayMs < -1 || ddpTimecodeDelayMs > Args.MAX_TIMECODE_DELAY) {
+      throw new IllegalArgumentException("时间码延迟 (Timecode) 必须为 -1 (关闭) 或在 0 到 " + Args.MAX_TIMECODE_DELAY + " 毫秒之间");
+    }
+    if (packetPacingPercent < 0 || packetPacingPercent > Args.MAX_PACKET_PACING) {
+      throw new IllegalArgumentException("分片匀速 (Packet Pacing) 必须在 0 到 " + Args.MAX_PACKET_PACING + " 之间 (0 表示连发)");
+    }
+    if (metricsPort < 0 || metricsPort > 65535) {
+      throw new IllegalArgumentException("指标端口 (Metrics) 必须在 0 到 65535 之间 (0 表示关闭)");
     }
 
     String dest = destField.getText();
@@ -730,12 +850,24 @@ public final class WledAudioSyncSenderFxController {
         rate,
         channels,
         fft,
+        hop,
         fps,
+        FramePacing.fromUiLabel(pacingBox.getValue()),
         verboseCheck.isSelected(),
         outputMode,
         ddpPixelCount,
         ddpLayoutMode,
         ddpColorPalette,
+        ddpPacketPixels,
+        renderThreads,
+        renderResolution,
+        PushTransport.fromUiLabel(transportBox.getValue()),
+        extraTargets,
+        canvasPixelCount,
+        ddpTimecodeDelayMs,
+        packetPacingPercent,
+        metricsBindField.getText(),
+        metricsPort,
         captureSwitchCheck.isSelected(),
         pushSwitchCheck.isSelected()
     );
@@ -757,6 +889,7 @@ public final class WledAudioSyncSenderFxController {
     OutputMode selectedMode = selectedOutputMode();
     boolean ddpMode = selectedMode == OutputMode.DDP;
     pixelCountField.setDisable(!ddpMode);
+    packetPixelsField.setDisable(!ddpMode);
     ddpLayoutBox.setDisable(!ddpMode);
     ddpPaletteBox.setDisable(!ddpMode);
 
@@ -799,33 +932,79 @@ public final class WledAudioSyncSenderFxController {
   }
 
   private void appendLog(String text) {
-    Platform.runLater(() -> {
-      logArea.appendText(text + "\n");
-      logArea.positionCaret(logArea.getLength());
-      logArea.setScrollTop(Double.MAX_VALUE);
+    pendingLog.offer(text);
+    if (logFlushScheduled.compareAndSet(false, true)) {
+      Platform.runLater(this::flushPendingLog);
+    }
+  }
+
+  private void flushPendingLog() {
+    logFlushScheduled.set(false);
+    boolean stopped = false;
+    String text;
+    while ((text = pendingLog.poll()) != null) {
+      logBatch.add(text);
       if (text.startsWith("发送已停止") || text.startsWith("错误:")) {
-        syncMasterSwitch(false);
+        stopped = true;
+      }
+    }
+    if (logBatch.isEmpty()) {
+      return;
+    }
+    logModel.appendAll(logBatch);
+    logBatch.clear();
+    if (logList.getSelectionModel().isEmpty() && !logModel.isEmpty()) {
+      logList.scrollTo(logModel.size() - 1);
+    }
+    if (stopped) {
+      syncMasterSwitch(false);
+    }
+  }
+
+  private void installLogList() {
+    logList.setItems(logModel);
+    logList.getStyleClass().add("log-area");
+    logList.setStyle(LOG_AREA_INLINE_STYLE);
+    logList.setCellFactory(list -> {
+      ListCell<String> cell = new ListCell<>() {
+        @Override
+        protected void updateItem(String item, boolean empty) {
+          super.updateItem(item, empty);
+          setText(empty ? null : item);
+        }
+      };
+      cell.setWrapText(true);
+      cell.setPrefWidth(0.0);
+      return cell;
+    });
+    logList.skinProperty().addListener((obs, oldSkin, newSkin) -> Platform.runLater(this::applyLogAreaSkinStyles));
+    logFilterField.textProperty().addListener((obs, oldValue, newValue) -> {
+      logList.setItems(null);
+      logModel.setFilter(newValue);
+      logList.setItems(logModel);
+      logList.getSelectionModel().clearSelection();
+      if (!logModel.isEmpty()) {
+        logList.scrollTo(logModel.size() - 1);
       }
     });
   }
 
   private void applyLogAreaSkinStyles() {
-    styleLogAreaNode(".content", LOG_AREA_SURFACE_STYLE);
-    styleLogAreaNode(".viewport", LOG_AREA_SURFACE_STYLE);
-    styleLogAreaNode(".scroll-pane", LOG_AREA_SURFACE_STYLE);
+    styleLogAreaNode(".virtual-flow", LOG_AREA_SURFACE_STYLE);
+    styleLogAreaNode(".clipped-container", LOG_AREA_SURFACE_STYLE);
     styleLogAreaNode(".corner", LOG_AREA_SURFACE_STYLE);
     styleLogAreaScrollBars();
   }
 
   private void styleLogAreaNode(String selector, String style) {
-    Node node = logArea.lookup(selector);
+    Node node = logList.lookup(selector);
     if (node != null) {
       node.setStyle(style);
     }
   }
 
   private void styleLogAreaScrollBars() {
-    for (Node barNode : logArea.lookupAll(".scroll-bar:vertical")) {
+    for (Node barNode : logList.lookupAll(".scroll-bar:vertical")) {
       barNode.setStyle(LOG_SCROLLBAR_BASE_STYLE);
       if (barNode instanceof ScrollBar) {
         ((ScrollBar) barNode).setPrefWidth(11);
@@ -849,7 +1028,8 @@ public final class WledAudioSyncSenderFxController {
   private void updateMetrics(SenderMetrics m) {
     boolean shouldSchedule = false;
     synchronized (metricsRenderLock) {
-      pendingMetrics = m;
+      pendingMetrics.copyFrom(m);
+      hasPendingMetrics = true;
       long now = System.nanoTime();
       boolean canRenderNow = (lastUiRenderAtNanos == 0L) || (now - lastUiRenderAtNanos >= UI_FRAME_INTERVAL_NANOS);
       if (!renderScheduled && canRenderNow) {
@@ -863,15 +1043,18 @@ public final class WledAudioSyncSenderFxController {
   }
 
   private void renderPendingMetrics() {
-    SenderMetrics m;
+    SenderMetrics m = renderMetrics;
     synchronized (metricsRenderLock) {
-      m = pendingMetrics;
-      pendingMetrics = null;
+      boolean hasMetrics = hasPendingMetrics;
+      if (hasMetrics) {
+        m.copyFrom(pendingMetrics);
+      }
+      hasPendingMetrics = false;
       renderScheduled = false;
       lastUiRenderAtNanos = System.nanoTime();
-    }
-    if (m == null) {
-      return;
+      if (!hasMetrics) {
+        return;
+      }
     }
 
     byte[] spectrum = m.spectrum16;
@@ -917,7 +1100,17 @@ public final class WledAudioSyncSenderFxController {
           m.smoothedAmp,
           m.peak,
           m.majorPeakHz,
-          m.magnitude));
+          m.magnitude,
+          m.audioOverruns,
+          m.audioUnderruns,
+          m.frameIntervalNanos,
+          m.frameLatenessNanos,
+          m.missedDeadlines,
+          m.pushBytesPerSecond,
+          m.droppedFrames,
+          m.overwrittenFrames,
+          m.endToEndNanos,
+          sender != null ? sender.latency(PipelineStage.END_TO_END).p99Nanos : 0L));
       statsUpdateCountdown = STATS_UPDATE_INTERVAL - 1;
     } else {
       statsUpdateCountdown--;
@@ -925,7 +1118,7 @@ public final class WledAudioSyncSenderFxController {
 
     boolean shouldSchedule = false;
     synchronized (metricsRenderLock) {
-      if (pendingMetrics != null && !renderScheduled) {
+      if (hasPendingMetrics && !renderScheduled) {
         long now = System.nanoTime();
         boolean canRenderNow = now - lastUiRenderAtNanos >= UI_FRAME_INTERVAL_NANOS;
         if (canRenderNow) {
@@ -943,14 +1136,34 @@ public final class WledAudioSyncSenderFxController {
                                         double smoothedAmp,
                                         int peak,
                                         double majorPeakHz,
-                                        double magnitude) {
+                                        double magnitude,
+                                        long audioOverruns,
+                                        long audioUnderruns,
+                                        long frameIntervalNanos,
+                                        long frameLatenessNanos,
+                                        long missedDeadlines,
+                                        long pushBytesPerSecond,
+                                        long droppedFrames,
+                                        long overwrittenFrames,
+                                        long endToEndNanos,
+                                        long endToEndP99Nanos) {
     return String.format(Locale.ROOT,
-        "帧(frame)=%6d 平滑(smoothed)=%5.1f 峰值(peak)=%3d 主频(majorHz)=%6.1fHz 幅值(mag)=%6.1f",
+        "帧(frame)=%6d 平滑(smoothed)=%5.1f 峰值(peak)=%3d 主频(majorHz)=%6.1fHz 幅值(mag)=%6.1f 溢出(overrun)=%d 欠载(underrun)=%d 间隔(interval)=%5.2fms 延迟(late)=%5.2fms 丢帧(missed)=%d 速率(rate)=%.1fKB/s 丢弃(dropped)=%d 覆盖(overwritten)=%d 端到端(e2e)=%.2fms p99=%.2fms",
         frameCounter,
         smoothedAmp,
         peak,
         majorPeakHz,
-        magnitude);
+        magnitude,
+        audioOverruns,
+        audioUnderruns,
+        frameIntervalNanos / 1_000_000.0,
+        frameLatenessNanos / 1_000_000.0,
+        missedDeadlines,
+        pushBytesPerSecond / 1024.0,
+        droppedFrames,
+        overwrittenFrames,
+        endToEndNanos / 1_000_000.0,
+        endToEndP99Nanos / 1_000_000.0);
   }
 
   private void applyTheme(String themeName) {
@@ -0,0 +1,184 @@
+package local.wled.core;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+final class AsyncLog {
+  static final int DEFAULT_CAPACITY = 1024;
+  private static final long DRAIN_INTERVAL_NANOS = 20_000_000L;
+  private static final long WINDOW_NANOS = 1_000_000_000L;
+
+  private final Consumer<String> sink;
+  private final LogEntry[] slots;
+  private final AtomicLongArray sequences;
+  private final int mask;
+  private final AtomicLong tail = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLongArray windowStart = new AtomicLongArray(LogEvent.values().length);
+  private final AtomicLongArray windowCount = new AtomicLongArray(LogEvent.values().length);
+  private final AtomicLongArray suppressed = new AtomicLongArray(LogEvent.values().length);
+  private final long[] lastSummaryNanos = new long[LogEvent.values().length];
+  private long head;
+  private long reportedDropped;
+  private volatile Thread drainer;
+
+  AsyncLog(Consumer<String> sink, int capacity) {
+    if (capacity < 2 || (capacity & (capacity - 1)) != 0) {
+      throw new IllegalArgumentException("capacity must be a power of two >= 2");
+    }
+    this.sink = sink;
+    this.slots = new LogEntry[capacity];
+    this.sequences = new AtomicLongArray(capacity);
+    this.mask = capacity - 1;
+    for (int i = 0; i < capacity; i++) {
+      slots[i] = new LogEntry();
+      sequences.set(i, i);
+    }
+    long now = System.nanoTime();
+    for (int i = 0; i < lastSummaryNanos.length; i++) {
+      windowStart.set(i, now);
+      lastSummaryNanos[i] = now;
+    }
+  }
+
+  LogEntry claim(LogEvent event) {
+    if (!admit(event)) {
+      return null;
+    }
+    long pos = tail.get();
+    while (true) {
+      int index = (int) (pos & mask);
+      long diff = sequences.get(index) - pos;
+      if (diff == 0L) {
+        if (tail.compareAndSet(pos, pos + 1L)) {
+          LogEntry entry = slots[index];
+          entry.event = event;
+          entry.position = pos;
+          return entry;
+        }
+        pos = tail.get();
+      } else if (diff < 0L) {
+        dropped.incrementAndGet();
+        return null;
+      } else {
+        pos = tail.get();
+      }
+    }
+  }
+
+  void publish(LogEntry entry) {
+    sequences.lazySet((int) (entry.position & mask), entry.position + 1L);
+  }
+
+  void text(String message) {
+    LogEntry entry = claim(LogEvent.TEXT);
+    if (entry != null) {
+      publish(entry.text(0, message));
+    }
+    if (drainer == null) {
+      drain();
+    }
+  }
+
+  synchronized void start() {
+    if (drainer != null) {
+      return;
+    }
+    Thread thread = new Thread(this::drainLoop, "wled-log");
+    thread.setDaemon(true);
+    drainer = thread;
+    thread.start();
+  }
+
+  void stop() {
+    Thread thread;
+    synchronized (this) {
+      thread = drainer;
+      drainer = null;
+    }
+    if (thread != null) {
+      LockSupport.unpark(thread);
+      try {
+        thread.join(500L);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    drain();
+  }
+
+  long dropped() {
+    return dropped.get();
+  }
+
+  long suppressed(LogEvent event) {
+    return suppressed.get(event.ordinal());
+  }
+
+  synchronized int drain() {
+    int delivered = 0;
+    while (true) {
+      int index = (int) (head & mask);
+      if (sequences.get(index) != head + 1L) {
+        break;
+      }
+      String line = slots[index].format();
+      sequences.lazySet(index, head + slots.length);
+      head++;
+      deliver(line);
+      delivered++;
+    }
+    long now = System.nanoTime();
+    for (LogEvent event : LogEvent.values()) {
+      int i = event.ordinal();
+      if (suppressed.get(i) > 0L && now - lastSummaryNanos[i] >= WINDOW_NANOS) {
+        long count = suppressed.getAndSet(i, 0L);
+        deliver(String.format(Locale.ROOT, "日志限流: 过去 %.1f 秒内省略了 %d 条「%s」日志",
+            (now - lastSummaryNanos[i]) / 1e9, count, event.uiLabel()));
+        lastSummaryNanos[i] = now;
+      }
+    }
+    long droppedNow = dropped.get();
+    if (droppedNow != reportedDropped) {
+      deliver("日志缓冲已满: 丢弃了 " + (droppedNow - reportedDropped) + " 条日志");
+      reportedDropped = droppedNow;
+    }
+    return delivered;
+  }
+
+  private boolean admit(LogEvent event) {
+    int limit = event.maxPerSecond();
+    if (limit <= 0) {
+      return true;
+    }
+    int i = event.ordinal();
+    long now = System.nanoTime();
+    long start = windowStart.get(i);
+    if (now - start >= WINDOW_NANOS && windowStart.compareAndSet(i, start, now)) {
+      windowCount.set(i, 0L);
+    }
+    if (windowCount.incrementAndGet(i) > limit) {
+      suppressed.incrementAndGet(i);
+      return false;
+    }
+    return true;
+  }
+
+  private void deliver(String line) {
+    try {
+      sink.accept(line);
+    } catch (RuntimeException ignored) {
+    }
+  }
+
+  private void drainLoop() {
+    Thread self = Thread.currentThread();
+    while (drainer == self) {
+      drain();
+      LockSupport.parkNanos(this, DRAIN_INTERVAL_NANOS);
+    }
+  }
+}
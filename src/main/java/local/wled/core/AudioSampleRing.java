@@ -0,0 +1,113 @@
+package local.wled.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+final class AudioSampleRing {
+  private final double[] samples;
+  private final int mask;
+  private final int maxAppendFrames;
+  private final AtomicLong written = new AtomicLong();
+  private final AtomicLong overruns = new AtomicLong();
+  private final AtomicLong underruns = new AtomicLong();
+  private volatile Thread waiter;
+  private volatile long lastAppendNanos;
+
+  AudioSampleRing(int minCapacity) {
+    this(minCapacity, 0);
+  }
+
+  AudioSampleRing(int minCapacity, int maxAppendFrames) {
+    int capacity = Integer.highestOneBit(Math.max(2, minCapacity + maxAppendFrames) - 1) << 1;
+    this.samples = new double[capacity];
+    this.mask = capacity - 1;
+    this.maxAppendFrames = maxAppendFrames;
+  }
+
+  int capacity() {
+    return samples.length;
+  }
+
+  long written() {
+    return written.get();
+  }
+
+  long lastAppendNanos() {
+    return lastAppendNanos;
+  }
+
+  long overruns() {
+    return overruns.get();
+  }
+
+  long underruns() {
+    return underruns.get();
+  }
+
+  void recordOverrun() {
+    overruns.incrementAndGet();
+  }
+
+  void appendPcm16(byte[] pcm, int off, int frames, int channels) {
+    int bytesPerFrame = 2 * channels;
+    long pos = written.get();
+    for (int i = 0; i < frames; i++) {
+      int base = off + i * bytesPerFrame;
+      int sum = 0;
+      for (int ch = 0; ch < channels; ch++) {
+        int lo = pcm[base + ch * 2] & 0xFF;
+        int hi = pcm[base + ch * 2 + 1];
+        short s = (short) ((hi << 8) | lo);
+        sum += s;
+      }
+      samples[(int) (pos & mask)] = (sum / (double) channels) / 32768.0;
+      pos++;
+    }
+    lastAppendNanos = System.nanoTime();
+    written.set(pos);
+    Thread w = waiter;
+    if (w != null) {
+      LockSupport.unpark(w);
+    }
+  }
+
+  boolean awaitWritten(long target, long timeout, TimeUnit unit) {
+    if (written.get() >= target) {
+      return true;
+    }
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    waiter = Thread.currentThread();
+    try {
+      while (written.get() < target) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0L || Thread.currentThread().isInterrupted()) {
+          underruns.incrementAndGet();
+          return false;
+        }
+        LockSupport.parkNanos(this, remaining);
+      }
+      return true;
+    } finally {
+      waiter = null;
+    }
+  }
+
+  boolean copyLatest(double[] dst, int count) {
+    long end = written.get();
+    long start = end - count;
+    int missing = (int) Math.min(count, Math.max(0L, -start));
+    for (int i = 0; i < missing; i++) {
+      dst[i] = 0.0;
+    }
+    for (int i = missing; i < count; i++) {
+      dst[i] = samples[(int) ((start + i) & mask)];
+    }
+    long after = written.get();
+    if (after + maxAppendFrames - samples.length > Math.max(0L, start)) {
+      overruns.incrementAndGet();
+      return false;
+    }
+    return true;
+  }
+}
@@ -0,0 +1,65 @@
+package local.wled.core;
+
+final class AuroraPaletteRenderer implements PaletteRenderer, PaletteColorLut.ColorModel {
+  private final PaletteColorLut colorLut = new PaletteColorLut(20.0, this);
+
+  @Override
+  public PaletteColorLut colorLut() {
+    return colorLut;
+  }
+
+  @Override
+  public void render(byte[] spectrum16, float smoothedAmp, int frameCounter, PixelLayoutTable layout,
+                     byte[] out, int outOffset, int fromPixel, int toPixel) {
+    double ampNorm = PaletteRendering.ampNorm(smoothedAmp);
+    double global = PaletteRendering.globalGain(ampNorm);
+    double motionPhase = PaletteRendering.motionPhase(frameCounter);
+    double sweepAmount = 0.55 + ampNorm * 0.95;
+    double sweepPhase = motionPhase * 1.00;
+    double pulsePhase = motionPhase * 1.35;
+    double sparklePhase = motionPhase * 2.30;
+    double hueDriftPhase = motionPhase * 0.72;
+    double shimmerPhase = motionPhase * 0.85;
+    DdpLayoutMode mode = layout.mode;
+    double[] bandPosition = layout.bandPosition;
+    double[] spatialNorms = layout.spatialNorm;
+    double[] centerFocus = layout.centerFocus;
+    int[] colors = colorLut.table();
+
+    for (int i = fromPixel, o = outOffset; i < toPixel; i++, o += 3) {
+      double pos = bandPosition[i];
+      double spatialNorm = spatialNorms[i];
+      double sampledPos = PaletteRendering.shiftBandPosition(pos, SineTable.sin(sweepPhase + spatialNorm * Math.PI * 4.0) * sweepAmount, mode);
+      sampledPos = PaletteRendering.shiftBandPosition(sampledPos, SineTable.sin(shimmerPhase + spatialNorm * Math.PI * 2.5) * 0.16, mode);
+      double level = PaletteRendering.bandLevel(spectrum16, sampledPos, mode);
+      level = PaletteRendering.clamp01(level * 0.82 + PaletteRendering.sampleSpectrumLevel(spectrum16, sampledPos + 0.35) * 0.18);
+      double pulse = 0.92 + 0.20 * SineTable.sin(pulsePhase - spatialNorm * Math.PI * 5.5);
+      double sparkle = 0.92 + 0.14 * SineTable.sin(sparklePhase + sampledPos * 0.9);
+      double value = PaletteRendering.clamp01(PaletteRendering.intensity(level, global) * pulse * sparkle);
+      if (centerFocus != null) {
+        value = PaletteRendering.mirrorFocus(value, centerFocus[i]);
+      }
+      double posNorm = pos / PaletteRendering.BANDS_MAX;
+      double drift = ampNorm * SineTable.sin(hueDriftPhase + spatialNorm * Math.PI * 3.0);
+      int rgb = colors[PaletteColorLut.index(posNorm, value, drift)];
+      out[o] = (byte) (rgb >>> 16);
+      out[o + 1] = (byte) (rgb >>> 8);
+      out[o + 2] = (byte) rgb;
+    }
+  }
+
+  @Override
+  public double hue(double posNorm, double value) {
+    return 176.0 - posNorm * 108.0 - value * 10.0;
+  }
+
+  @Override
+  public double saturation(double posNorm, double value) {
+    return PaletteRendering.clamp01(0.86 + value * 0.12);
+  }
+
+  @Override
+  public double brightness(double posNorm, double value) {
+    return PaletteRendering.clamp01(value * 0.88 + 0.12);
+  }
+}
@@ -0,0 +1,75 @@
+package local.wled.core;
+
+final class CandyPaletteRenderer implements PaletteRenderer, PaletteColorLut.ColorModel {
+  private final PaletteColorLut colorLut = new PaletteColorLut(24.0, this);
+
+  @Override
+  public PaletteColorLut colorLut() {
+    return colorLut;
+  }
+
+  @Override
+  public void render(byte[] spectrum16, float smoothedAmp, int frameCounter, PixelLayoutTable layout,
+                     byte[] out, int outOffset, int fromPixel, int toPixel) {
+    double ampNorm = PaletteRendering.ampNorm(smoothedAmp);
+    double global = PaletteRendering.globalGain(ampNorm);
+    double motionPhase = PaletteRendering.motionPhase(frameCounter);
+    double sweepAmount = 0.62 + ampNorm * 0.90;
+    double sweepPhase = motionPhase * 1.20;
+    double pulsePhase = motionPhase * 1.28;
+    double sparklePhase = motionPhase * 3.30;
+    double strobePhase = motionPhase * 2.00;
+    double hueDriftPhase = motionPhase * 1.10;
+    double zigPhase = motionPhase * 2.7;
+    double stepPhase = motionPhase * 3.6;
+    double stripePhase = motionPhase * 3.3;
+    DdpLayoutMode mode = layout.mode;
+    double[] bandPosition = layout.bandPosition;
+    double[] spatialNorms = layout.spatialNorm;
+    double[] centerFocus = layout.centerFocus;
+    int[] colors = colorLut.table();
+
+    for (int i = fromPixel, o = outOffset; i < toPixel; i++, o += 3) {
+      double pos = bandPosition[i];
+      double spatialNorm = spatialNorms[i];
+      double sampledPos = PaletteRendering.shiftBandPosition(pos, SineTable.sin(sweepPhase + spatialNorm * Math.PI * 4.0) * sweepAmount, mode);
+      double zig = SineTable.sin(zigPhase + spatialNorm * Math.PI * 13.0) * 0.55;
+      double chunked = Math.floor((sampledPos + zig) * 1.15) / 1.15;
+      double candyStep = SineTable.sin(stepPhase + spatialNorm * Math.PI * 18.0) > 0.0 ? 0.38 : -0.38;
+      sampledPos = PaletteRendering.shiftBandPosition(chunked, candyStep, mode);
+      double level = PaletteRendering.bandLevel(spectrum16, sampledPos, mode);
+      double candyPeak = Math.max(level, PaletteRendering.sampleSpectrumLevel(spectrum16, sampledPos - 0.18));
+      candyPeak = Math.max(candyPeak, PaletteRendering.sampleSpectrumLevel(spectrum16, sampledPos + 0.18));
+      double stripeGate = SineTable.sin(stripePhase + sampledPos * 6.2) > 0.0 ? 1.72 : 0.0;
+      level = PaletteRendering.clamp01(Math.pow(candyPeak, 0.62) * stripeGate);
+      double pulse = 0.92 + 0.22 * SineTable.sin(pulsePhase - spatialNorm * Math.PI * 5.5);
+      double sparkle = 0.92 + 0.18 * SineTable.sin(sparklePhase + sampledPos * 0.9);
+      double strobe = PaletteRendering.strobe(SineTable.sin(strobePhase - spatialNorm * Math.PI * 10.0), 0.26);
+      double value = PaletteRendering.clamp01(PaletteRendering.intensity(level, global) * pulse * sparkle * strobe);
+      if (centerFocus != null) {
+        value = PaletteRendering.mirrorFocus(value, centerFocus[i]);
+      }
+      double posNorm = pos / PaletteRendering.BANDS_MAX;
+      double drift = ampNorm * SineTable.sin(hueDriftPhase + spatialNorm * Math.PI * 3.0);
+      int rgb = colors[PaletteColorLut.index(posNorm, value, drift)];
+      out[o] = (byte) (rgb >>> 16);
+      out[o + 1] = (byte) (rgb >>> 8);
+      out[o + 2] = (byte) rgb;
+    }
+  }
+
+  @Override
+  public double hue(double posNorm, double value) {
+    return 318.0 - posNorm * 62.0 - value * 5.0;
+  }
+
+  @Override
+  public double saturation(double posNorm, double value) {
+    return PaletteRendering.clamp01(0.90 + posNorm * 0.08 + value * 0.02);
+  }
+
+  @Override
+  public double brightness(double posNorm, double value) {
+    return PaletteRendering.clamp01(value * 0.86 + 0.08 + posNorm * 0.03);
+  }
+}
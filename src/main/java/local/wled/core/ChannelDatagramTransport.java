@@ -0,0 +1,71 @@
+package local.wled.core;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.PortUnreachableException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+final class ChannelDatagramTransport implements DatagramTransport {
+  private final DatagramChannel channel;
+  private final InetSocketAddress target;
+  private ByteBuffer buffer;
+  private final boolean connected;
+
+  ChannelDatagramTransport(InetAddress address, int port) throws IOException {
+    this.target = new InetSocketAddress(address, port);
+    this.channel = DatagramChannel.open();
+    try {
+      if (address.isMulticastAddress()) {
+        channel.setOption(StandardSocketOptions.IP_MULTICAST_TTL, 1);
+        this.connected = false;
+      } else {
+        channel.connect(target);
+        this.connected = true;
+      }
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  @Override
+  public void send(byte[] packet, int length) throws IOException {
+    ByteBuffer out = buffer;
+    if (out == null || out.capacity() < length) {
+      out = ByteBuffer.allocateDirect(length);
+      buffer = out;
+    }
+    out.clear();
+    out.put(packet, 0, length);
+    out.flip();
+    if (connected) {
+      try {
+        channel.write(out);
+      } catch (PortUnreachableException ignored) {
+      }
+    } else {
+      channel.send(out, target);
+    }
+  }
+
+  @Override
+  public boolean isConnected() {
+    return connected;
+  }
+
+  @Override
+  public boolean isOpen() {
+    return channel.isOpen();
+  }
+
+  @Override
+  public void close() {
+    try {
+      channel.close();
+    } catch (IOException ignored) {
+    }
+  }
+}
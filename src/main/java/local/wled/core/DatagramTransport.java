@@ -0,0 +1,25 @@
+package local.wled.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+
+interface DatagramTransport extends Closeable {
+  int MAX_PACKET_BYTES = DdpPacketizer.MAX_UDP_PAYLOAD;
+
+  void send(byte[] packet, int length) throws IOException;
+
+  boolean isConnected();
+
+  boolean isOpen();
+
+  @Override
+  void close();
+
+  static DatagramTransport open(PushTransport kind, InetAddress address, int port) throws IOException {
+    if (kind == PushTransport.SOCKET) {
+      return new SocketDatagramTransport(address, port);
+    }
+    return new ChannelDatagramTransport(address, port);
+  }
+}
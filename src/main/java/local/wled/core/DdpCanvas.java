@@ -0,0 +1,70 @@
+package local.wled.core;
+
+final class DdpCanvas implements DdpRenderTarget {
+  final int pixelCount;
+  final OutputTarget[] segments;
+  final OutboundFrame[] frames;
+
+  DdpCanvas(int pixelCount, OutputTarget[] segments) {
+    this.pixelCount = pixelCount;
+    this.segments = segments;
+    this.frames = new OutboundFrame[segments.length];
+  }
+
+  static DdpCanvas forTargets(int pixelCount, OutputTarget[] targets) {
+    int count = 0;
+    for (OutputTarget target : targets) {
+      if (target.canvasStart >= 0) {
+        count++;
+      }
+    }
+    OutputTarget[] segments = new OutputTarget[count];
+    int i = 0;
+    for (OutputTarget target : targets) {
+      if (target.canvasStart >= 0) {
+        segments[i++] = target;
+      }
+    }
+    return new DdpCanvas(pixelCount, segments);
+  }
+
+  @Override
+  public void render(PaletteRenderer renderer, byte[] spectrum16, float smoothedAmp, int frameCounter, PixelLayoutTable layout,
+                     int fromPixel, int toPixel) {
+    for (OutboundFrame frame : frames) {
+      if (frame == null) {
+        continue;
+      }
+      DdpPacketizer packetizer = frame.ddpPacketizer;
+      int from = Math.max(fromPixel, packetizer.firstPixel());
+      int to = Math.min(toPixel, packetizer.firstPixel() + packetizer.pixelCount());
+      if (from < to) {
+        packetizer.render(renderer, spectrum16, smoothedAmp, frameCounter, layout, from, to);
+      }
+    }
+  }
+
+  @Override
+  public void upscale(PixelUpscaler upscaler, byte[] samples, int fromPixel, int toPixel) {
+    for (OutboundFrame frame : frames) {
+      if (frame == null) {
+        continue;
+      }
+      DdpPacketizer packetizer = frame.ddpPacketizer;
+      int from = Math.max(fromPixel, packetizer.firstPixel());
+      int to = Math.min(toPixel, packetizer.firstPixel() + packetizer.pixelCount());
+      if (from < to) {
+        packetizer.upscale(upscaler, samples, from, to);
+      }
+    }
+  }
+
+  @Override
+  public void stamp(int frameCounter, int presentationTimecode) {
+    for (OutboundFrame frame : frames) {
+      if (frame != null) {
+        frame.ddpPacketizer.stamp(frameCounter, presentationTimecode);
+      }
+    }
+  }
+}
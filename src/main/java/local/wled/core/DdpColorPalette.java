@@ -1,19 +1,21 @@
 package local.wled.core;
 
 public enum DdpColorPalette {
-  NIGHTCLUB("nightclub", "夜店 (Nightclub)"),
-  AURORA("aurora", "极光 (Aurora)"),
-  SUNSET("sunset", "落日 (Sunset)"),
-  FIRE("fire", "烈焰 (Fire)"),
-  OCEAN("ocean", "海洋 (Ocean)"),
-  CANDY("candy", "糖果 (Candy)");
+  NIGHTCLUB("nightclub", "夜店 (Nightclub)", new NightclubPaletteRenderer()),
+  AURORA("aurora", "极光 (Aurora)", new AuroraPaletteRenderer()),
+  SUNSET("sunset", "落日 (Sunset)", new SunsetPaletteRenderer()),
+  FIRE("fire", "烈焰 (Fire)", new FirePaletteRenderer()),
+  OCEAN("ocean", "海洋 (Ocean)", new OceanPaletteRenderer()),
+  CANDY("candy", "糖果 (Candy)", new CandyPaletteRenderer());
 
   private final String cliValue;
   private final String uiLabel;
+  private final PaletteRenderer renderer;
 
-  DdpColorPalette(String cliValue, String uiLabel) {
+  DdpColorPalette(String cliValue, String uiLabel, PaletteRenderer renderer) {
     this.cliValue = cliValue;
     this.uiLabel = uiLabel;
+    this.renderer = renderer;
   }
 
   public String cliValue() {
@@ -24,6 +26,10 @@ public enum DdpColorPalette {
     return uiLabel;
   }
 
+  PaletteRenderer renderer() {
+    return renderer;
+  }
+
   public static DdpColorPalette fromCliValue(String value) {
     if (value == null) {
       return NIGHTCLUB;
@@ -0,0 +1,75 @@
+package local.wled.core;
+
+final class DdpFrameRenderer {
+  private final int pixelCount;
+  private final ParallelDdpRenderer parallel;
+  private final byte[] sampleRgb;
+  private final PixelLayoutTable[] layouts = new PixelLayoutTable[DdpLayoutMode.values().length];
+  private final PixelUpscaler[] upscalers = new PixelUpscaler[DdpLayoutMode.values().length];
+
+  DdpFrameRenderer(int pixelCount, int renderThreads, int renderResolution) {
+    this.pixelCount = Math.max(1, pixelCount);
+    boolean upscale = PixelUpscaler.applies(this.pixelCount, renderResolution);
+    this.sampleRgb = upscale ? new byte[renderResolution * 3] : null;
+    this.parallel = upscale ? null : new ParallelDdpRenderer(this.pixelCount, renderThreads);
+  }
+
+  int pixelCount() {
+    return pixelCount;
+  }
+
+  int threads() {
+    return parallel == null ? 1 : parallel.threads();
+  }
+
+  int resolution() {
+    return sampleRgb == null ? 0 : sampleRgb.length / 3;
+  }
+
+  void render(byte[] spectrum16, float smoothedAmp, int frameCounter, DdpLayoutMode layoutMode, DdpColorPalette palette,
+              DdpRenderTarget target) {
+    render(spectrum16, smoothedAmp, frameCounter, layoutMode, palette, 0, target);
+  }
+
+  void render(byte[] spectrum16, float smoothedAmp, int frameCounter, DdpLayoutMode layoutMode, DdpColorPalette palette,
+              int presentationTimecode, DdpRenderTarget target) {
+    renderPixels(spectrum16, smoothedAmp, frameCounter, layoutMode, palette, target);
+    target.stamp(frameCounter, presentationTimecode);
+  }
+
+  void renderPixels(byte[] spectrum16, float smoothedAmp, int frameCounter, DdpLayoutMode layoutMode, DdpColorPalette palette,
+                    DdpRenderTarget target) {
+    if (sampleRgb != null) {
+      PixelUpscaler upscaler = upscaler(layoutMode);
+      palette.renderer().render(spectrum16, smoothedAmp, frameCounter, upscaler.sampleLayout, sampleRgb, 0, 0, upscaler.resolution);
+      target.upscale(upscaler, sampleRgb, 0, pixelCount);
+    } else {
+      PixelLayoutTable layout = layout(layoutMode);
+      parallel.render(spectrum16, smoothedAmp, frameCounter, layout, palette.renderer(), target);
+    }
+  }
+
+  void close() {
+    if (parallel != null) {
+      parallel.close();
+    }
+  }
+
+  private PixelLayoutTable layout(DdpLayoutMode layoutMode) {
+    PixelLayoutTable layout = layouts[layoutMode.ordinal()];
+    if (layout == null) {
+      layout = PixelLayoutTable.forLayout(pixelCount, layoutMode);
+      layouts[layoutMode.ordinal()] = layout;
+    }
+    return layout;
+  }
+
+  private PixelUpscaler upscaler(DdpLayoutMode layoutMode) {
+    PixelUpscaler upscaler = upscalers[layoutMode.ordinal()];
+    if (upscaler == null) {
+      upscaler = new PixelUpscaler(pixelCount, layoutMode, sampleRgb.length / 3);
+      upscalers[layoutMode.ordinal()] = upscaler;
+    }
+    return upscaler;
+  }
+}
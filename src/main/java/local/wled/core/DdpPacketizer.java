@@ -0,0 +1,145 @@
+package local.wled.core;
+
+final class DdpPacketizer implements DdpRenderTarget {
+  static final int HEADER_LEN = 10;
+  static final int TIMECODE_LEN = 4;
+  static final int PIXELS_PER_PACKET = 480;
+  static final int MAX_DATALEN = PIXELS_PER_PACKET * 3;
+  static final int MAX_UDP_PAYLOAD = 65_507;
+  static final int MAX_PIXELS_PER_PACKET = (MAX_UDP_PAYLOAD - HEADER_LEN - TIMECODE_LEN) / 3;
+  private static final int FLAG_VER1 = 0x40;
+  private static final int FLAG_TIMECODE = 0x10;
+  private static final int FLAG_PUSH = 0x01;
+  private static final long NTP_EPOCH_OFFSET_SECONDS = 2_208_988_800L;
+  private static final int DATATYPE_RGB = 0x0B;
+
+  private final byte[][] packets;
+  private final int payloadLength;
+  private final int firstPixel;
+  private final boolean timecode;
+  private final int dataStart;
+  private final int pixelsPerPacket;
+  private final int dataLen;
+
+  DdpPacketizer(int payloadLength, int destinationId) {
+    this(payloadLength, destinationId, 0, 0, false, PIXELS_PER_PACKET);
+  }
+
+  DdpPacketizer(int payloadLength, int destinationId, int deviceOffsetBytes, int firstPixel) {
+    this(payloadLength, destinationId, deviceOffsetBytes, firstPixel, false, PIXELS_PER_PACKET);
+  }
+
+  DdpPacketizer(int payloadLength, int destinationId, int deviceOffsetBytes, int firstPixel, boolean timecode,
+                int pixelsPerPacket) {
+    if (pixelsPerPacket < 1 || pixelsPerPacket > MAX_PIXELS_PER_PACKET) {
+      throw new IllegalArgumentException("pixelsPerPacket must be between 1 and " + MAX_PIXELS_PER_PACKET + ": " + pixelsPerPacket);
+    }
+    this.pixelsPerPacket = pixelsPerPacket;
+    this.dataLen = pixelsPerPacket * 3;
+    this.payloadLength = payloadLength;
+    this.firstPixel = firstPixel;
+    this.timecode = timecode;
+    this.dataStart = timecode ? HEADER_LEN + TIMECODE_LEN : HEADER_LEN;
+    int packetCount = Math.max(1, (payloadLength + dataLen - 1) / dataLen);
+    this.packets = new byte[packetCount][];
+    for (int i = 0; i < packetCount; i++) {
+      int local = i * dataLen;
+      int offset = deviceOffsetBytes + local;
+      int len = Math.max(0, Math.min(dataLen, payloadLength - local));
+      boolean push = i == packetCount - 1;
+      byte[] packet = new byte[dataStart + len];
+      packet[0] = (byte) (FLAG_VER1 | (timecode ? FLAG_TIMECODE : 0) | (push ? FLAG_PUSH : 0));
+      packet[2] = (byte) DATATYPE_RGB;
+      packet[3] = (byte) (destinationId & 0xFF);
+      packet[4] = (byte) (offset >>> 24);
+      packet[5] = (byte) (offset >>> 16);
+      packet[6] = (byte) (offset >>> 8);
+      packet[7] = (byte) offset;
+      packet[8] = (byte) (len >>> 8);
+      packet[9] = (byte) len;
+      packets[i] = packet;
+    }
+  }
+
+  byte[][] packets() {
+    return packets;
+  }
+
+  int payloadLength() {
+    return payloadLength;
+  }
+
+  int firstPixel() {
+    return firstPixel;
+  }
+
+  int pixelCount() {
+    return payloadLength / 3;
+  }
+
+  int pixelsPerPacket() {
+    return pixelsPerPacket;
+  }
+
+  boolean hasTimecode() {
+    return timecode;
+  }
+
+  static int timecode(long epochMillis) {
+    long seconds = Math.floorDiv(epochMillis, 1000L) + NTP_EPOCH_OFFSET_SECONDS;
+    long fraction = (Math.floorMod(epochMillis, 1000L) << 16) / 1000L;
+    return (int) (((seconds & 0xFFFFL) << 16) | fraction);
+  }
+
+  void fill(byte[] rgbData, int frameCounter) {
+    stamp(frameCounter);
+    for (int i = 0; i < packets.length; i++) {
+      byte[] packet = packets[i];
+      System.arraycopy(rgbData, i * dataLen, packet, dataStart, packet.length - dataStart);
+    }
+  }
+
+  void stamp(int frameCounter) {
+    stamp(frameCounter, 0);
+  }
+
+  @Override
+  public void stamp(int frameCounter, int presentationTimecode) {
+    byte sequence = (byte) ((frameCounter % 15) + 1);
+    for (byte[] packet : packets) {
+      packet[1] = sequence;
+      if (timecode) {
+        packet[10] = (byte) (presentationTimecode >>> 24);
+        packet[11] = (byte) (presentationTimecode >>> 16);
+        packet[12] = (byte) (presentationTimecode >>> 8);
+        packet[13] = (byte) presentationTimecode;
+      }
+    }
+  }
+
+  @Override
+  public void render(PaletteRenderer renderer, byte[] spectrum16, float smoothedAmp, int frameCounter, PixelLayoutTable layout,
+                     int fromPixel, int toPixel) {
+    int pixel = fromPixel;
+    while (pixel < toPixel) {
+      int packet = (pixel - firstPixel) / pixelsPerPacket;
+      int packetStart = firstPixel + packet * pixelsPerPacket;
+      int end = Math.min(toPixel, packetStart + pixelsPerPacket);
+      renderer.render(spectrum16, smoothedAmp, frameCounter, layout, packets[packet],
+          dataStart + (pixel - packetStart) * 3, pixel, end);
+      pixel = end;
+    }
+  }
+
+  @Override
+  public void upscale(PixelUpscaler upscaler, byte[] samples, int fromPixel, int toPixel) {
+    int pixel = fromPixel;
+    while (pixel < toPixel) {
+      int packet = (pixel - firstPixel) / pixelsPerPacket;
+      int packetStart = firstPixel + packet * pixelsPerPacket;
+      int end = Math.min(toPixel, packetStart + pixelsPerPacket);
+      upscaler.upscale(samples, packets[packet], dataStart + (pixel - packetStart) * 3, pixel, end);
+      pixel = end;
+    }
+  }
+}
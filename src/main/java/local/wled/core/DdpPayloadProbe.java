@@ -0,0 +1,96 @@
+package local.wled.core;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.util.function.Consumer;
+
+public final class DdpPayloadProbe {
+  private static final int FLAG_VER1 = 0x40;
+  private static final int ATTEMPTS = 3;
+
+  private final InetSocketAddress target;
+  private final int timeoutMillis;
+  private final Consumer<String> log;
+  private int nonce;
+
+  public DdpPayloadProbe(String dest, int port, int timeoutMillis, Consumer<String> log) throws IOException {
+    this.target = new InetSocketAddress(InetAddress.getByName(dest), port);
+    this.timeoutMillis = timeoutMillis;
+    this.log = log == null ? message -> { } : log;
+  }
+
+  public int largestPacketPixels() throws IOException {
+    return largestPacketPixels(DdpPacketizer.MAX_PIXELS_PER_PACKET);
+  }
+
+  public int largestPacketPixels(int maxPixels) throws IOException {
+    try (DatagramSocket socket = new DatagramSocket()) {
+      socket.connect(target);
+      socket.setSoTimeout(timeoutMillis);
+      socket.setSendBufferSize(Math.max(socket.getSendBufferSize(), DatagramTransport.MAX_PACKET_BYTES));
+      socket.setReceiveBufferSize(Math.max(socket.getReceiveBufferSize(), DatagramTransport.MAX_PACKET_BYTES));
+      if (!echoes(socket, 1)) {
+        log.accept("探测失败: " + target + " 没有回显");
+        return 0;
+      }
+      int low = 1;
+      int high = Math.min(maxPixels, DdpPacketizer.MAX_PIXELS_PER_PACKET);
+      if (echoes(socket, high)) {
+        return high;
+      }
+      while (high - low > 1) {
+        int mid = (low + high) >>> 1;
+        if (echoes(socket, mid)) {
+          low = mid;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+  }
+
+  private boolean echoes(DatagramSocket socket, int pixels) throws IOException {
+    byte[] packet = new byte[DdpPacketizer.HEADER_LEN + pixels * 3];
+    byte[] reply = new byte[DatagramTransport.MAX_PACKET_BYTES];
+    for (int attempt = 0; attempt < ATTEMPTS; attempt++) {
+      int id = ++nonce;
+      packet[0] = (byte) FLAG_VER1;
+      packet[4] = (byte) (id >>> 24);
+      packet[5] = (byte) (id >>> 16);
+      packet[6] = (byte) (id >>> 8);
+      packet[7] = (byte) id;
+      packet[8] = (byte) (pixels * 3 >>> 8);
+      packet[9] = (byte) (pixels * 3);
+      try {
+        socket.send(new DatagramPacket(packet, packet.length));
+      } catch (IOException e) {
+        log.accept("分片 " + pixels + " 像素 (" + packet.length + " 字节): 发送失败 " + e.getMessage());
+        return false;
+      }
+      long deadline = System.nanoTime() + timeoutMillis * 1_000_000L;
+      while (System.nanoTime() < deadline) {
+        DatagramPacket received = new DatagramPacket(reply, reply.length);
+        try {
+          socket.receive(received);
+        } catch (SocketTimeoutException e) {
+          break;
+        }
+        if (received.getLength() == packet.length && replyId(reply) == id) {
+          log.accept("分片 " + pixels + " 像素 (" + packet.length + " 字节): 成功");
+          return true;
+        }
+      }
+    }
+    log.accept("分片 " + pixels + " 像素 (" + packet.length + " 字节): 无回显");
+    return false;
+  }
+
+  private static int replyId(byte[] reply) {
+    return (reply[4] & 0xFF) << 24 | (reply[5] & 0xFF) << 16 | (reply[6] & 0xFF) << 8 | (reply[7] & 0xFF);
+  }
+}
@@ -0,0 +1,10 @@
+package local.wled.core;
+
+interface DdpRenderTarget {
+  void render(PaletteRenderer renderer, byte[] spectrum16, float smoothedAmp, int frameCounter, PixelLayoutTable layout,
+              int fromPixel, int toPixel);
+
+  void upscale(PixelUpscaler upscaler, byte[] samples, int fromPixel, int toPixel);
+
+  void stamp(int frameCounter, int presentationTimecode);
+}
@@ -0,0 +1,118 @@
+package local.wled.core;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+final class FftPlan {
+  private static final AtomicReferenceArray<FftPlan> CACHE = new AtomicReferenceArray<>(31);
+
+  final int size;
+  private final int[] bitReversed;
+  private final double[] twiddleRe;
+  private final double[] twiddleIm;
+  private final FftPlan halfPlan;
+
+  private FftPlan(int size) {
+    this.size = size;
+    this.halfPlan = size >= 2 ? forSize(size >>> 1) : null;
+    this.bitReversed = new int[size];
+    this.twiddleRe = new double[Math.max(1, size)];
+    this.twiddleIm = new double[Math.max(1, size)];
+
+    int bits = 31 - Integer.numberOfLeadingZeros(size);
+    for (int i = 0; i < size; i++) {
+      bitReversed[i] = bits == 0 ? 0 : Integer.reverse(i) >>> (32 - bits);
+    }
+
+    for (int stageSize = 2; stageSize <= size; stageSize <<= 1) {
+      int halfsize = stageSize >>> 1;
+      double tablestep = -2.0 * Math.PI / stageSize;
+      for (int j = 0; j < halfsize; j++) {
+        double angle = j * tablestep;
+        twiddleRe[halfsize + j] = Math.cos(angle);
+        twiddleIm[halfsize + j] = Math.sin(angle);
+      }
+    }
+  }
+
+  static FftPlan forSize(int size) {
+    if (size < 1 || (size & (size - 1)) != 0) {
+      throw new IllegalArgumentException("FFT size must be a power of two: " + size);
+    }
+    int slot = 31 - Integer.numberOfLeadingZeros(size);
+    FftPlan plan = CACHE.get(slot);
+    if (plan == null) {
+      plan = new FftPlan(size);
+      if (!CACHE.compareAndSet(slot, null, plan)) {
+        plan = CACHE.get(slot);
+      }
+    }
+    return plan;
+  }
+
+  void transform(double[] re, double[] im) {
+    int n = size;
+    for (int i = 0; i < n; i++) {
+      int j = bitReversed[i];
+      if (j > i) {
+        double tr = re[i];
+        re[i] = re[j];
+        re[j] = tr;
+        double ti = im[i];
+        im[i] = im[j];
+        im[j] = ti;
+      }
+    }
+
+    for (int halfsize = 1; halfsize < n; halfsize <<= 1) {
+      int stageSize = halfsize << 1;
+      for (int i = 0; i < n; i += stageSize) {
+        for (int j = 0; j < halfsize; j++) {
+          double wr = twiddleRe[halfsize + j];
+          double wi = twiddleIm[halfsize + j];
+          int k = i + j;
+          int l = k + halfsize;
+          double tr = wr * re[l] - wi * im[l];
+          double ti = wr * im[l] + wi * re[l];
+          re[l] = re[k] - tr;
+          im[l] = im[k] - ti;
+          re[k] = re[k] + tr;
+          im[k] = im[k] + ti;
+        }
+      }
+    }
+  }
+
+  void transformReal(double[] re, double[] im) {
+    if (halfPlan == null) {
+      throw new IllegalStateException("real FFT needs size >= 2");
+    }
+    int m = halfPlan.size;
+    halfPlan.transform(re, im);
+
+    double z0r = re[0];
+    double z0i = im[0];
+    re[0] = z0r + z0i;
+    im[0] = 0.0;
+    re[m] = z0r - z0i;
+    im[m] = 0.0;
+
+    for (int k = 1, j = m - 1; k <= j; k++, j--) {
+      double zkr = re[k];
+      double zki = im[k];
+      double zjr = re[j];
+      double zji = im[j];
+      double er = 0.5 * (zkr + zjr);
+      double ei = 0.5 * (zki - zji);
+      double or = 0.5 * (zki + zji);
+      double oi = -0.5 * (zkr - zjr);
+      double c = twiddleRe[m + k];
+      double s = twiddleIm[m + k];
+      re[k] = er + c * or - s * oi;
+      im[k] = ei + c * oi + s * or;
+      if (j != k) {
+        re[j] = er - c * or + s * oi;
+        im[j] = -ei + c * oi + s * or;
+      }
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package local.wled.core;
+
+final class FirePaletteRenderer implements PaletteRenderer, PaletteColorLut.ColorModel {
+  private final PaletteColorLut colorLut = new PaletteColorLut(18.0, this);
+
+  @Override
+  public PaletteColorLut colorLut() {
+    return colorLut;
+  }
+
+  @Override
+  public void render(byte[] spectrum16, float smoothedAmp, int frameCounter, PixelLayoutTable layout,
+                     byte[] out, int outOffset, int fromPixel, int toPixel) {
+    double ampNorm = PaletteRendering.ampNorm(smoothedAmp);
+    double global = PaletteRendering.globalGain(ampNorm);
+    double motionPhase = PaletteRendering.motionPhase(frameCounter);
+    double sweepAmount = 0.58 + ampNorm * 0.72;
+    double sweepPhase = motionPhase * 1.10;
+    double pulsePhase = motionPhase * 1.40;
+    double sparklePhase = motionPhase * 2.25;
+    double strobePhase = motionPhase * 2.65;
+    double hueDriftPhase = motionPhase * 0.78;
+    DdpLayoutMode mode = layout.mode;
+    double[] bandPosition = layout.bandPosition;
+    double[] spatialNorms = layout.spatialNorm;
+    double[] centerFocus = layout.centerFocus;
+    int[] colors = colorLut.table();
+
+    for (int i = fromPixel, o = outOffset; i < toPixel; i++, o += 3) {
+      double pos = bandPosition[i];
+      double spatialNorm = spatialNorms[i];
+      double sampledPos = PaletteRendering.shiftBandPosition(pos, SineTable.sin(sweepPhase + spatialNorm * Math.PI * 4.0) * sweepAmount, mode);
+      double level = PaletteRendering.bandLevel(spectrum16, sampledPos, mode);
+      double pulse = 0.92 + 0.26 * SineTable.sin(pulsePhase - spatialNorm * Math.PI * 5.5);
+      double sparkle = 0.92 + 0.16 * SineTable.sin(sparklePhase + sampledPos * 0.9);
+      double strobe = PaletteRendering.strobe(SineTable.sin(strobePhase - spatialNorm * Math.PI * 6.0), 0.68);
+      double value = PaletteRendering.clamp01(PaletteRendering.intensity(level, global) * pulse * sparkle * strobe);
+      if (centerFocus != null) {
+        value = PaletteRendering.mirrorFocus(value, centerFocus[i]);
+      }
+      double posNorm = pos / PaletteRendering.BANDS_MAX;
+      double drift = ampNorm * SineTable.sin(hueDriftPhase + spatialNorm * Math.PI * 3.0);
+      int rgb = colors[PaletteColorLut.index(posNorm, value, drift)];
+      out[o] = (byte) (rgb >>> 16);
+      out[o + 1] = (byte) (rgb >>> 8);
+      out[o + 2] = (byte) rgb;
+    }
+  }
+
+  @Override
+  public double hue(double posNorm, double value) {
+    return 16.0 - posNorm * 20.0 - value * 4.0;
+  }
+
+  @Override
+  public double saturation(double posNorm, double value) {
+    return PaletteRendering.clamp01(0.94 + value * 0.06);
+  }
+
+  @Override
+  public double brightness(double posNorm, double value) {
+    return PaletteRendering.clamp01(value * 0.86 + 0.14);
+  }
+}
@@ -0,0 +1,40 @@
+package local.wled.core;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+
+public final class FlightRecording {
+  public static final Duration MAX_AGE = Duration.ofMinutes(10);
+
+  private FlightRecording() {
+  }
+
+  public static Path startContinuous(String destination) throws IOException {
+    Configuration configuration;
+    try {
+      configuration = Configuration.getConfiguration("default");
+    } catch (ParseException e) {
+      throw new IOException("cannot load the default JFR configuration", e);
+    }
+    Path path = Path.of(destination).toAbsolutePath();
+    Recording recording = new Recording(configuration);
+    recording.setName("wled-audio-sync");
+    recording.setToDisk(true);
+    recording.setMaxAge(MAX_AGE);
+    recording.setDumpOnExit(true);
+    recording.setDestination(path);
+    recording.enable(PipelineEvents.AudioRead.class).withoutStackTrace();
+    recording.enable(PipelineEvents.Fft.class).withoutStackTrace();
+    recording.enable(PipelineEvents.Summarize.class).withoutStackTrace();
+    recording.enable(PipelineEvents.Render.class).withoutStackTrace();
+    recording.enable(PipelineEvents.Packetize.class).withoutStackTrace();
+    recording.enable(PipelineEvents.Send.class).withoutStackTrace();
+    recording.start();
+    return path;
+  }
+}
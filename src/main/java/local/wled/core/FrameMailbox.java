@@ -0,0 +1,62 @@
+package local.wled.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+final class FrameMailbox {
+  private final AtomicReference<OutboundFrame> slot = new AtomicReference<>();
+  private final AtomicLong overwritten = new AtomicLong();
+  private volatile Thread consumer;
+  private volatile boolean closed;
+
+  OutboundFrame post(OutboundFrame frame) {
+    OutboundFrame displaced = slot.getAndSet(frame);
+    if (displaced != null) {
+      overwritten.incrementAndGet();
+    }
+    Thread waiter = consumer;
+    if (waiter != null) {
+      LockSupport.unpark(waiter);
+    }
+    return displaced;
+  }
+
+  OutboundFrame take() throws InterruptedException {
+    consumer = Thread.currentThread();
+    while (!closed) {
+      OutboundFrame frame = slot.getAndSet(null);
+      if (frame != null) {
+        return frame;
+      }
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+      if (closed) {
+        break;
+      }
+      LockSupport.park(this);
+    }
+    return null;
+  }
+
+  OutboundFrame poll() {
+    return slot.getAndSet(null);
+  }
+
+  void close() {
+    closed = true;
+    Thread waiter = consumer;
+    if (waiter != null) {
+      LockSupport.unpark(waiter);
+    }
+  }
+
+  boolean isClosed() {
+    return closed;
+  }
+
+  long overwritten() {
+    return overwritten.get();
+  }
+}
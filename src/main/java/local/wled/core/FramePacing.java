@@ -0,0 +1,48 @@
+package local.wled.core;
+
+public enum FramePacing {
+  SLEEP_SPIN("sleep-spin", "休眠+自旋 (Sleep+Spin)"),
+  PARK("park", "精确挂起 (Park)"),
+  AUDIO_CLOCK("audio-clock", "声卡时钟 (Audio Clock)");
+
+  private final String cliValue;
+  private final String uiLabel;
+
+  FramePacing(String cliValue, String uiLabel) {
+    this.cliValue = cliValue;
+    this.uiLabel = uiLabel;
+  }
+
+  public String cliValue() {
+    return cliValue;
+  }
+
+  public String uiLabel() {
+    return uiLabel;
+  }
+
+  public static FramePacing fromCliValue(String value) {
+    if (value == null) {
+      return SLEEP_SPIN;
+    }
+    String normalized = value.trim().toLowerCase();
+    for (FramePacing pacing : values()) {
+      if (pacing.cliValue.equals(normalized)) {
+        return pacing;
+      }
+    }
+    throw new IllegalArgumentException("--pacing only supports: sleep-spin, park, audio-clock");
+  }
+
+  public static FramePacing fromUiLabel(String label) {
+    if (label == null) {
+      return SLEEP_SPIN;
+    }
+    for (FramePacing pacing : values()) {
+      if (pacing.uiLabel.equals(label)) {
+        return pacing;
+      }
+    }
+    return SLEEP_SPIN;
+  }
+}
@@ -0,0 +1,248 @@
+package local.wled.core;
+
+import java.util.Arrays;
+
+final class FramePipeline {
+  private static final float DDP_SMOOTHING_CARRY = 0.78f;
+  private static final float AUDIO_SYNC_SMOOTHING_CARRY = 0.85f;
+
+  private final SenderConfig config;
+  private final double[] analysis;
+  private final double[] re;
+  private final double[] im;
+  private final double[] window;
+  private final FftPlan fftPlan;
+  private final byte[] fft16 = new byte[SenderMetrics.SPECTRUM_BANDS];
+  private final DdpFrameRenderer ddpRenderer;
+  private final SignalProcessing.FftSummary fftSummary = new SignalProcessing.FftSummary();
+  private final PipelineTimings timings;
+
+  private float rawAmp = 0f;
+  private float smoothedDdp = 0f;
+  private float smoothedAudioSync = 0f;
+  private float fftAutoGain = 1.0f;
+  private float ampAutoGain = 1.0f;
+  private float peakValue = 0f;
+  private int peak = 0;
+  private float majorPeakHz = 0f;
+  private float magnitude = 0f;
+  private boolean idle = true;
+  private int renderCounter = 0;
+  private int presentationTimecode = 0;
+  private long audioNanos;
+  private long analyzeStartNanos;
+  private long fftStartNanos;
+  private long summarizeStartNanos;
+  private int frameCounter = 0;
+
+  FramePipeline(SenderConfig config) {
+    this(config, new PipelineTimings());
+  }
+
+  FramePipeline(SenderConfig config, PipelineTimings timings) {
+    this.config = config;
+    this.timings = timings;
+    this.analysis = new double[config.fftSize];
+    this.re = new double[config.fftSize / 2 + 1];
+    this.im = new double[config.fftSize / 2 + 1];
+    this.window = SignalProcessing.hannWindow(config.fftSize);
+    this.fftPlan = FftPlan.forSize(config.fftSize);
+    this.ddpRenderer = config.outputMode == OutputMode.DDP ? newDdpRenderer(config.ddpPixelCount) : null;
+  }
+
+  DdpFrameRenderer newDdpRenderer(int pixelCount) {
+    return new DdpFrameRenderer(pixelCount, config.renderThreads, config.renderResolution);
+  }
+
+  DdpFrameRenderer ddpRenderer() {
+    return ddpRenderer;
+  }
+
+  void close() {
+    if (ddpRenderer != null) {
+      ddpRenderer.close();
+    }
+  }
+
+  float ampAutoGain() {
+    return ampAutoGain;
+  }
+
+  float fftAutoGain() {
+    return fftAutoGain;
+  }
+
+  void analyzeIdle() {
+    long now = System.nanoTime();
+    audioNanos = 0L;
+    analyzeStartNanos = now;
+    fftStartNanos = now;
+    summarizeStartNanos = now;
+    frameCounter++;
+    presentationTimecode = nextPresentationTimecode();
+    idle = true;
+    rawAmp = 0f;
+    smoothedDdp = smoothedDdp * 0.80f;
+    smoothedAudioSync = smoothedAudioSync * 0.80f;
+    peakValue = Math.max(0f, peakValue * 0.82f - 1.2f);
+    peak = Math.round(SignalProcessing.clamp255(peakValue));
+    majorPeakHz = 0f;
+    magnitude = 0f;
+    Arrays.fill(fft16, (byte) 0);
+  }
+
+  boolean analyze(AudioSampleRing ring) {
+    int frames = config.fftSize;
+    long start = System.nanoTime();
+    long audio = ring.lastAppendNanos();
+    if (!ring.copyLatest(analysis, frames)) {
+      return false;
+    }
+    double rmsAcc = 0.0;
+    for (int i = 0; i < frames; i++) {
+      double sample = analysis[i];
+      rmsAcc += sample * sample;
+      double windowed = sample * window[i];
+      if ((i & 1) == 0) {
+        re[i >>> 1] = windowed;
+      } else {
+        im[i >>> 1] = windowed;
+      }
+    }
+
+    float rms = (float) Math.sqrt(rmsAcc / frames);
+    rawAmp = SignalProcessing.clamp255(rms * 512.0f * ampAutoGain);
+    ampAutoGain = SignalProcessing.updateAutoGain(ampAutoGain, rawAmp, 140f);
+
+    smoothedDdp = DDP_SMOOTHING_CARRY * smoothedDdp + (1.0f - DDP_SMOOTHING_CARRY) * rawAmp;
+    smoothedAudioSync = AUDIO_SYNC_SMOOTHING_CARRY * smoothedAudioSync + (1.0f - AUDIO_SYNC_SMOOTHING_CARRY) * rawAmp;
+
+    PipelineEvents.Fft fftEvent = PipelineEvents.beginFft();
+    long fftStart = System.nanoTime();
+    fftPlan.transformReal(re, im);
+    PipelineEvents.commit(fftEvent, frameCounter, config.fftSize);
+    PipelineEvents.Summarize summarizeEvent = PipelineEvents.beginSummarize();
+    long summarizeStart = System.nanoTime();
+    SignalProcessing.summarizeFftTo16(re, im, config.sampleRate, config.fftSize, fftAutoGain, fft16, fftSummary);
+    fftAutoGain = fftSummary.nextAutoGain;
+    majorPeakHz = fftSummary.majorPeakHz;
+    magnitude = fftSummary.magnitude;
+    PipelineEvents.commit(summarizeEvent, frameCounter, majorPeakHz);
+
+    if (rawAmp >= peakValue) {
+      peakValue = rawAmp;
+    } else {
+      peakValue = Math.max(rawAmp, peakValue * 0.92f - 1.5f);
+    }
+    peak = Math.round(SignalProcessing.clamp255(peakValue));
+    idle = false;
+    presentationTimecode = nextPresentationTimecode();
+    renderCounter = frameCounter;
+    frameCounter++;
+
+    long end = System.nanoTime();
+    audioNanos = audio;
+    analyzeStartNanos = start;
+    fftStartNanos = fftStart;
+    summarizeStartNanos = summarizeStart;
+    if (audio != 0L) {
+      timings.record(PipelineStage.AUDIO, start - audio);
+    }
+    timings.record(PipelineStage.WINDOW, fftStart - start);
+    timings.record(PipelineStage.FFT, summarizeStart - fftStart);
+    timings.record(PipelineStage.SUMMARIZE, end - summarizeStart);
+    return true;
+  }
+
+  void emit(OutboundFrame frame, DdpFrameRenderer renderer, DdpLayoutMode layoutMode, DdpColorPalette palette) {
+    DdpPacketizer packetizer = frame.ddpPacketizer;
+    float smoothed = packetizer != null ? smoothedDdp : smoothedAudioSync;
+    long renderStart = System.nanoTime();
+    long packetizeStart = renderStart;
+    if (idle) {
+      frame.packetCount = 0;
+    } else {
+      int pixels = 0;
+      PipelineEvents.Packetize packetizeEvent;
+      if (packetizer != null) {
+        pixels = packetizer.pixelCount();
+        PipelineEvents.Render renderEvent = PipelineEvents.beginRender();
+        renderer.renderPixels(fft16, smoothed, renderCounter, layoutMode, palette, packetizer);
+        PipelineEvents.commit(renderEvent, renderCounter, pixels, layoutMode, palette);
+        packetizeEvent = PipelineEvents.beginPacketize();
+        packetizeStart = System.nanoTime();
+        packetizer.stamp(renderCounter, presentationTimecode);
+      } else {
+        packetizeEvent = PipelineEvents.beginPacketize();
+        SignalProcessing.writeWledAudioSyncV2(frame.packets[0], rawAmp, smoothed, peak, renderCounter & 0xFF, fft16,
+            magnitude, majorPeakHz);
+      }
+      frame.packetCount = frame.packets.length;
+      PipelineEvents.commit(packetizeEvent, renderCounter, pixels, frame);
+    }
+    long packetizeEnd = System.nanoTime();
+    recordRender(renderStart, packetizeStart, packetizeEnd);
+    stampFrame(frame, renderStart, packetizeStart, packetizeEnd);
+
+    fillMetrics(frame.metrics, smoothed);
+  }
+
+  void emitCanvas(DdpCanvas canvas, DdpFrameRenderer renderer, DdpLayoutMode layoutMode, DdpColorPalette palette) {
+    long renderStart = System.nanoTime();
+    long packetizeStart = renderStart;
+    PipelineEvents.Packetize packetizeEvent = null;
+    if (!idle) {
+      PipelineEvents.Render renderEvent = PipelineEvents.beginRender();
+      renderer.renderPixels(fft16, smoothedDdp, renderCounter, layoutMode, palette, canvas);
+      PipelineEvents.commit(renderEvent, renderCounter, canvas.pixelCount, layoutMode, palette);
+      packetizeEvent = PipelineEvents.beginPacketize();
+      packetizeStart = System.nanoTime();
+      canvas.stamp(renderCounter, presentationTimecode);
+    }
+    long packetizeEnd = System.nanoTime();
+    recordRender(renderStart, packetizeStart, packetizeEnd);
+    for (OutboundFrame frame : canvas.frames) {
+      if (frame != null) {
+        frame.packetCount = idle ? 0 : frame.packets.length;
+        stampFrame(frame, renderStart, packetizeStart, packetizeEnd);
+        fillMetrics(frame.metrics, smoothedDdp);
+      }
+    }
+    PipelineEvents.commit(packetizeEvent, renderCounter, canvas.pixelCount, canvas.frames);
+  }
+
+  private void recordRender(long renderStart, long packetizeStart, long packetizeEnd) {
+    if (!idle) {
+      timings.record(PipelineStage.RENDER, packetizeStart - renderStart);
+      timings.record(PipelineStage.PACKETIZE, packetizeEnd - packetizeStart);
+    }
+  }
+
+  private void stampFrame(OutboundFrame frame, long renderStart, long packetizeStart, long packetizeEnd) {
+    frame.frameNumber = renderCounter;
+    frame.audioNanos = audioNanos;
+    frame.analyzeStartNanos = analyzeStartNanos;
+    frame.fftStartNanos = fftStartNanos;
+    frame.summarizeStartNanos = summarizeStartNanos;
+    frame.renderStartNanos = renderStart;
+    frame.packetizeStartNanos = packetizeStart;
+    frame.packetizeEndNanos = packetizeEnd;
+  }
+
+  private int nextPresentationTimecode() {
+    if (!config.ddpTimecodeEnabled()) {
+      return 0;
+    }
+    return DdpPacketizer.timecode(System.currentTimeMillis() + config.ddpTimecodeDelayMs);
+  }
+
+  private void fillMetrics(SenderMetrics metrics, float smoothed) {
+    metrics.rawAmp = rawAmp;
+    metrics.smoothedAmp = smoothed;
+    metrics.peak = peak;
+    metrics.majorPeakHz = majorPeakHz;
+    metrics.magnitude = magnitude;
+    metrics.frameCounter = frameCounter;
+    System.arraycopy(fft16, 0, metrics.spectrum16, 0, SenderMetrics.SPECTRUM_BANDS);
+  }
+}
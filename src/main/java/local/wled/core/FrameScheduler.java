@@ -0,0 +1,180 @@
+package local.wled.core;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+abstract class FrameScheduler {
+  private static final long SPIN_THRESHOLD_NANOS = 1_500_000L;
+  private static final long MIN_PARK_NANOS = 100_000L;
+
+  final int fps;
+  private long frameIndex;
+  private long lastReleaseNanos;
+  private long lastIntervalNanos;
+  private long lastLatenessNanos;
+  private long missedDeadlines;
+  private long frameTimestampNanos;
+
+  private FrameScheduler(int fps) {
+    this.fps = Math.max(1, fps);
+  }
+
+  static FrameScheduler create(FramePacing pacing, int fps, int sampleRate, LongSupplier audioFramePosition) {
+    FramePacing selected = pacing == null ? FramePacing.SLEEP_SPIN : pacing;
+    switch (selected) {
+      case PARK:
+        return new ParkScheduler(fps);
+      case AUDIO_CLOCK:
+        return new AudioClockScheduler(fps, sampleRate, audioFramePosition);
+      case SLEEP_SPIN:
+      default:
+        return new SleepSpinScheduler(fps);
+    }
+  }
+
+  final void awaitNextFrame() throws InterruptedException {
+    long lateness = waitForSlot(frameIndex);
+    long now = System.nanoTime();
+    if (Thread.interrupted()) {
+      throw new InterruptedException();
+    }
+    lastIntervalNanos = lastReleaseNanos == 0L ? 0L : now - lastReleaseNanos;
+    lastReleaseNanos = now;
+    lastLatenessNanos = lateness;
+    frameTimestampNanos = slotTimestampNanos(frameIndex);
+
+    long slotsBehind = lateness / frameIntervalNanos();
+    if (slotsBehind > 0L) {
+      missedDeadlines += slotsBehind;
+      frameIndex += slotsBehind;
+    }
+    frameIndex++;
+  }
+
+  long frameIntervalNanos() {
+    return 1_000_000_000L / fps;
+  }
+
+  long lastIntervalNanos() {
+    return lastIntervalNanos;
+  }
+
+  long lastLatenessNanos() {
+    return lastLatenessNanos;
+  }
+
+  long missedDeadlines() {
+    return missedDeadlines;
+  }
+
+  long frameTimestampNanos() {
+    return frameTimestampNanos;
+  }
+
+  abstract long waitForSlot(long index) throws InterruptedException;
+
+  abstract long slotTimestampNanos(long index);
+
+  private abstract static class WallClockScheduler extends FrameScheduler {
+    private long originNanos;
+
+    WallClockScheduler(int fps) {
+      super(fps);
+    }
+
+    @Override
+    final long waitForSlot(long index) throws InterruptedException {
+      if (originNanos == 0L) {
+        originNanos = System.nanoTime();
+      }
+      long deadline = slotTimestampNanos(index);
+      long remaining = deadline - System.nanoTime();
+      if (remaining > 0L) {
+        waitUntil(deadline, remaining);
+      }
+      return Math.max(0L, System.nanoTime() - deadline);
+    }
+
+    @Override
+    final long slotTimestampNanos(long index) {
+      return originNanos + index * 1_000_000_000L / fps;
+    }
+
+    abstract void waitUntil(long deadline, long remaining) throws InterruptedException;
+  }
+
+  private static final class SleepSpinScheduler extends WallClockScheduler {
+    SleepSpinScheduler(int fps) {
+      super(fps);
+    }
+
+    @Override
+    void waitUntil(long deadline, long remaining) throws InterruptedException {
+      if (remaining > SPIN_THRESHOLD_NANOS) {
+        long sleepNanos = remaining - SPIN_THRESHOLD_NANOS;
+        Thread.sleep(sleepNanos / 1_000_000L, (int) (sleepNanos % 1_000_000L));
+      }
+      while (System.nanoTime() < deadline) {
+        Thread.onSpinWait();
+      }
+    }
+  }
+
+  private static final class ParkScheduler extends WallClockScheduler {
+    ParkScheduler(int fps) {
+      super(fps);
+    }
+
+    @Override
+    void waitUntil(long deadline, long remaining) {
+      long left = remaining;
+      while (left > 0L && !Thread.currentThread().isInterrupted()) {
+        LockSupport.parkNanos(this, left);
+        left = deadline - System.nanoTime();
+      }
+    }
+  }
+
+  private static final class AudioClockScheduler extends FrameScheduler {
+    private final int sampleRate;
+    private final LongSupplier audioFramePosition;
+    private long originFrames = -1L;
+    private long originNanos;
+
+    AudioClockScheduler(int fps, int sampleRate, LongSupplier audioFramePosition) {
+      super(fps);
+      this.sampleRate = Math.max(1, sampleRate);
+      this.audioFramePosition = audioFramePosition;
+    }
+
+    @Override
+    long waitForSlot(long index) {
+      if (originFrames < 0L) {
+        originFrames = audioFramePosition.getAsLong();
+        originNanos = System.nanoTime();
+      }
+      long target = slotFrames(index);
+      long stallDeadline = slotTimestampNanos(index) + 2L * frameIntervalNanos();
+      long position = audioFramePosition.getAsLong();
+      while (position < target) {
+        long now = System.nanoTime();
+        if (now >= stallDeadline || Thread.currentThread().isInterrupted()) {
+          return 0L;
+        }
+        long remaining = (target - position) * 1_000_000_000L / sampleRate;
+        LockSupport.parkNanos(this, Math.max(MIN_PARK_NANOS, Math.min(remaining, stallDeadline - now)));
+        position = audioFramePosition.getAsLong();
+      }
+      return (position - target) * 1_000_000_000L / sampleRate;
+    }
+
+    @Override
+    long slotTimestampNanos(long index) {
+      return originNanos + (slotFrames(index) - originFrames) * 1_000_000_000L / sampleRate;
+    }
+
+    private long slotFrames(long index) {
+      return originFrames + index * sampleRate / fps;
+    }
+  }
+}
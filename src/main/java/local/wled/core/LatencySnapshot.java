@@ -0,0 +1,27 @@
+package local.wled.core;
+
+import java.util.Locale;
+
+public final class LatencySnapshot {
+  public final long count;
+  public final long p50Nanos;
+  public final long p99Nanos;
+  public final long p999Nanos;
+  public final long maxNanos;
+  public final long sumNanos;
+
+  public LatencySnapshot(long count, long p50Nanos, long p99Nanos, long p999Nanos, long maxNanos, long sumNanos) {
+    this.count = count;
+    this.p50Nanos = p50Nanos;
+    this.p99Nanos = p99Nanos;
+    this.p999Nanos = p999Nanos;
+    this.maxNanos = maxNanos;
+    this.sumNanos = sumNanos;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(Locale.ROOT, "n=%d p50=%.3fms p99=%.3fms p999=%.3fms max=%.3fms", count,
+        p50Nanos / 1e6, p99Nanos / 1e6, p999Nanos / 1e6, maxNanos / 1e6);
+  }
+}
@@ -0,0 +1,36 @@
+package local.wled.core;
+
+final class LogEntry {
+  static final int LONGS = 4;
+  static final int DOUBLES = 8;
+  static final int STRINGS = 3;
+
+  final long[] longs = new long[LONGS];
+  final double[] doubles = new double[DOUBLES];
+  final String[] strings = new String[STRINGS];
+  LogEvent event;
+  long position;
+
+  LogEntry text(int index, String value) {
+    strings[index] = value;
+    return this;
+  }
+
+  LogEntry number(int index, long value) {
+    longs[index] = value;
+    return this;
+  }
+
+  LogEntry decimal(int index, double value) {
+    doubles[index] = value;
+    return this;
+  }
+
+  String format() {
+    String line = event.format(this);
+    for (int i = 0; i < STRINGS; i++) {
+      strings[i] = null;
+    }
+    return line;
+  }
+}
@@ -0,0 +1,96 @@
+package local.wled.core;
+
+import java.util.Locale;
+
+enum LogEvent {
+  TEXT("文本", 0) {
+    @Override
+    String format(LogEntry e) {
+      return e.strings[0];
+    }
+  },
+  FRAME_STATS("逐帧调试", 10) {
+    @Override
+    String format(LogEntry e) {
+      return String.format(Locale.ROOT,
+          "amp raw=%.1f smth=%.1f peak=%d major=%.1fHz mag=%.1f gainA=%.2f gainF=%.2f overrun=%d underrun=%d interval=%.2fms late=%.2fms missed=%d",
+          e.doubles[0], e.doubles[1], e.longs[0], e.doubles[2], e.doubles[3], e.doubles[4], e.doubles[5],
+          e.longs[1], e.longs[2], e.doubles[6] / 1_000_000.0, e.doubles[7] / 1_000_000.0, e.longs[3]);
+    }
+  },
+  RENDER_UPSCALE("渲染信息", 0) {
+    @Override
+    String format(LogEntry e) {
+      return "DDP 渲染: 内部分辨率 " + e.longs[0] + " 点, 线性插值放大到 " + e.longs[1] + " 像素";
+    }
+  },
+  RENDER_THREADS("渲染信息", 0) {
+    @Override
+    String format(LogEntry e) {
+      return "DDP 渲染线程: " + e.longs[0] + (e.longs[0] > 1 ? " (并行)" : " (单线程)");
+    }
+  },
+  CANVAS_READY("渲染信息", 0) {
+    @Override
+    String format(LogEntry e) {
+      return "虚拟画布: " + e.longs[0] + " 像素, 分段=" + e.longs[1] + ", 渲染线程=" + e.longs[2];
+    }
+  },
+  LUT_READY("渲染信息", 0) {
+    @Override
+    String format(LogEntry e) {
+      return String.format(Locale.ROOT, "DDP 配色查找表已生成: %s, 占用=%dKB, 耗时=%.1fms",
+          e.strings[0], e.longs[0], e.doubles[0] / 1_000_000.0);
+    }
+  },
+  PUSH_CONNECTED("推送连接", 20) {
+    @Override
+    String format(LogEntry e) {
+      return e.strings[0] + "UDP 推送连接已建立。目标=" + e.strings[1] + ":" + e.longs[0] + ", 传输=" + e.strings[2]
+          + (e.longs[1] != 0 ? " (connected)" : "");
+    }
+  },
+  PUSH_RECOVERED("推送连接", 20) {
+    @Override
+    String format(LogEntry e) {
+      return e.strings[0] + "UDP 推送恢复，连续失败次数=" + e.longs[0];
+    }
+  },
+  PUSH_DISCONNECTED("推送连接", 20) {
+    @Override
+    String format(LogEntry e) {
+      return e.strings[0] + "UDP 推送连接已断开（推送关闭）。";
+    }
+  },
+  PUSH_FAILED("推送失败", 5) {
+    @Override
+    String format(LogEntry e) {
+      return e.strings[0] + "UDP 推送失败(不中断采集): 连续失败=" + e.longs[0] + "，原因=" + e.strings[1] + "，将在约 "
+          + e.longs[1] + "ms 后重试";
+    }
+  },
+  PUSH_RATE("推送速率", 20) {
+    @Override
+    String format(LogEntry e) {
+      return String.format(Locale.ROOT, "%s推送速率=%.1fKB/s 丢弃=%d", e.strings[0], e.doubles[0] / 1024.0, e.longs[0]);
+    }
+  };
+
+  private final String uiLabel;
+  private final int maxPerSecond;
+
+  LogEvent(String uiLabel, int maxPerSecond) {
+    this.uiLabel = uiLabel;
+    this.maxPerSecond = maxPerSecond;
+  }
+
+  String uiLabel() {
+    return uiLabel;
+  }
+
+  int maxPerSecond() {
+    return maxPerSecond;
+  }
+
+  abstract String format(LogEntry e);
+}
@@ -0,0 +1,116 @@
+package local.wled.core;
+
+public final class LogHistory {
+  private final String[] lines;
+  private final long[] visible;
+  private long head;
+  private long tail;
+  private long visibleHead;
+  private long visibleTail;
+  private String filter = "";
+
+  public LogHistory(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be >= 1");
+    }
+    this.lines = new String[capacity];
+    this.visible = new long[capacity];
+  }
+
+  public int capacity() {
+    return lines.length;
+  }
+
+  public int size() {
+    return (int) (tail - head);
+  }
+
+  public int visibleSize() {
+    return (int) (visibleTail - visibleHead);
+  }
+
+  public String visibleLine(int index) {
+    if (index < 0 || index >= visibleSize()) {
+      throw new IndexOutOfBoundsException("index " + index + " outside visible size " + visibleSize());
+    }
+    return lines[slot(visible[slot(visibleHead + index)])];
+  }
+
+  public String filter() {
+    return filter;
+  }
+
+  public String append(String line) {
+    String evicted = null;
+    if (tail - head == lines.length) {
+      if (visibleTail > visibleHead && visible[slot(visibleHead)] == head) {
+        evicted = lines[slot(head)];
+        visibleHead++;
+      }
+      lines[slot(head)] = null;
+      head++;
+    }
+    lines[slot(tail)] = line;
+    if (matches(line, filter)) {
+      visible[slot(visibleTail)] = tail;
+      visibleTail++;
+    }
+    tail++;
+    return evicted;
+  }
+
+  public boolean setFilter(String query) {
+    String next = query == null ? "" : query.trim();
+    if (next.equals(filter)) {
+      return false;
+    }
+    filter = next;
+    visibleHead = 0L;
+    visibleTail = 0L;
+    for (long seq = head; seq < tail; seq++) {
+      if (matches(lines[slot(seq)], next)) {
+        visible[slot(visibleTail)] = seq;
+        visibleTail++;
+      }
+    }
+    return true;
+  }
+
+  public int find(String query, int fromIndex) {
+    int count = visibleSize();
+    if (query == null || query.isEmpty() || count == 0) {
+      return -1;
+    }
+    int start = Math.floorMod(fromIndex, count);
+    for (int i = 0; i < count; i++) {
+      int index = (start + i) % count;
+      if (matches(visibleLine(index), query)) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  public void clear() {
+    for (long seq = head; seq < tail; seq++) {
+      lines[slot(seq)] = null;
+    }
+    head = tail;
+    visibleHead = 0L;
+    visibleTail = 0L;
+  }
+
+  static boolean matches(String line, String query) {
+    int span = line.length() - query.length();
+    for (int i = 0; i <= span; i++) {
+      if (line.regionMatches(true, i, query, 0, query.length())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int slot(long seq) {
+    return (int) (seq % lines.length);
+  }
+}
@@ -0,0 +1,188 @@
+package local.wled.core;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+final class MetricsEndpoint {
+  static final String PATH = "/metrics";
+  static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+  private static final String PREFIX = "wled_sender_";
+  private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+
+  private final HttpServer server;
+
+  private MetricsEndpoint(HttpServer server) {
+    this.server = server;
+  }
+
+  static MetricsEndpoint start(String bind, int port, SenderController controller) throws IOException {
+    HttpServer server = HttpServer.create(new InetSocketAddress(bind, port), 0);
+    server.createContext(PATH, exchange -> handle(exchange, controller));
+    server.start();
+    return new MetricsEndpoint(server);
+  }
+
+  int port() {
+    return server.getAddress().getPort();
+  }
+
+  void close() {
+    server.stop(0);
+  }
+
+  private static void handle(HttpExchange exchange, SenderController controller) throws IOException {
+    try {
+      String method = exchange.getRequestMethod();
+      if (!"GET".equals(method) && !"HEAD".equals(method)) {
+        exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+        exchange.sendResponseHeaders(405, -1);
+        return;
+      }
+      StringBuilder out = new StringBuilder(8192);
+      write(out, controller.activeTargets(), controller.timings(), controller.publishedMetrics(), System.nanoTime());
+      byte[] body = out.toString().getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+      if ("HEAD".equals(method)) {
+        exchange.sendResponseHeaders(200, -1);
+        return;
+      }
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream os = exchange.getResponseBody()) {
+        os.write(body);
+      }
+    } finally {
+      exchange.close();
+    }
+  }
+
+  static void write(StringBuilder out, OutputTarget[] targets, PipelineTimings timings, PublishedMetrics audio, long nowNanos) {
+    gauge(out, "audio_raw_amplitude", "Latest raw audio amplitude (0-255).", audio.rawAmp);
+    gauge(out, "audio_smoothed_amplitude", "Latest smoothed audio amplitude (0-255).", audio.smoothedAmp);
+    gauge(out, "audio_peak", "Latest decaying audio peak (0-255).", audio.peak);
+    gauge(out, "audio_major_peak_hertz", "Frequency of the strongest FFT bin.", audio.majorPeakHz);
+    gauge(out, "audio_magnitude", "Magnitude of the strongest FFT bin.", audio.magnitude);
+    gauge(out, "frame_counter", "Frame counter of the latest analysed frame.", audio.frameCounter);
+    gauge(out, "frame_lateness_seconds", "Lateness of the latest frame against its schedule slot.", audio.frameLatenessNanos / 1e9);
+    counter(out, "audio_overruns_total", "Audio reads that found the capture buffer full.", audio.audioOverruns);
+    counter(out, "audio_underruns_total", "Frames that timed out waiting for audio.", audio.audioUnderruns);
+    counter(out, "missed_deadlines_total", "Frame slots skipped by the scheduler.", audio.missedDeadlines);
+
+    header(out, "frames_sent_total", "Frames fully written to the socket.", "counter");
+    for (OutputTarget target : targets) {
+      sample(out, "frames_sent_total", target, target.framesSent.get());
+    }
+    header(out, "frames_dropped_total", "Frames dropped before send (pool empty, mailbox overwrite, backoff or send error).", "counter");
+    for (OutputTarget target : targets) {
+      sample(out, "frames_dropped_total", target, target.droppedFrames.get());
+    }
+    header(out, "frames_overwritten_total", "Frames replaced in the mailbox before the push thread took them.", "counter");
+    for (OutputTarget target : targets) {
+      sample(out, "frames_overwritten_total", target, target.mailbox.overwritten());
+    }
+    header(out, "packets_sent_total", "UDP datagrams sent.", "counter");
+    for (OutputTarget target : targets) {
+      sample(out, "packets_sent_total", target, target.packetsSent.get());
+    }
+    header(out, "bytes_sent_total", "UDP payload bytes sent.", "counter");
+    for (OutputTarget target : targets) {
+      sample(out, "bytes_sent_total", target, target.bytesSent.get());
+    }
+    header(out, "send_failures_total", "Send attempts that failed and triggered a reconnect backoff.", "counter");
+    for (OutputTarget target : targets) {
+      sample(out, "send_failures_total", target, target.sendFailures.get());
+    }
+    header(out, "packets_per_second", "UDP datagrams sent over the last one-second window.", "gauge");
+    for (OutputTarget target : targets) {
+      sample(out, "packets_per_second", target, target.pushPacketsPerSecond);
+    }
+    header(out, "bytes_per_second", "UDP payload bytes sent over the last one-second window.", "gauge");
+    for (OutputTarget target : targets) {
+      sample(out, "bytes_per_second", target, target.pushBytesPerSecond);
+    }
+    header(out, "connected", "1 while the push socket is open.", "gauge");
+    for (OutputTarget target : targets) {
+      sample(out, "connected", target, target.connected ? 1 : 0);
+    }
+    header(out, "consecutive_send_failures", "Send failures since the last successful frame.", "gauge");
+    for (OutputTarget target : targets) {
+      sample(out, "consecutive_send_failures", target, target.consecutiveSendFailures);
+    }
+    header(out, "retry_delay_seconds", "Backoff delay applied after the latest send failure.", "gauge");
+    for (OutputTarget target : targets) {
+      sample(out, "retry_delay_seconds", target, target.retryDelayMillis / 1e3);
+    }
+    header(out, "backoff_remaining_seconds", "Time left before the push thread reconnects.", "gauge");
+    for (OutputTarget target : targets) {
+      sample(out, "backoff_remaining_seconds", target, Math.max(0L, target.nextRetryAtNanos - nowNanos) / 1e9);
+    }
+
+    header(out, "stage_latency_seconds", "Per-stage pipeline latency since start.", "summary");
+    LatencySnapshot[] snapshots = new LatencySnapshot[PipelineStage.values().length];
+    for (PipelineStage stage : PipelineStage.values()) {
+      LatencySnapshot snapshot = timings.snapshot(stage);
+      snapshots[stage.ordinal()] = snapshot;
+      long[] values = {snapshot.p50Nanos, snapshot.p99Nanos, snapshot.p999Nanos};
+      for (int i = 0; i < QUANTILES.length; i++) {
+        out.append(PREFIX).append("stage_latency_seconds{stage=\"").append(stage.cliValue()).append("\",quantile=\"")
+            .append(QUANTILES[i]).append("\"} ").append(format(values[i] / 1e9)).append('\n');
+      }
+      out.append(PREFIX).append("stage_latency_seconds_sum{stage=\"").append(stage.cliValue()).append("\"} ")
+          .append(format(snapshot.sumNanos / 1e9)).append('\n');
+      out.append(PREFIX).append("stage_latency_seconds_count{stage=\"").append(stage.cliValue()).append("\"} ")
+          .append(snapshot.count).append('\n');
+    }
+    header(out, "stage_latency_max_seconds", "Largest per-stage latency since start.", "gauge");
+    for (PipelineStage stage : PipelineStage.values()) {
+      out.append(PREFIX).append("stage_latency_max_seconds{stage=\"").append(stage.cliValue()).append("\"} ")
+          .append(format(snapshots[stage.ordinal()].maxNanos / 1e9)).append('\n');
+    }
+  }
+
+  private static void gauge(StringBuilder out, String name, String help, double value) {
+    header(out, name, help, "gauge");
+    out.append(PREFIX).append(name).append(' ').append(format(value)).append('\n');
+  }
+
+  private static void counter(StringBuilder out, String name, String help, long value) {
+    header(out, name, help, "counter");
+    out.append(PREFIX).append(name).append(' ').append(value).append('\n');
+  }
+
+  private static void header(StringBuilder out, String name, String help, String type) {
+    out.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+    out.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+  }
+
+  private static void sample(StringBuilder out, String name, OutputTarget target, long value) {
+    label(out, name, target).append(value).append('\n');
+  }
+
+  private static void sample(StringBuilder out, String name, OutputTarget target, double value) {
+    label(out, name, target).append(format(value)).append('\n');
+  }
+
+  private static StringBuilder label(StringBuilder out, String name, OutputTarget target) {
+    out.append(PREFIX).append(name).append("{target=\"");
+    for (int i = 0; i < target.id.length(); i++) {
+      char c = target.id.charAt(i);
+      if (c == '\\' || c == '"') {
+        out.append('\\').append(c);
+      } else if (c == '\n') {
+        out.append("\\n");
+      } else {
+        out.append(c);
+      }
+    }
+    return out.append("\"} ");
+  }
+
+  private static String format(double value) {
+    return String.format(Locale.ROOT, "%.9g", value);
+  }
+}
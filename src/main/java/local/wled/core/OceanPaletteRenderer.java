@@ -0,0 +1,65 @@
+package local.wled.core;
+
+final class OceanPaletteRenderer implements PaletteRenderer, PaletteColorLut.ColorModel {
+  private final PaletteColorLut colorLut = new PaletteColorLut(14.0, this);
+
+  @Override
+  public PaletteColorLut colorLut() {
+    return colorLut;
+  }
+
+  @Override
+  public void render(byte[] spectrum16, float smoothedAmp, int frameCounter, PixelLayoutTable layout,
+                     byte[] out, int outOffset, int fromPixel, int toPixel) {
+    double ampNorm = PaletteRendering.ampNorm(smoothedAmp);
+    double global = PaletteRendering.globalGain(ampNorm);
+    double motionPhase = PaletteRendering.motionPhase(frameCounter);
+    double sweepAmount = 0.34 + ampNorm * 0.52;
+    double sweepPhase = motionPhase * 0.70;
+    double pulsePhase = motionPhase * 0.92;
+    double sparklePhase = motionPhase * 1.55;
+    double hueDriftPhase = motionPhase * 0.52;
+    DdpLayoutMode mode = layout.mode;
+    double[] bandPosition = layout.bandPosition;
+    double[] spatialNorms = layout.spatialNorm;
+    double[] centerFocus = layout.centerFocus;
+    int[] colors = colorLut.table();
+
+    for (int i = fromPixel, o = outOffset; i < toPixel; i++, o += 3) {
+      double pos = bandPosition[i];
+      double spatialNorm = spatialNorms[i];
+      double sampledPos = PaletteRendering.shiftBandPosition(pos, SineTable.sin(sweepPhase + spatialNorm * Math.PI * 4.0) * sweepAmount, mode);
+      sampledPos = PaletteRendering.shiftBandPosition(pos * 0.74 + sampledPos * 0.26, 0.0, mode);
+      double level = PaletteRendering.bandLevel(spectrum16, sampledPos, mode);
+      level = PaletteRendering.clamp01(level * 0.72 + PaletteRendering.sampleSpectrumLevel(spectrum16, sampledPos - 0.45) * 0.14
+          + PaletteRendering.sampleSpectrumLevel(spectrum16, sampledPos + 0.45) * 0.14);
+      double pulse = 0.92 + 0.14 * SineTable.sin(pulsePhase - spatialNorm * Math.PI * 5.5);
+      double sparkle = 0.92 + 0.08 * SineTable.sin(sparklePhase + sampledPos * 0.9);
+      double value = PaletteRendering.clamp01(PaletteRendering.intensity(level, global) * pulse * sparkle);
+      if (centerFocus != null) {
+        value = PaletteRendering.mirrorFocus(value, centerFocus[i]);
+      }
+      double posNorm = pos / PaletteRendering.BANDS_MAX;
+      double drift = ampNorm * SineTable.sin(hueDriftPhase + spatialNorm * Math.PI * 3.0);
+      int rgb = colors[PaletteColorLut.index(posNorm, value, drift)];
+      out[o] = (byte) (rgb >>> 16);
+      out[o + 1] = (byte) (rgb >>> 8);
+      out[o + 2] = (byte) rgb;
+    }
+  }
+
+  @Override
+  public double hue(double posNorm, double value) {
+    return 222.0 - posNorm * 48.0 + value * 6.0;
+  }
+
+  @Override
+  public double saturation(double posNorm, double value) {
+    return PaletteRendering.clamp01(0.80 + (1.0 - posNorm) * 0.10 + value * 0.08);
+  }
+
+  @Override
+  public double brightness(double posNorm, double value) {
+    return PaletteRendering.clamp01(value * 0.80 + 0.06 + (1.0 - posNorm) * 0.06);
+  }
+}
@@ -0,0 +1,48 @@
+package local.wled.core;
+
+final class OutboundFrame {
+  final SenderMetrics metrics;
+  final byte[][] packets;
+  final DdpPacketizer ddpPacketizer;
+  int packetCount;
+  int frameNumber;
+  long audioNanos;
+  long analyzeStartNanos;
+  long fftStartNanos;
+  long summarizeStartNanos;
+  long renderStartNanos;
+  long packetizeStartNanos;
+  long packetizeEndNanos;
+  long postNanos;
+  long takeNanos;
+  long sendEndNanos;
+
+  private OutboundFrame(SenderMetrics metrics, byte[][] packets, DdpPacketizer ddpPacketizer) {
+    this.metrics = metrics;
+    this.packets = packets;
+    this.ddpPacketizer = ddpPacketizer;
+  }
+
+  static OutboundFrame forConfig(SenderConfig config) {
+    return forOutput(config.outputMode, config.ddpPixelCount, 1, 0, 0, config.ddpTimecodeEnabled(), config.ddpPacketPixels);
+  }
+
+  static OutboundFrame forOutput(OutputMode outputMode, int ddpPixelCount) {
+    return forOutput(outputMode, ddpPixelCount, 1, 0, 0);
+  }
+
+  static OutboundFrame forOutput(OutputMode outputMode, int ddpPixelCount, int destinationId, int deviceOffset, int firstPixel) {
+    return forOutput(outputMode, ddpPixelCount, destinationId, deviceOffset, firstPixel, false, DdpPacketizer.PIXELS_PER_PACKET);
+  }
+
+  static OutboundFrame forOutput(OutputMode outputMode, int ddpPixelCount, int destinationId, int deviceOffset, int firstPixel,
+                                 boolean ddpTimecode, int ddpPacketPixels) {
+    if (outputMode == OutputMode.DDP) {
+      DdpPacketizer packetizer = new DdpPacketizer(Math.max(1, ddpPixelCount) * 3, destinationId, deviceOffset * 3, firstPixel,
+          ddpTimecode, ddpPacketPixels);
+      return new OutboundFrame(new SenderMetrics(), packetizer.packets(), packetizer);
+    }
+    byte[][] packets = new byte[][]{new byte[SignalProcessing.AUDIO_SYNC_V2_PACKET_LEN]};
+    return new OutboundFrame(new SenderMetrics(), packets, null);
+  }
+}
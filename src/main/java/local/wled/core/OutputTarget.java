@@ -0,0 +1,77 @@
+package local.wled.core;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+final class OutputTarget {
+  static final int FRAME_POOL_SIZE = 4;
+
+  final String id;
+  final boolean primary;
+  final OutputMode outputMode;
+  final int ddpPixelCount;
+  final int canvasStart;
+  final AtomicReference<PushTarget> endpoint;
+  final AtomicReference<DdpLayoutMode> layoutMode;
+  final AtomicReference<DdpColorPalette> palette;
+  final FrameMailbox mailbox = new FrameMailbox();
+  final BlockingQueue<OutboundFrame> freeFrames = new ArrayBlockingQueue<>(FRAME_POOL_SIZE);
+  final AtomicLong droppedFrames = new AtomicLong();
+  final AtomicLong framesSent = new AtomicLong();
+  final AtomicLong packetsSent = new AtomicLong();
+  final AtomicLong bytesSent = new AtomicLong();
+  final AtomicLong sendFailures = new AtomicLong();
+
+  volatile DatagramTransport transport;
+  volatile boolean retired;
+  volatile long pushBytesPerSecond;
+  volatile long pushPacketsPerSecond;
+  volatile boolean connected;
+  volatile int consecutiveSendFailures;
+  volatile long retryDelayMillis;
+  volatile long nextRetryAtNanos;
+  Thread sender;
+  DdpFrameRenderer renderer;
+
+  OutputTarget(String id, boolean primary, OutputMode outputMode, int ddpPixelCount, AtomicReference<PushTarget> endpoint,
+               AtomicReference<DdpLayoutMode> layoutMode, AtomicReference<DdpColorPalette> palette) {
+    this(id, primary, outputMode, ddpPixelCount, -1, 1, 0, endpoint, layoutMode, palette);
+  }
+
+  OutputTarget(String id, boolean primary, OutputMode outputMode, int ddpPixelCount, int canvasStart, int ddpDestinationId,
+               int ddpDeviceOffset, AtomicReference<PushTarget> endpoint, AtomicReference<DdpLayoutMode> layoutMode,
+               AtomicReference<DdpColorPalette> palette) {
+    this(id, primary, outputMode, ddpPixelCount, canvasStart, ddpDestinationId, ddpDeviceOffset, false,
+        DdpPacketizer.PIXELS_PER_PACKET, endpoint, layoutMode, palette);
+  }
+
+  OutputTarget(String id, boolean primary, OutputMode outputMode, int ddpPixelCount, int canvasStart, int ddpDestinationId,
+               int ddpDeviceOffset, boolean ddpTimecode, int ddpPacketPixels, AtomicReference<PushTarget> endpoint,
+               AtomicReference<DdpLayoutMode> layoutMode, AtomicReference<DdpColorPalette> palette) {
+    this.id = id;
+    this.primary = primary;
+    this.outputMode = outputMode;
+    this.ddpPixelCount = ddpPixelCount;
+    this.canvasStart = canvasStart;
+    this.endpoint = endpoint;
+    this.layoutMode = layoutMode;
+    this.palette = palette;
+    for (int i = 0; i < FRAME_POOL_SIZE; i++) {
+      freeFrames.offer(OutboundFrame.forOutput(outputMode, ddpPixelCount, ddpDestinationId, ddpDeviceOffset,
+          Math.max(0, canvasStart), ddpTimecode, ddpPacketPixels));
+    }
+  }
+
+  static OutputTarget forSpec(TargetSpec spec, boolean ddpTimecode) {
+    return new OutputTarget(spec.id, false, spec.outputMode, spec.ddpPixelCount, spec.canvasStart, spec.ddpDestinationId,
+        spec.ddpDeviceOffset, ddpTimecode, spec.ddpPacketPixels, new AtomicReference<>(new PushTarget(spec.dest, spec.port)),
+        new AtomicReference<>(spec.ddpLayoutMode),
+        new AtomicReference<>(spec.ddpColorPalette));
+  }
+
+  String logPrefix() {
+    return primary ? "" : "[" + id + "] ";
+  }
+}
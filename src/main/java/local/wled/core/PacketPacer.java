@@ -0,0 +1,56 @@
+package local.wled.core;
+
+import java.util.concurrent.locks.LockSupport;
+
+final class PacketPacer {
+  private final long windowNanos;
+  private int burstBytes;
+  private double bytesPerNano;
+  private double tokens;
+  private long lastRefillNanos;
+
+  PacketPacer(int fps, int spreadPercent) {
+    if (spreadPercent < 0 || spreadPercent > 100) {
+      throw new IllegalArgumentException("spreadPercent must be between 0 and 100: " + spreadPercent);
+    }
+    this.windowNanos = fps <= 0 ? 0L : 1_000_000_000L / fps * spreadPercent / 100L;
+  }
+
+  boolean enabled() {
+    return windowNanos > 0L;
+  }
+
+  long windowNanos() {
+    return windowNanos;
+  }
+
+  void beginFrame(int frameBytes, int burstBytes, long nowNanos) {
+    this.burstBytes = burstBytes;
+    bytesPerNano = windowNanos > 0L ? Math.max(0, frameBytes - burstBytes) / (double) windowNanos : 0.0;
+    tokens = burstBytes;
+    lastRefillNanos = nowNanos;
+  }
+
+  long delayNanos(int bytes, long nowNanos) {
+    if (bytesPerNano > 0.0) {
+      tokens = Math.min(burstBytes, tokens + (nowNanos - lastRefillNanos) * bytesPerNano);
+    }
+    lastRefillNanos = nowNanos;
+    if (tokens >= bytes || bytesPerNano == 0.0) {
+      tokens -= bytes;
+      return 0L;
+    }
+    return Math.max(1L, (long) Math.ceil((bytes - tokens) / bytesPerNano));
+  }
+
+  boolean await(int bytes, FrameMailbox mailbox) {
+    long wait;
+    while ((wait = delayNanos(bytes, System.nanoTime())) > 0L) {
+      if (mailbox.isClosed()) {
+        return false;
+      }
+      LockSupport.parkNanos(mailbox, wait);
+    }
+    return true;
+  }
+}
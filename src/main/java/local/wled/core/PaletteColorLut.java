@@ -0,0 +1,78 @@
+package local.wled.core;
+
+final class PaletteColorLut {
+  static final int POSITION_STEPS = 64;
+  static final int DRIFT_STEPS = 33;
+  static final int VALUE_STEPS = 256;
+  private static final double POSITION_SCALE = POSITION_STEPS - 1;
+  private static final double DRIFT_SCALE = (DRIFT_STEPS - 1) / 2.0;
+  private static final double VALUE_SCALE = VALUE_STEPS - 1;
+
+  interface ColorModel {
+    double hue(double posNorm, double value);
+
+    double saturation(double posNorm, double value);
+
+    double brightness(double posNorm, double value);
+  }
+
+  private final double maxHueDrift;
+  private final ColorModel model;
+  private volatile int[] table;
+
+  PaletteColorLut(double maxHueDrift, ColorModel model) {
+    this.maxHueDrift = maxHueDrift;
+    this.model = model;
+  }
+
+  static int index(double posNorm, double value, double driftNorm) {
+    int p = Math.min(POSITION_STEPS - 1, (int) (posNorm * POSITION_SCALE + 0.5));
+    int d = (int) ((driftNorm + 1.0) * DRIFT_SCALE + 0.5);
+    int v = (int) (value * VALUE_SCALE + 0.5);
+    return (p * DRIFT_STEPS + d) * VALUE_STEPS + v;
+  }
+
+  static int footprintBytes() {
+    return POSITION_STEPS * DRIFT_STEPS * VALUE_STEPS * Integer.BYTES;
+  }
+
+  double maxHueDrift() {
+    return maxHueDrift;
+  }
+
+  boolean isBuilt() {
+    return table != null;
+  }
+
+  int[] table() {
+    int[] t = table;
+    if (t == null) {
+      synchronized (this) {
+        t = table;
+        if (t == null) {
+          t = build();
+          table = t;
+        }
+      }
+    }
+    return t;
+  }
+
+  private int[] build() {
+    int[] t = new int[POSITION_STEPS * DRIFT_STEPS * VALUE_STEPS];
+    byte[] rgb = new byte[3];
+    for (int p = 0; p < POSITION_STEPS; p++) {
+      double posNorm = p / POSITION_SCALE;
+      for (int d = 0; d < DRIFT_STEPS; d++) {
+        double drift = (d / DRIFT_SCALE - 1.0) * maxHueDrift;
+        int base = (p * DRIFT_STEPS + d) * VALUE_STEPS;
+        for (int v = 0; v < VALUE_STEPS; v++) {
+          double value = v / VALUE_SCALE;
+          PaletteRendering.hsvToRgb(model.hue(posNorm, value) + drift, model.saturation(posNorm, value), model.brightness(posNorm, value), rgb, 0);
+          t[base + v] = ((rgb[0] & 0xFF) << 16) | ((rgb[1] & 0xFF) << 8) | (rgb[2] & 0xFF);
+        }
+      }
+    }
+    return t;
+  }
+}
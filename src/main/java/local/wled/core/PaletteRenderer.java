@@ -0,0 +1,8 @@
+package local.wled.core;
+
+interface PaletteRenderer {
+  PaletteColorLut colorLut();
+
+  void render(byte[] spectrum16, float smoothedAmp, int frameCounter, PixelLayoutTable layout,
+              byte[] out, int outOffset, int fromPixel, int toPixel);
+}
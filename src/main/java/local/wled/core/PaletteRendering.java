@@ -0,0 +1,118 @@
+package local.wled.core;
+
+final class PaletteRendering {
+  static final double BANDS_MAX = SenderMetrics.SPECTRUM_BANDS - 1.0;
+
+  private PaletteRendering() {
+  }
+
+  static double ampNorm(float smoothedAmp) {
+    return clamp01(smoothedAmp / 255.0);
+  }
+
+  static double globalGain(double ampNorm) {
+    return 0.24 + 1.40 * Math.pow(ampNorm, 0.72);
+  }
+
+  static double motionPhase(int frameCounter) {
+    return frameCounter * 0.24;
+  }
+
+  static double shiftBandPosition(double basePos, double offset, DdpLayoutMode mode) {
+    double shifted = basePos + offset;
+    if (mode == DdpLayoutMode.STRETCH || mode == DdpLayoutMode.MIRROR) {
+      return Math.max(0.0, Math.min(BANDS_MAX, shifted));
+    }
+    double span = BANDS_MAX + 1.0;
+    double wrapped = shifted % span;
+    if (wrapped < 0.0) {
+      wrapped += span;
+    }
+    return wrapped;
+  }
+
+  static double bandLevel(byte[] spectrum16, double sampledPos, DdpLayoutMode mode) {
+    int i0 = Math.max(0, Math.min(SenderMetrics.SPECTRUM_BANDS - 1, (int) Math.floor(sampledPos)));
+    double b0 = (spectrum16[i0] & 0xFF) / 255.0;
+    if (mode != DdpLayoutMode.STRETCH) {
+      return b0;
+    }
+    int i1 = Math.min(SenderMetrics.SPECTRUM_BANDS - 1, i0 + 1);
+    double mix = Math.max(0.0, Math.min(1.0, sampledPos - i0));
+    double b1 = (spectrum16[i1] & 0xFF) / 255.0;
+    return b0 * (1.0 - mix) + b1 * mix;
+  }
+
+  static double sampleSpectrumLevel(byte[] spectrum16, double bandPos) {
+    double clamped = Math.max(0.0, Math.min(BANDS_MAX, bandPos));
+    int i0 = (int) Math.floor(clamped);
+    int i1 = Math.min(SenderMetrics.SPECTRUM_BANDS - 1, i0 + 1);
+    double mix = clamped - i0;
+    double b0 = (spectrum16[i0] & 0xFF) / 255.0;
+    double b1 = (spectrum16[i1] & 0xFF) / 255.0;
+    return b0 * (1.0 - mix) + b1 * mix;
+  }
+
+  static double intensity(double level, double global) {
+    double gated = Math.max(0.0, level - 0.045) / 0.955;
+    double shaped = Math.pow(gated, 0.58);
+    double punch = 0.88 + 0.46 * Math.pow(Math.max(0.0, level), 0.5);
+    return shaped * global * punch;
+  }
+
+  static double strobe(double beatWave, double strength) {
+    double gate = beatWave > 0.12 ? 1.0 : 0.16;
+    return (1.0 - strength) + strength * gate;
+  }
+
+  static double mirrorFocus(double value, double focus) {
+    return clamp01(value * (0.60 + focus * 0.95) + focus * 0.12);
+  }
+
+  static double clamp01(double value) {
+    return Math.max(0.0, Math.min(1.0, value));
+  }
+
+  static void hsvToRgb(double hue, double sat, double val, byte[] out, int base) {
+    double h = ((hue % 360.0) + 360.0) % 360.0;
+    double c = val * sat;
+    double x = c * (1.0 - Math.abs((h / 60.0) % 2.0 - 1.0));
+    double m = val - c;
+
+    double r;
+    double g;
+    double b;
+    if (h < 60.0) {
+      r = c;
+      g = x;
+      b = 0.0;
+    } else if (h < 120.0) {
+      r = x;
+      g = c;
+      b = 0.0;
+    } else if (h < 180.0) {
+      r = 0.0;
+      g = c;
+      b = x;
+    } else if (h < 240.0) {
+      r = 0.0;
+      g = x;
+      b = c;
+    } else if (h < 300.0) {
+      r = x;
+      g = 0.0;
+      b = c;
+    } else {
+      r = c;
+      g = 0.0;
+      b = x;
+    }
+
+    int ri = (int) Math.round(255.0 * (r + m));
+    int gi = (int) Math.round(255.0 * (g + m));
+    int bi = (int) Math.round(255.0 * (b + m));
+    out[base] = (byte) Math.max(0, Math.min(255, ri));
+    out[base + 1] = (byte) Math.max(0, Math.min(255, gi));
+    out[base + 2] = (byte) Math.max(0, Math.min(255, bi));
+  }
+}
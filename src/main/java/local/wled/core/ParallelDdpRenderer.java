@@ -0,0 +1,151 @@
+package local.wled.core;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+final class ParallelDdpRenderer {
+  static final int PARALLEL_THRESHOLD_PIXELS = 2048;
+  static final int MIN_CHUNK_PIXELS = 512;
+  private static final int CHUNK_ALIGN_PIXELS = 64;
+  private static final int CHUNKS_PER_THREAD = 4;
+
+  private final int pixelCount;
+  private final int threads;
+  private final ForkJoinPool pool;
+  private final RenderChunk[] chunks;
+  private final RecursiveAction frameTask;
+
+  private byte[] spectrum16;
+  private float smoothedAmp;
+  private int frameCounter;
+  private PixelLayoutTable layout;
+  private PaletteRenderer renderer;
+  private byte[] out;
+  private DdpRenderTarget target;
+
+  ParallelDdpRenderer(int pixelCount, int requestedThreads) {
+    this.pixelCount = pixelCount;
+    this.threads = resolveThreads(requestedThreads);
+    if (threads <= 1 || pixelCount < PARALLEL_THRESHOLD_PIXELS) {
+      this.pool = null;
+      this.chunks = new RenderChunk[0];
+      this.frameTask = null;
+      return;
+    }
+
+    int maxChunks = Math.max(1, pixelCount / MIN_CHUNK_PIXELS);
+    int chunkCount = Math.min(maxChunks, threads * CHUNKS_PER_THREAD);
+    this.chunks = new RenderChunk[chunkCount];
+    int from = 0;
+    for (int i = 0; i < chunkCount; i++) {
+      int to = i == chunkCount - 1 ? pixelCount : alignedBoundary((long) pixelCount * (i + 1) / chunkCount);
+      chunks[i] = new RenderChunk(from, Math.max(from, to));
+      from = chunks[i].to;
+    }
+    this.pool = new ForkJoinPool(threads, ParallelDdpRenderer::newWorker, null, false);
+    this.frameTask = new RecursiveAction() {
+      @Override
+      protected void compute() {
+        for (RenderChunk chunk : chunks) {
+          chunk.reinitialize();
+        }
+        ForkJoinTask.invokeAll(chunks);
+      }
+    };
+  }
+
+  static int resolveThreads(int requestedThreads) {
+    return requestedThreads > 0 ? requestedThreads : Runtime.getRuntime().availableProcessors();
+  }
+
+  int threads() {
+    return pool == null ? 1 : threads;
+  }
+
+  int chunkCount() {
+    return Math.max(1, chunks.length);
+  }
+
+  void render(byte[] spectrum16, float smoothedAmp, int frameCounter, PixelLayoutTable layout, PaletteRenderer renderer, byte[] out) {
+    if (pool == null) {
+      renderer.render(spectrum16, smoothedAmp, frameCounter, layout, out, 0, 0, pixelCount);
+      return;
+    }
+    this.spectrum16 = spectrum16;
+    this.smoothedAmp = smoothedAmp;
+    this.frameCounter = frameCounter;
+    this.layout = layout;
+    this.renderer = renderer;
+    this.out = out;
+    this.target = null;
+    invokeFrame();
+  }
+
+  void render(byte[] spectrum16, float smoothedAmp, int frameCounter, PixelLayoutTable layout, PaletteRenderer renderer,
+              DdpRenderTarget target) {
+    if (pool == null) {
+      target.render(renderer, spectrum16, smoothedAmp, frameCounter, layout, 0, pixelCount);
+      return;
+    }
+    this.spectrum16 = spectrum16;
+    this.smoothedAmp = smoothedAmp;
+    this.frameCounter = frameCounter;
+    this.layout = layout;
+    this.renderer = renderer;
+    this.out = null;
+    this.target = target;
+    invokeFrame();
+  }
+
+  private void invokeFrame() {
+    frameTask.reinitialize();
+    pool.invoke(frameTask);
+  }
+
+  void close() {
+    if (pool == null) {
+      return;
+    }
+    pool.shutdownNow();
+    try {
+      pool.awaitTermination(500L, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static int alignedBoundary(long pixel) {
+    return (int) (pixel / CHUNK_ALIGN_PIXELS * CHUNK_ALIGN_PIXELS);
+  }
+
+  private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+    thread.setName("wled-ddp-render-" + thread.getPoolIndex());
+    thread.setDaemon(true);
+    return thread;
+  }
+
+  private final class RenderChunk extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    final int from;
+    final int to;
+
+    RenderChunk(int from, int to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (target != null) {
+        target.render(renderer, spectrum16, smoothedAmp, frameCounter, layout, from, to);
+      } else {
+        renderer.render(spectrum16, smoothedAmp, frameCounter, layout, out, from * 3, from, to);
+      }
+    }
+  }
+}
@@ -0,0 +1,261 @@
+package local.wled.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+final class PipelineEvents {
+  private static final String CATEGORY = "WLED Audio Sync";
+
+  static volatile boolean enabled;
+
+  static {
+    loadEventClasses();
+    FlightRecorder.addListener(new FlightRecorderListener() {
+      @Override
+      public void recorderInitialized(FlightRecorder recorder) {
+        refresh(recorder);
+      }
+
+      @Override
+      public void recordingStateChanged(Recording recording) {
+        refresh(FlightRecorder.getFlightRecorder());
+      }
+    });
+  }
+
+  private PipelineEvents() {
+  }
+
+  private static void loadEventClasses() {
+    new AudioRead();
+    new Fft();
+    new Summarize();
+    new Render();
+    new Packetize();
+    new Send();
+  }
+
+  private static void refresh(FlightRecorder recorder) {
+    boolean running = false;
+    for (Recording recording : recorder.getRecordings()) {
+      if (recording.getState() == RecordingState.RUNNING) {
+        running = true;
+        break;
+      }
+    }
+    enabled = running;
+  }
+
+  static AudioRead beginAudioRead() {
+    if (!enabled) {
+      return null;
+    }
+    AudioRead event = new AudioRead();
+    event.begin();
+    return event;
+  }
+
+  static void commit(AudioRead event, int bytes) {
+    if (event != null) {
+      event.bytes = bytes;
+      event.commit();
+    }
+  }
+
+  static Fft beginFft() {
+    if (!enabled) {
+      return null;
+    }
+    Fft event = new Fft();
+    event.begin();
+    return event;
+  }
+
+  static void commit(Fft event, int frame, int fftSize) {
+    if (event != null) {
+      event.frame = frame;
+      event.fftSize = fftSize;
+      event.commit();
+    }
+  }
+
+  static Summarize beginSummarize() {
+    if (!enabled) {
+      return null;
+    }
+    Summarize event = new Summarize();
+    event.begin();
+    return event;
+  }
+
+  static void commit(Summarize event, int frame, float majorPeakHz) {
+    if (event != null) {
+      event.frame = frame;
+      event.majorPeakHz = majorPeakHz;
+      event.commit();
+    }
+  }
+
+  static Render beginRender() {
+    if (!enabled) {
+      return null;
+    }
+    Render event = new Render();
+    event.begin();
+    return event;
+  }
+
+  static void commit(Render event, int frame, int pixels, DdpLayoutMode layout, DdpColorPalette palette) {
+    if (event != null) {
+      event.frame = frame;
+      event.pixels = pixels;
+      event.layout = layout == null ? null : layout.cliValue();
+      event.palette = palette == null ? null : palette.cliValue();
+      event.commit();
+    }
+  }
+
+  static Packetize beginPacketize() {
+    if (!enabled) {
+      return null;
+    }
+    Packetize event = new Packetize();
+    event.begin();
+    return event;
+  }
+
+  static void commit(Packetize event, int frame, int pixels, OutboundFrame outbound) {
+    if (event != null) {
+      event.frame = frame;
+      event.pixels = pixels;
+      event.packets = outbound.packetCount;
+      event.bytes = bytes(outbound);
+      event.commit();
+    }
+  }
+
+  static void commit(Packetize event, int frame, int pixels, OutboundFrame[] outbound) {
+    if (event != null) {
+      event.frame = frame;
+      event.pixels = pixels;
+      for (OutboundFrame segment : outbound) {
+        if (segment != null) {
+          event.packets += segment.packetCount;
+          event.bytes += bytes(segment);
+        }
+      }
+      event.commit();
+    }
+  }
+
+  static Send beginSend() {
+    if (!enabled) {
+      return null;
+    }
+    Send event = new Send();
+    event.begin();
+    return event;
+  }
+
+  static void commit(Send event, String target, int frame, int fragment, int bytes) {
+    if (event != null) {
+      event.target = target;
+      event.frame = frame;
+      event.fragment = fragment;
+      event.bytes = bytes;
+      event.commit();
+    }
+  }
+
+  private static int bytes(OutboundFrame outbound) {
+    int bytes = 0;
+    for (int i = 0; i < outbound.packetCount; i++) {
+      bytes += outbound.packets[i].length;
+    }
+    return bytes;
+  }
+
+  @Name("local.wled.AudioRead")
+  @Label("Audio Read")
+  @Category({CATEGORY, "Capture"})
+  @Description("Blocking read of one PCM chunk from the capture line")
+  static final class AudioRead extends Event {
+    @Label("Bytes")
+    @DataAmount
+    int bytes;
+  }
+
+  @Name("local.wled.Fft")
+  @Label("FFT")
+  @Category({CATEGORY, "Analysis"})
+  static final class Fft extends Event {
+    @Label("Frame")
+    int frame;
+    @Label("FFT Size")
+    int fftSize;
+  }
+
+  @Name("local.wled.Summarize")
+  @Label("Spectrum Summary")
+  @Category({CATEGORY, "Analysis"})
+  @Description("Folding FFT bins into the 16 WLED bands")
+  static final class Summarize extends Event {
+    @Label("Frame")
+    int frame;
+    @Label("Major Peak (Hz)")
+    float majorPeakHz;
+  }
+
+  @Name("local.wled.Render")
+  @Label("DDP Render")
+  @Category({CATEGORY, "Render"})
+  static final class Render extends Event {
+    @Label("Frame")
+    int frame;
+    @Label("Pixels")
+    int pixels;
+    @Label("Layout")
+    String layout;
+    @Label("Palette")
+    String palette;
+  }
+
+  @Name("local.wled.Packetize")
+  @Label("DDP Packetize")
+  @Category({CATEGORY, "Render"})
+  @Description("Stamping DDP headers and sequence numbers into the pooled fragments")
+  static final class Packetize extends Event {
+    @Label("Frame")
+    int frame;
+    @Label("Pixels")
+    int pixels;
+    @Label("Packets")
+    int packets;
+    @Label("Bytes")
+    @DataAmount
+    int bytes;
+  }
+
+  @Name("local.wled.Send")
+  @Label("UDP Send")
+  @Category({CATEGORY, "Send"})
+  static final class Send extends Event {
+    @Label("Target")
+    String target;
+    @Label("Frame")
+    int frame;
+    @Label("Fragment")
+    int fragment;
+    @Label("Bytes")
+    @DataAmount
+    int bytes;
+  }
+}
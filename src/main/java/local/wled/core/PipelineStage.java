@@ -0,0 +1,29 @@
+package local.wled.core;
+
+public enum PipelineStage {
+  AUDIO("audio", "音频等待 (Audio)"),
+  WINDOW("window", "加窗 (Window)"),
+  FFT("fft", "FFT"),
+  SUMMARIZE("summarize", "频段汇总 (Summarize)"),
+  RENDER("render", "渲染 (Render)"),
+  PACKETIZE("packetize", "封包 (Packetize)"),
+  QUEUE("queue", "排队 (Queue)"),
+  SEND("send", "发送 (Send)"),
+  END_TO_END("e2e", "端到端 (E2E)");
+
+  private final String cliValue;
+  private final String uiLabel;
+
+  PipelineStage(String cliValue, String uiLabel) {
+    this.cliValue = cliValue;
+    this.uiLabel = uiLabel;
+  }
+
+  public String cliValue() {
+    return cliValue;
+  }
+
+  public String uiLabel() {
+    return uiLabel;
+  }
+}
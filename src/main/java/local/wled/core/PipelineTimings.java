@@ -0,0 +1,19 @@
+package local.wled.core;
+
+final class PipelineTimings {
+  private final LatencyHistogram[] histograms = new LatencyHistogram[PipelineStage.values().length];
+
+  PipelineTimings() {
+    for (int i = 0; i < histograms.length; i++) {
+      histograms[i] = new LatencyHistogram();
+    }
+  }
+
+  void record(PipelineStage stage, long nanos) {
+    histograms[stage.ordinal()].record(nanos);
+  }
+
+  LatencySnapshot snapshot(PipelineStage stage) {
+    return histograms[stage.ordinal()].snapshot();
+  }
+}
@@ -0,0 +1,115 @@
+package local.wled.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+final class PixelLayoutTable {
+  private static final int MAX_CACHED = 32;
+  private static final Map<Long, PixelLayoutTable> CACHE = new LinkedHashMap<>(MAX_CACHED, 0.75f, true) {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Long, PixelLayoutTable> eldest) {
+      return size() > MAX_CACHED;
+    }
+  };
+
+  final int pixelCount;
+  final DdpLayoutMode mode;
+  final double[] bandPosition;
+  final double[] spatialNorm;
+  final double[] centerFocus;
+
+  private PixelLayoutTable(int pixelCount, DdpLayoutMode mode) {
+    this(pixelCount, mode, 0.0);
+  }
+
+  private PixelLayoutTable(int pixelCount, DdpLayoutMode mode, double cycleSpan) {
+    this.pixelCount = pixelCount;
+    this.mode = mode;
+    this.bandPosition = new double[pixelCount];
+    this.spatialNorm = new double[pixelCount];
+    this.centerFocus = mode == DdpLayoutMode.MIRROR ? new double[pixelCount] : null;
+
+    double bandsMax = SenderMetrics.SPECTRUM_BANDS - 1.0;
+    for (int i = 0; i < pixelCount; i++) {
+      if (cycleSpan > 0.0) {
+        double t = pixelCount <= 1 ? 0.0 : i * cycleSpan / (pixelCount - 1.0);
+        bandPosition[i] = t * bandsMax;
+        spatialNorm[i] = t;
+      } else {
+        bandPosition[i] = resolveBandPosition(i, pixelCount, mode, bandsMax);
+        spatialNorm[i] = resolveSpatialNorm(i, pixelCount, mode);
+      }
+      if (centerFocus != null) {
+        centerFocus[i] = Math.pow(Math.max(0.0, 1.0 - spatialNorm[i]), 1.45);
+      }
+    }
+  }
+
+  static PixelLayoutTable forLayout(int pixelCount, DdpLayoutMode mode) {
+    if (pixelCount < 0) {
+      throw new IllegalArgumentException("pixel count must not be negative: " + pixelCount);
+    }
+    long key = ((long) pixelCount << 8) | mode.ordinal();
+    synchronized (CACHE) {
+      PixelLayoutTable table = CACHE.get(key);
+      if (table == null) {
+        table = new PixelLayoutTable(pixelCount, mode);
+        CACHE.put(key, table);
+      }
+      return table;
+    }
+  }
+
+  static PixelLayoutTable forSamples(int samples, DdpLayoutMode mode, double repeatCycleSpan) {
+    return new PixelLayoutTable(samples, mode, mode == DdpLayoutMode.REPEAT ? repeatCycleSpan : 0.0);
+  }
+
+  private static double resolveSpatialNorm(int pixelIndex, int pixelCount, DdpLayoutMode mode) {
+    if (pixelCount <= 1) {
+      return 0.0;
+    }
+    double t = pixelIndex / (pixelCount - 1.0);
+    if (mode == DdpLayoutMode.MIRROR) {
+      return Math.abs(t - 0.5) * 2.0;
+    }
+    if (mode == DdpLayoutMode.REPEAT) {
+      return repeatCycleNorm(pixelIndex, pixelCount);
+    }
+    return t;
+  }
+
+  private static double resolveBandPosition(int pixelIndex, int pixelCount, DdpLayoutMode mode, double bandsMax) {
+    if (pixelCount <= 1) {
+      return 0.0;
+    }
+    double t = pixelIndex / (pixelCount - 1.0);
+    if (mode == DdpLayoutMode.STRETCH) {
+      return t * bandsMax;
+    }
+    if (mode == DdpLayoutMode.MIRROR) {
+      double centered = 1.0 - Math.abs(t - 0.5) * 2.0;
+      return Math.pow(Math.max(0.0, centered), 1.18) * bandsMax;
+    }
+    return repeatCycleNorm(pixelIndex, pixelCount) * bandsMax;
+  }
+
+  private static double repeatCycleNorm(int pixelIndex, int pixelCount) {
+    int cycles = repeatCycles(pixelCount);
+    int cycle = Math.min(cycles - 1, (pixelIndex * cycles) / pixelCount);
+    int start = (cycle * pixelCount) / cycles;
+    int end = ((cycle + 1) * pixelCount) / cycles - 1;
+    if (end <= start) {
+      return 0.0;
+    }
+    return (pixelIndex - start) / (double) (end - start);
+  }
+
+  private static int repeatCycles(int pixelCount) {
+    if (pixelCount <= 48) {
+      return 3;
+    }
+    return Math.max(3, (int) Math.round(pixelCount / 28.0));
+  }
+}
@@ -0,0 +1,62 @@
+package local.wled.core;
+
+final class PixelUpscaler {
+  private static final int WEIGHT_BITS = 8;
+  private static final int WEIGHT_ONE = 1 << WEIGHT_BITS;
+
+  final int pixelCount;
+  final int resolution;
+  final DdpLayoutMode mode;
+  final PixelLayoutTable sampleLayout;
+  private final int[] sourceOffset;
+  private final int[] weight;
+
+  PixelUpscaler(int pixelCount, DdpLayoutMode mode, int resolution) {
+    if (resolution < 2) {
+      throw new IllegalArgumentException("render resolution must be at least 2: " + resolution);
+    }
+    this.pixelCount = pixelCount;
+    this.resolution = resolution;
+    this.mode = mode;
+    this.sourceOffset = new int[pixelCount];
+    this.weight = new int[pixelCount];
+
+    PixelLayoutTable physical = mode == DdpLayoutMode.REPEAT ? PixelLayoutTable.forLayout(pixelCount, mode) : null;
+    double cycleSpan = 1.0;
+    if (physical != null) {
+      for (double norm : physical.spatialNorm) {
+        cycleSpan = Math.max(cycleSpan, norm);
+      }
+    }
+    this.sampleLayout = PixelLayoutTable.forSamples(resolution, mode, cycleSpan);
+
+    double maxSample = resolution - 1.0;
+    for (int i = 0; i < pixelCount; i++) {
+      double coordinate;
+      if (physical != null) {
+        coordinate = physical.spatialNorm[i] / cycleSpan;
+      } else {
+        coordinate = pixelCount <= 1 ? 0.0 : i / (pixelCount - 1.0);
+      }
+      int fixed = (int) Math.round(coordinate * maxSample * WEIGHT_ONE);
+      int index = Math.min(resolution - 2, fixed >>> WEIGHT_BITS);
+      sourceOffset[i] = index * 3;
+      weight[i] = fixed - (index << WEIGHT_BITS);
+    }
+  }
+
+  static boolean applies(int pixelCount, int resolution) {
+    return resolution >= 2 && resolution < pixelCount;
+  }
+
+  void upscale(byte[] samples, byte[] out, int outOffset, int fromPixel, int toPixel) {
+    for (int i = fromPixel, o = outOffset; i < toPixel; i++, o += 3) {
+      int s = sourceOffset[i];
+      int w = weight[i];
+      int iw = WEIGHT_ONE - w;
+      out[o] = (byte) (((samples[s] & 0xFF) * iw + (samples[s + 3] & 0xFF) * w + 128) >>> WEIGHT_BITS);
+      out[o + 1] = (byte) (((samples[s + 1] & 0xFF) * iw + (samples[s + 4] & 0xFF) * w + 128) >>> WEIGHT_BITS);
+      out[o + 2] = (byte) (((samples[s + 2] & 0xFF) * iw + (samples[s + 5] & 0xFF) * w + 128) >>> WEIGHT_BITS);
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package local.wled.core;
+
+final class PublishedMetrics {
+  volatile float rawAmp;
+  volatile float smoothedAmp;
+  volatile int peak;
+  volatile float majorPeakHz;
+  volatile float magnitude;
+  volatile long frameCounter;
+  volatile long audioOverruns;
+  volatile long audioUnderruns;
+  volatile long frameLatenessNanos;
+  volatile long missedDeadlines;
+
+  void publish(SenderMetrics metrics) {
+    rawAmp = metrics.rawAmp;
+    smoothedAmp = metrics.smoothedAmp;
+    peak = metrics.peak;
+    majorPeakHz = metrics.majorPeakHz;
+    magnitude = metrics.magnitude;
+    frameCounter = metrics.frameCounter;
+    audioOverruns = metrics.audioOverruns;
+    audioUnderruns = metrics.audioUnderruns;
+    frameLatenessNanos = metrics.frameLatenessNanos;
+    missedDeadlines = metrics.missedDeadlines;
+  }
+}
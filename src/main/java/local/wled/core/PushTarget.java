@@ -0,0 +1,30 @@
+package local.wled.core;
+
+import java.util.Objects;
+
+final class PushTarget {
+  final String dest;
+  final int port;
+
+  PushTarget(String dest, int port) {
+    this.dest = dest;
+    this.port = port;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof PushTarget)) {
+      return false;
+    }
+    PushTarget that = (PushTarget) o;
+    return port == that.port && Objects.equals(dest, that.dest);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(dest, port);
+  }
+}
@@ -0,0 +1,47 @@
+package local.wled.core;
+
+public enum PushTransport {
+  CHANNEL("nio", "NIO 通道 (DatagramChannel)"),
+  SOCKET("socket", "传统套接字 (DatagramSocket)");
+
+  private final String cliValue;
+  private final String uiLabel;
+
+  PushTransport(String cliValue, String uiLabel) {
+    this.cliValue = cliValue;
+    this.uiLabel = uiLabel;
+  }
+
+  public String cliValue() {
+    return cliValue;
+  }
+
+  public String uiLabel() {
+    return uiLabel;
+  }
+
+  public static PushTransport fromCliValue(String value) {
+    if (value == null) {
+      return CHANNEL;
+    }
+    String normalized = value.trim().toLowerCase();
+    for (PushTransport transport : values()) {
+      if (transport.cliValue.equals(normalized)) {
+        return transport;
+      }
+    }
+    throw new IllegalArgumentException("--transport only supports: nio, socket");
+  }
+
+  public static PushTransport fromUiLabel(String label) {
+    if (label == null) {
+      return CHANNEL;
+    }
+    for (PushTransport transport : values()) {
+      if (transport.uiLabel.equals(label)) {
+        return transport;
+      }
+    }
+    return CHANNEL;
+  }
+}
@@ -1,5 +1,7 @@
 package local.wled.core;
 
+import java.util.List;
+
 public final class SenderConfig {
   final String dest;
   final int port;
@@ -7,12 +9,24 @@ public final class SenderConfig {
   final int sampleRate;
   final int channels;
   final int fftSize;
+  final int hopSize;
   final int fps;
+  final FramePacing framePacing;
   final boolean verbose;
   final OutputMode outputMode;
   final int ddpPixelCount;
   final DdpLayoutMode ddpLayoutMode;
   final DdpColorPalette ddpColorPalette;
+  final int ddpPacketPixels;
+  final int renderThreads;
+  final int renderResolution;
+  final PushTransport pushTransport;
+  final List<TargetSpec> extraTargets;
+  final int canvasPixelCount;
+  final int ddpTimecodeDelayMs;
+  final int packetPacingPercent;
+  final String metricsBind;
+  final int metricsPort;
   final boolean captureEnabled;
   final boolean pushEnabled;
 
@@ -22,12 +36,24 @@ public final class SenderConfig {
                       int sampleRate,
                       int channels,
                       int fftSize,
+                      int hopSize,
                       int fps,
+                      FramePacing framePacing,
                       boolean verbose,
                       OutputMode outputMode,
                       int ddpPixelCount,
                       DdpLayoutMode ddpLayoutMode,
                       DdpColorPalette ddpColorPalette,
+                      int ddpPacketPixels,
+                      int renderThreads,
+                      int renderResolution,
+                      PushTransport pushTransport,
+                      List<TargetSpec> extraTargets,
+                      int canvasPixelCount,
+                      int ddpTimecodeDelayMs,
+                      int packetPacingPercent,
+                      String metricsBind,
+                      int metricsPort,
                       boolean captureEnabled,
                       boolean pushEnabled) {
     this.dest = dest;
@@ -36,13 +62,33 @@ public final class SenderConfig {
     this.sampleRate = sampleRate;
     this.channels = channels;
     this.fftSize = fftSize;
+    this.hopSize = hopSize;
     this.fps = fps;
+    this.framePacing = framePacing == null ? FramePacing.SLEEP_SPIN : framePacing;
     this.verbose = verbose;
     this.outputMode = outputMode;
     this.ddpPixelCount = ddpPixelCount;
     this.ddpLayoutMode = ddpLayoutMode;
     this.ddpColorPalette = ddpColorPalette;
+    this.ddpPacketPixels = ddpPacketPixels;
+    this.renderThreads = renderThreads;
+    this.renderResolution = renderResolution;
+    this.pushTransport = pushTransport == null ? PushTransport.CHANNEL : pushTransport;
+    this.extraTargets = extraTargets == null ? List.of() : List.copyOf(extraTargets);
+    this.canvasPixelCount = canvasPixelCount;
+    this.ddpTimecodeDelayMs = ddpTimecodeDelayMs;
+    this.packetPacingPercent = packetPacingPercent;
+    this.metricsBind = metricsBind == null || metricsBind.isBlank() ? "127.0.0.1" : metricsBind.trim();
+    this.metricsPort = metricsPort;
     this.captureEnabled = captureEnabled;
     this.pushEnabled = pushEnabled;
   }
+
+  boolean ddpTimecodeEnabled() {
+    return ddpTimecodeDelayMs >= 0;
+  }
+
+  boolean metricsEnabled() {
+    return metricsPort > 0;
+  }
 }
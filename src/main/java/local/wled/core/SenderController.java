@@ -3,25 +3,25 @@ package local.wled.core;
 import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.TargetDataLine;
 import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
 import java.net.InetAddress;
-import java.util.Arrays;
-import java.util.Locale;
-import java.util.Objects;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 public final class SenderController {
-  private static final OutboundFrame POISON = OutboundFrame.poison();
   private static final long PUSH_RETRY_BASE_MILLIS = 250L;
   private static final long PUSH_RETRY_MAX_MILLIS = 3_000L;
+  private static final int READ_CHUNK_FRAMES = 256;
+  private static final long AUDIO_WAIT_MILLIS = 100L;
+  private static final OutputTarget[] NO_TARGETS = new OutputTarget[0];
 
   private final SenderConfig config;
+  private final AsyncLog asyncLog;
   private final Consumer<String> log;
   private final Consumer<SenderMetrics> metricsConsumer;
   private final Consumer<Throwable> errorConsumer;
@@ -36,14 +36,19 @@ public final class SenderController {
   private final AtomicReference<PushTarget> activePushTarget;
   private volatile boolean running;
   private volatile Thread worker;
+  private volatile Thread readerWorker;
   private volatile Thread captureWorker;
-  private volatile Thread pushWorker;
   private volatile TargetDataLine currentLine;
-  private volatile DatagramSocket currentSocket;
+  private volatile OutputTarget[] outputTargets = NO_TARGETS;
+  private final Map<String, TargetSpec> extraTargets = new LinkedHashMap<>();
+  private final PipelineTimings timings = new PipelineTimings();
+  private final PublishedMetrics published = new PublishedMetrics();
+  private volatile MetricsEndpoint metricsEndpoint;
 
   public SenderController(SenderConfig config, Consumer<String> log, Consumer<SenderMetrics> metricsConsumer, Consumer<Throwable> errorConsumer) {
     this.config = config;
-    this.log = log;
+    this.asyncLog = new AsyncLog(log, AsyncLog.DEFAULT_CAPACITY);
+    this.log = asyncLog::text;
     this.metricsConsumer = metricsConsumer;
     this.errorConsumer = errorConsumer;
     this.captureEnabled = new AtomicBoolean(config.captureEnabled);
@@ -52,6 +57,9 @@ public final class SenderController {
     this.activeDdpLayoutMode = new AtomicReference<>(config.ddpLayoutMode);
     this.activeDdpColorPalette = new AtomicReference<>(config.ddpColorPalette);
     this.activePushTarget = new AtomicReference<>(new PushTarget(config.dest, config.port));
+    for (TargetSpec spec : config.extraTargets) {
+      extraTargets.put(spec.id, spec);
+    }
   }
 
   public void setCaptureEnabled(boolean enabled) {
@@ -66,7 +74,9 @@ public final class SenderController {
     if (prev != enabled) {
       log.accept("推送开关: " + (enabled ? "已开启" : "已关闭"));
       if (!enabled) {
-        closeQuietly(currentSocket);
+        for (OutputTarget target : outputTargets) {
+          closeQuietly(target.transport);
+        }
       }
     }
   }
@@ -85,6 +95,9 @@ public final class SenderController {
     if (palette == null) {
       return;
     }
+    if (running && usesActivePalette()) {
+      prepareColorLut(palette);
+    }
     DdpColorPalette prev = activeDdpColorPalette.getAndSet(palette);
     if (prev != palette) {
       log.accept("DDP 配色已切换: " + palette.uiLabel());
@@ -101,7 +114,85 @@ public final class SenderController {
     }
     activePushTarget.set(next);
     log.accept("推送目标已更新: " + next.dest + ":" + next.port);
-    closeQuietly(currentSocket);
+    OutputTarget[] targets = outputTargets;
+    if (targets.length > 0) {
+      closeQuietly(targets[0].transport);
+    }
+  }
+
+  public synchronized List<TargetSpec> targets() {
+    return new ArrayList<>(extraTargets.values());
+  }
+
+  public void addTarget(TargetSpec spec) {
+    synchronized (this) {
+      List<TargetSpec> next = targets();
+      next.removeIf(existing -> existing.id.equals(spec.id));
+      next.add(spec);
+      setTargets(next);
+    }
+  }
+
+  public void removeTarget(String id) {
+    synchronized (this) {
+      List<TargetSpec> next = targets();
+      next.removeIf(existing -> existing.id.equals(id));
+      setTargets(next);
+    }
+  }
+
+  public synchronized void setTargets(List<TargetSpec> specs) {
+    Map<String, TargetSpec> next = new LinkedHashMap<>();
+    for (TargetSpec spec : specs) {
+      if (next.put(spec.id, spec) != null) {
+        throw new IllegalArgumentException("duplicate target id: " + spec.id);
+      }
+      if (spec.canvasStart >= 0 && spec.canvasEnd() > config.canvasPixelCount) {
+        throw new IllegalArgumentException("target " + spec.id + " exceeds canvas of " + config.canvasPixelCount + " pixels");
+      }
+    }
+    boolean started = outputTargets.length > 0;
+    List<OutputTarget> live = new ArrayList<>();
+    for (OutputTarget target : outputTargets) {
+      if (target.primary || next.get(target.id) != null && next.get(target.id).sameShape(extraTargets.get(target.id))) {
+        live.add(target);
+      } else {
+        retire(target);
+      }
+    }
+    for (String id : extraTargets.keySet()) {
+      if (!next.containsKey(id)) {
+        log.accept("附加目标已移除: " + id);
+      }
+    }
+    for (TargetSpec spec : next.values()) {
+      TargetSpec prev = extraTargets.get(spec.id);
+      if (spec.equals(prev)) {
+        continue;
+      }
+      log.accept((prev == null ? "附加目标已添加: " : "附加目标已更新: ") + spec);
+      if (!started) {
+        continue;
+      }
+      if (spec.outputMode == OutputMode.DDP && spec.canvasStart < 0) {
+        prepareColorLut(spec.ddpColorPalette);
+      }
+      OutputTarget existing = findTarget(live, spec.id);
+      if (existing != null) {
+        existing.endpoint.set(new PushTarget(spec.dest, spec.port));
+        existing.layoutMode.set(spec.ddpLayoutMode);
+        existing.palette.set(spec.ddpColorPalette);
+      } else {
+        OutputTarget target = OutputTarget.forSpec(spec, config.ddpTimecodeEnabled());
+        startSender(target);
+        live.add(target);
+      }
+    }
+    extraTargets.clear();
+    extraTargets.putAll(next);
+    if (started) {
+      outputTargets = live.toArray(NO_TARGETS);
+    }
   }
 
   public void setVerboseEnabled(boolean enabled) {
@@ -118,6 +209,7 @@ public final class SenderController {
     stopRequested.set(false);
     errorReported.set(false);
     running = true;
+    asyncLog.start();
     worker = new Thread(this::runLoop, "wled-audio-sync-sender");
     worker.setDaemon(true);
     worker.start();
@@ -126,9 +218,12 @@ public final class SenderController {
   public synchronized void stop() {
     stopRequested.set(true);
     closeQuietly(currentLine);
-    closeQuietly(currentSocket);
+    interruptQuietly(readerWorker);
     interruptQuietly(captureWorker);
-    interruptQuietly(pushWorker);
+    for (OutputTarget target : outputTargets) {
+      closeQuietly(target.transport);
+      interruptQuietly(target.sender);
+    }
     interruptQuietly(worker);
 
     Thread w = worker;
@@ -145,8 +240,23 @@ public final class SenderController {
     return running;
   }
 
+  public LatencySnapshot latency(PipelineStage stage) {
+    return timings.snapshot(stage);
+  }
+
+  OutputTarget[] activeTargets() {
+    return outputTargets;
+  }
+
+  PipelineTimings timings() {
+    return timings;
+  }
+
+  PublishedMetrics publishedMetrics() {
+    return published;
+  }
+
   private void runLoop() {
-    BlockingQueue<OutboundFrame> queue = new ArrayBlockingQueue<>(1);
     try {
       AudioFormat format = new AudioFormat((float) config.sampleRate, 16, config.channels, true, false);
       InputSelection input = AudioDeviceCatalog.openTargetLine(format, config.inputDeviceQuery);
@@ -160,149 +270,249 @@ public final class SenderController {
 
       TargetDataLine line = input.line;
       currentLine = line;
-      currentSocket = null;
 
       line.start();
       log.accept("开始发送到 " + startupTarget.dest + ":" + startupTarget.port + " (" + (isMulticast ? "multicast" : "unicast") + ")");
       if (config.outputMode == OutputMode.DDP) {
-        log.accept("输出模式: DDP 像素推送, 像素数=" + config.ddpPixelCount + ", 布局=" + activeDdpLayoutMode.get().cliValue() + ", 配色=" + activeDdpColorPalette.get().cliValue() + ", 端口=" + startupTarget.port);
+        log.accept("输出模式: DDP 像素推送, 像素数=" + config.ddpPixelCount + ", 布局=" + activeDdpLayoutMode.get().cliValue() + ", 配色=" + activeDdpColorPalette.get().cliValue() + ", 端口=" + startupTarget.port
+            + ", 分片=" + config.ddpPacketPixels + " 像素");
       } else {
         log.accept("输出模式: Audio Sync v2");
       }
+      if (usesActivePalette()) {
+        prepareColorLut(activeDdpColorPalette.get());
+      }
+      if (config.ddpTimecodeEnabled()) {
+        log.accept("DDP 时间码: 已开启, 展示延迟=" + config.ddpTimecodeDelayMs + "ms (各控制器需同步 NTP 时间)");
+      }
       log.accept("采集开关: " + (captureEnabled.get() ? "已开启" : "已关闭") + "，推送开关: " + (pushEnabled.get() ? "已开启" : "已关闭"));
       log.accept("输入设备: " + input.mixerName + " :: " + input.mixerDescription);
       log.accept("输入线路: '" + line.getLineInfo() + "'");
       log.accept("音频格式: " + format);
+      log.accept("帧调度: " + config.framePacing.cliValue() + ", 目标帧率=" + config.fps);
+      if (config.packetPacingPercent > 0) {
+        log.accept("分片匀速发送: 每帧分片分布在帧间隔的 " + config.packetPacingPercent + "% 内");
+      }
 
-      captureWorker = new Thread(() -> captureLoop(line, queue), "wled-audio-capture");
-      pushWorker = new Thread(() -> pushLoop(queue), "wled-audio-push");
+      int hopSize = config.hopSize > 0 ? Math.min(config.hopSize, config.fftSize) : config.fftSize;
+      AudioSampleRing ring = new AudioSampleRing(4 * (config.fftSize + hopSize), READ_CHUNK_FRAMES);
+      readerWorker = new Thread(() -> readerLoop(line, ring), "wled-audio-reader");
+      FrameScheduler scheduler = FrameScheduler.create(config.framePacing, config.fps, config.sampleRate, line::getLongFramePosition);
+      captureWorker = new Thread(() -> captureLoop(ring, hopSize, scheduler), "wled-audio-capture");
+      readerWorker.setDaemon(true);
       captureWorker.setDaemon(true);
-      pushWorker.setDaemon(true);
+      readerWorker.setPriority(Thread.MAX_PRIORITY);
+      startTargets();
+      startMetricsEndpoint();
+      readerWorker.start();
       captureWorker.start();
-      pushWorker.start();
 
       captureWorker.join();
-      offerPoison(queue);
-      pushWorker.join();
+      joinTargets(stopTargets());
+      closeQuietly(line);
+      readerWorker.join();
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
     } catch (Throwable t) {
       reportError(t);
     } finally {
       closeQuietly(currentLine);
-      closeQuietly(currentSocket);
+      for (OutputTarget target : stopTargets()) {
+        closeQuietly(target.transport);
+      }
+      stopMetricsEndpoint();
       currentLine = null;
-      currentSocket = null;
+      readerWorker = null;
       captureWorker = null;
-      pushWorker = null;
-      running = false;
+      if (verboseEnabled.get()) {
+        logLatencySummary();
+      }
       log.accept("发送已停止。");
+      asyncLog.stop();
+      running = false;
     }
   }
 
-  private void captureLoop(TargetDataLine line, BlockingQueue<OutboundFrame> queue) {
+  private void startMetricsEndpoint() {
+    if (!config.metricsEnabled()) {
+      return;
+    }
     try {
-      float smoothed = 0f;
-      float fftAutoGain = 1.0f;
-      float ampAutoGain = 1.0f;
-      int frameCounter = 0;
-      int samplesPerFrame = config.fftSize;
-      int bytesPerSample = 2;
-      int bytesPerFrame = bytesPerSample * config.channels;
-      int bytesToRead = samplesPerFrame * bytesPerFrame;
-
-      byte[] buf = new byte[bytesToRead];
-      double[] re = new double[config.fftSize];
-      double[] im = new double[config.fftSize];
-      double[] window = SignalProcessing.hannWindow(config.fftSize);
-      byte[] fft16 = new byte[16];
-      byte[] ddpRgb = config.outputMode == OutputMode.DDP ? new byte[Math.max(1, config.ddpPixelCount) * 3] : null;
-
-      long frameIntervalNanos = (long) (1_000_000_000.0 / Math.max(1, config.fps));
-      long nextFrame = System.nanoTime();
-      float peakValue = 0f;
+      MetricsEndpoint endpoint = MetricsEndpoint.start(config.metricsBind, config.metricsPort, this);
+      metricsEndpoint = endpoint;
+      log.accept("Prometheus 指标接口: http://" + config.metricsBind + ":" + endpoint.port() + MetricsEndpoint.PATH);
+    } catch (IOException | IllegalArgumentException e) {
+      log.accept("Prometheus 指标接口启动失败(不影响推送): " + config.metricsBind + ":" + config.metricsPort + "，原因=" + e.getMessage());
+    }
+  }
+
+  private void stopMetricsEndpoint() {
+    MetricsEndpoint endpoint = metricsEndpoint;
+    metricsEndpoint = null;
+    if (endpoint != null) {
+      endpoint.close();
+    }
+  }
+
+  private synchronized void startTargets() {
+    OutputTarget primary = new OutputTarget("primary", true, config.outputMode, config.ddpPixelCount, -1, 1, 0,
+        config.ddpTimecodeEnabled(), config.ddpPacketPixels, activePushTarget, activeDdpLayoutMode, activeDdpColorPalette);
+    List<OutputTarget> targets = new ArrayList<>();
+    targets.add(primary);
+    for (TargetSpec spec : extraTargets.values()) {
+      targets.add(OutputTarget.forSpec(spec, config.ddpTimecodeEnabled()));
+      log.accept("附加目标: " + spec);
+      if (spec.outputMode == OutputMode.DDP && spec.canvasStart < 0) {
+        prepareColorLut(spec.ddpColorPalette);
+      }
+    }
+    for (OutputTarget target : targets) {
+      startSender(target);
+    }
+    outputTargets = targets.toArray(NO_TARGETS);
+  }
+
+  private synchronized OutputTarget[] stopTargets() {
+    OutputTarget[] targets = outputTargets;
+    outputTargets = NO_TARGETS;
+    for (OutputTarget target : targets) {
+      retire(target);
+    }
+    return targets;
+  }
+
+  private static void joinTargets(OutputTarget[] targets) throws InterruptedException {
+    for (OutputTarget target : targets) {
+      if (target.sender != null) {
+        target.sender.join();
+      }
+    }
+  }
+
+  private static OutputTarget findTarget(List<OutputTarget> targets, String id) {
+    for (OutputTarget target : targets) {
+      if (!target.primary && target.id.equals(id)) {
+        return target;
+      }
+    }
+    return null;
+  }
 
+  private void startSender(OutputTarget target) {
+    Thread thread = new Thread(() -> pushLoop(target), target.primary ? "wled-audio-push" : "wled-audio-push-" + target.id);
+    thread.setDaemon(true);
+    target.sender = thread;
+    thread.start();
+  }
+
+  private static void retire(OutputTarget target) {
+    target.retired = true;
+    target.mailbox.close();
+  }
+
+  private void readerLoop(TargetDataLine line, AudioSampleRing ring) {
+    int bytesPerFrame = 2 * config.channels;
+    byte[] buf = new byte[READ_CHUNK_FRAMES * bytesPerFrame];
+    int bufferSize = line.getBufferSize();
+    try {
       while (!stopRequested.get()) {
-        long now = System.nanoTime();
-        if (now < nextFrame) {
-          long sleepNanos = nextFrame - now;
-          if (sleepNanos > 2_000_000L) {
-            Thread.sleep(sleepNanos / 1_000_000L);
-          }
+        if (bufferSize > 0 && line.available() >= bufferSize) {
+          ring.recordOverrun();
         }
-        nextFrame += frameIntervalNanos;
-
+        PipelineEvents.AudioRead readEvent = PipelineEvents.beginAudioRead();
         int n = SignalProcessing.readFully(line, buf, 0, buf.length);
-        if (n != buf.length) {
-          continue;
+        PipelineEvents.commit(readEvent, n);
+        int frames = n / bytesPerFrame;
+        if (frames > 0) {
+          ring.appendPcm16(buf, 0, frames, config.channels);
         }
-
-        if (!captureEnabled.get()) {
-          frameCounter++;
-          smoothed = smoothed * 0.80f;
-          peakValue = Math.max(0f, peakValue * 0.82f - 1.2f);
-          int peak = Math.round(SignalProcessing.clamp255(peakValue));
-          Arrays.fill(fft16, (byte) 0);
-          byte[] spectrumCopy = new byte[SenderMetrics.SPECTRUM_BANDS];
-          SenderMetrics metrics = new SenderMetrics(0f, smoothed, peak, 0f, 0f, frameCounter, spectrumCopy);
-          enqueueLatest(queue, OutboundFrame.data(new byte[0][], metrics));
-          continue;
+        if (n != buf.length && !line.isOpen()) {
+          break;
         }
+      }
+    } catch (Throwable t) {
+      reportError(t);
+      stopRequested.set(true);
+    }
+  }
 
-        int frames = samplesPerFrame;
-        double rmsAcc = 0.0;
-        for (int i = 0; i < frames; i++) {
-          int base = i * bytesPerFrame;
-          int sum = 0;
-          for (int ch = 0; ch < config.channels; ch++) {
-            int lo = buf[base + ch * 2] & 0xFF;
-            int hi = buf[base + ch * 2 + 1];
-            short s = (short) ((hi << 8) | lo);
-            sum += s;
+  private void captureLoop(AudioSampleRing ring, int hopSize, FrameScheduler scheduler) {
+    FramePipeline pipeline = null;
+    OutputTarget[] seen = NO_TARGETS;
+    DdpCanvas canvas = null;
+    DdpFrameRenderer canvasRenderer = null;
+    try {
+      pipeline = new FramePipeline(config, timings);
+      DdpFrameRenderer primaryRenderer = pipeline.ddpRenderer();
+      if (primaryRenderer != null) {
+        if (primaryRenderer.resolution() > 0) {
+          LogEntry entry = asyncLog.claim(LogEvent.RENDER_UPSCALE);
+          if (entry != null) {
+            asyncLog.publish(entry.number(0, primaryRenderer.resolution()).number(1, config.ddpPixelCount));
+          }
+        } else {
+          LogEntry entry = asyncLog.claim(LogEvent.RENDER_THREADS);
+          if (entry != null) {
+            asyncLog.publish(entry.number(0, primaryRenderer.threads()));
           }
-          double sample = (sum / (double) config.channels) / 32768.0;
-          rmsAcc += sample * sample;
-          re[i] = sample * window[i];
-          im[i] = 0.0;
         }
+      }
+      long consumed = 0L;
 
-        float rms = (float) Math.sqrt(rmsAcc / frames);
-        float rawAmp = SignalProcessing.clamp255(rms * 512.0f * ampAutoGain);
-        ampAutoGain = SignalProcessing.updateAutoGain(ampAutoGain, rawAmp, 140f);
-
-        float smoothingCarry = config.outputMode == OutputMode.DDP ? 0.78f : 0.85f;
-        smoothed = smoothingCarry * smoothed + (1.0f - smoothingCarry) * rawAmp;
-
-        SignalProcessing.fftRadix2(re, im);
-        SignalProcessing.FftSummary fftSummary = SignalProcessing.summarizeFftTo16(re, im, config.sampleRate, config.fftSize, fftAutoGain, fft16);
-        fftAutoGain = fftSummary.nextAutoGain;
+      while (!stopRequested.get()) {
+        scheduler.awaitNextFrame();
 
-        if (rawAmp >= peakValue) {
-          peakValue = rawAmp;
-        } else {
-          peakValue = Math.max(rawAmp, peakValue * 0.92f - 1.5f);
+        if (!ring.awaitWritten(consumed + hopSize, AUDIO_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+          continue;
         }
-        int peak = Math.round(SignalProcessing.clamp255(peakValue));
-
-        byte[][] packets;
-        if (config.outputMode == OutputMode.DDP) {
-          SignalProcessing.renderSpectrumToDdpRgb(fft16, smoothed, frameCounter, ddpRgb, activeDdpLayoutMode.get(), activeDdpColorPalette.get());
-          packets = SignalProcessing.buildDdpPackets(ddpRgb, frameCounter, 1);
-        } else {
-          byte[] pkt = SignalProcessing.buildWledAudioSyncV2(rawAmp, smoothed, peak, frameCounter & 0xFF, fft16, fftSummary.magnitude, fftSummary.majorPeakHz);
-          packets = new byte[][]{pkt};
+        consumed = ring.written();
+
+        OutputTarget[] targets = outputTargets;
+        if (targets != seen) {
+          closeRetiredRenderers(seen);
+          seen = targets;
+          canvas = config.canvasPixelCount > 0 ? DdpCanvas.forTargets(config.canvasPixelCount, targets) : null;
+          if (canvas != null && canvas.segments.length > 0 && canvasRenderer == null) {
+            canvasRenderer = pipeline.newDdpRenderer(config.canvasPixelCount);
+            LogEntry entry = asyncLog.claim(LogEvent.CANVAS_READY);
+            if (entry != null) {
+              asyncLog.publish(entry.number(0, config.canvasPixelCount).number(1, canvas.segments.length)
+                  .number(2, canvasRenderer.threads()));
+            }
+          }
+        }
+        if (!captureEnabled.get()) {
+          pipeline.analyzeIdle();
+        } else if (!pipeline.analyze(ring)) {
+          continue;
         }
-        frameCounter++;
 
-        byte[] spectrumCopy = new byte[SenderMetrics.SPECTRUM_BANDS];
-        System.arraycopy(fft16, 0, spectrumCopy, 0, spectrumCopy.length);
-        SenderMetrics metrics = new SenderMetrics(rawAmp, smoothed, peak, fftSummary.majorPeakHz, fftSummary.magnitude, frameCounter, spectrumCopy);
-        enqueueLatest(queue, OutboundFrame.data(packets, metrics));
+        for (OutputTarget target : targets) {
+          if (target.canvasStart >= 0) {
+            continue;
+          }
+          OutboundFrame frame = target.freeFrames.poll();
+          if (frame == null) {
+            target.droppedFrames.incrementAndGet();
+            continue;
+          }
+          DdpFrameRenderer renderer = target.primary ? primaryRenderer : target.renderer;
+          if (renderer == null && target.outputMode == OutputMode.DDP) {
+            renderer = pipeline.newDdpRenderer(target.ddpPixelCount);
+            target.renderer = renderer;
+          }
+          pipeline.emit(frame, renderer, target.layoutMode.get(), target.palette.get());
 
-        if (verboseEnabled.get() && (frameCounter % 10 == 0)) {
-          log.accept(String.format(Locale.ROOT,
-              "amp raw=%.1f smth=%.1f peak=%d major=%.1fHz mag=%.1f gainA=%.2f gainF=%.2f",
-              rawAmp, smoothed, peak, fftSummary.majorPeakHz, fftSummary.magnitude, ampAutoGain, fftAutoGain));
+          SenderMetrics metrics = frame.metrics;
+          fillTimingMetrics(metrics, ring, scheduler);
+          boolean logFrame = target.primary && frame.packetCount > 0 && verboseEnabled.get() && (metrics.frameCounter % 10 == 0);
+          if (logFrame) {
+            logFrameStats(metrics, pipeline);
+          }
+          enqueueLatest(target, frame);
+        }
+        if (canvas != null && canvas.segments.length > 0) {
+          emitCanvas(pipeline, canvas, canvasRenderer, ring, scheduler);
         }
       }
     } catch (InterruptedException e) {
@@ -311,116 +521,300 @@ public final class SenderController {
       reportError(t);
       stopRequested.set(true);
     } finally {
-      offerPoison(queue);
+      if (pipeline != null) {
+        pipeline.close();
+      }
+      if (canvasRenderer != null) {
+        canvasRenderer.close();
+      }
+      for (OutputTarget target : seen) {
+        closeRenderer(target);
+      }
+      for (OutputTarget target : outputTargets) {
+        closeRenderer(target);
+        target.mailbox.close();
+      }
+    }
+  }
+
+  private void emitCanvas(FramePipeline pipeline, DdpCanvas canvas, DdpFrameRenderer renderer, AudioSampleRing ring,
+                          FrameScheduler scheduler) {
+    OutputTarget[] segments = canvas.segments;
+    OutboundFrame[] frames = canvas.frames;
+    for (int i = 0; i < segments.length; i++) {
+      frames[i] = segments[i].freeFrames.poll();
+    }
+    pipeline.emitCanvas(canvas, renderer, activeDdpLayoutMode.get(), activeDdpColorPalette.get());
+    for (int i = 0; i < segments.length; i++) {
+      OutboundFrame frame = frames[i];
+      if (frame != null) {
+        fillTimingMetrics(frame.metrics, ring, scheduler);
+        enqueueLatest(segments[i], frame);
+        frames[i] = null;
+      } else {
+        segments[i].droppedFrames.incrementAndGet();
+      }
     }
   }
 
-  private void pushLoop(BlockingQueue<OutboundFrame> queue) {
-    DatagramSocket socket = null;
+  private static void fillTimingMetrics(SenderMetrics metrics, AudioSampleRing ring, FrameScheduler scheduler) {
+    metrics.audioOverruns = ring.overruns();
+    metrics.audioUnderruns = ring.underruns();
+    metrics.frameIntervalNanos = scheduler.lastIntervalNanos();
+    metrics.frameLatenessNanos = scheduler.lastLatenessNanos();
+    metrics.missedDeadlines = scheduler.missedDeadlines();
+  }
+
+  private static void closeRetiredRenderers(OutputTarget[] targets) {
+    for (OutputTarget target : targets) {
+      if (target.retired) {
+        closeRenderer(target);
+      }
+    }
+  }
+
+  private static void closeRenderer(OutputTarget target) {
+    if (target.renderer != null) {
+      target.renderer.close();
+      target.renderer = null;
+    }
+  }
+
+  private void pushLoop(OutputTarget target) {
+    String prefix = target.logPrefix();
+    DatagramTransport transport = null;
     int consecutiveSendFailures = 0;
     long lastSendErrorLogNanos = 0L;
     boolean connected = false;
     PushTarget connectedTarget = null;
-    InetAddress connectedAddress = null;
     long nextRetryAtNanos = 0L;
     long retryDelayMillis = PUSH_RETRY_BASE_MILLIS;
+    PacketPacer pacer = new PacketPacer(config.fps, config.packetPacingPercent);
+    long rateWindowStartNanos = System.nanoTime();
+    long rateWindowBytes = 0L;
+    long rateWindowPackets = 0L;
     try {
       while (true) {
-        OutboundFrame frame = queue.poll(300L, TimeUnit.MILLISECONDS);
+        OutboundFrame frame = target.mailbox.take();
         if (frame == null) {
-          continue;
-        }
-        if (frame.isPoison) {
           break;
         }
+        frame.takeNanos = System.nanoTime();
+        timings.record(PipelineStage.QUEUE, frame.takeNanos - frame.postNanos);
 
         try {
           if (pushEnabled.get()) {
-            PushTarget currentTarget = activePushTarget.get();
+            PushTarget currentTarget = target.endpoint.get();
             boolean targetChanged = !currentTarget.equals(connectedTarget);
-            if (socket == null || socket.isClosed() || targetChanged) {
+            if (transport == null || !transport.isOpen() || targetChanged) {
               long now = System.nanoTime();
               if (now < nextRetryAtNanos) {
-                metricsConsumer.accept(frame.metrics);
+                target.droppedFrames.incrementAndGet();
+                publishMetrics(target, frame);
+                target.freeFrames.offer(frame);
                 continue;
               }
-              closeQuietly(socket);
+              closeQuietly(transport);
+              transport = null;
               connected = false;
-              connectedAddress = InetAddress.getByName(currentTarget.dest);
-              socket = createSocket(connectedAddress);
-              currentSocket = socket;
+              InetAddress address = InetAddress.getByName(currentTarget.dest);
+              transport = DatagramTransport.open(config.pushTransport, address, currentTarget.port);
+              target.transport = transport;
               connectedTarget = currentTarget;
             }
-            for (byte[] packet : frame.packets) {
-              DatagramPacket dp = new DatagramPacket(packet, packet.length, connectedAddress, connectedTarget.port);
-              socket.send(dp);
+            if (pacer.enabled() && frame.packetCount > 1) {
+              pacer.beginFrame(frameBytes(frame), frame.packets[0].length, System.nanoTime());
+            }
+            int sentPackets = 0;
+            int sentBytes = 0;
+            for (int i = 0; i < frame.packetCount; i++) {
+              byte[] packet = frame.packets[i];
+              if (i > 0 && pacer.enabled() && !pacer.await(packet.length, target.mailbox)) {
+                break;
+              }
+              PipelineEvents.Send sendEvent = PipelineEvents.beginSend();
+              transport.send(packet, packet.length);
+              PipelineEvents.commit(sendEvent, target.id, frame.frameNumber, i, packet.length);
+              sentPackets++;
+              sentBytes += packet.length;
+            }
+            rateWindowBytes += sentBytes;
+            rateWindowPackets += sentPackets;
+            if (sentPackets > 0) {
+              target.packetsSent.addAndGet(sentPackets);
+              target.bytesSent.addAndGet(sentBytes);
+              if (sentPackets == frame.packetCount) {
+                target.framesSent.incrementAndGet();
+              }
+              recordSent(frame);
             }
             if (!connected) {
               connected = true;
-              log.accept("UDP 推送连接已建立。目标=" + connectedTarget.dest + ":" + connectedTarget.port);
+              target.connected = true;
+              LogEntry entry = asyncLog.claim(LogEvent.PUSH_CONNECTED);
+              if (entry != null) {
+                asyncLog.publish(entry.text(0, prefix).text(1, connectedTarget.dest).number(0, connectedTarget.port)
+                    .text(2, config.pushTransport.cliValue()).number(1, transport.isConnected() ? 1L : 0L));
+              }
             }
             if (consecutiveSendFailures > 0) {
-              log.accept("UDP 推送恢复，连续失败次数=" + consecutiveSendFailures);
+              LogEntry entry = asyncLog.claim(LogEvent.PUSH_RECOVERED);
+              if (entry != null) {
+                asyncLog.publish(entry.text(0, prefix).number(0, consecutiveSendFailures));
+              }
               consecutiveSendFailures = 0;
               lastSendErrorLogNanos = 0L;
             }
             nextRetryAtNanos = 0L;
             retryDelayMillis = PUSH_RETRY_BASE_MILLIS;
+            publishBackoff(target, 0, 0L, 0L);
           } else {
             if (connected) {
               connected = false;
-              log.accept("UDP 推送连接已断开（推送关闭）。");
+              target.connected = false;
+              LogEntry entry = asyncLog.claim(LogEvent.PUSH_DISCONNECTED);
+              if (entry != null) {
+                asyncLog.publish(entry.text(0, prefix));
+              }
             }
-            closeQuietly(socket);
-            socket = null;
-            currentSocket = null;
+            closeQuietly(transport);
+            transport = null;
+            target.transport = null;
             connectedTarget = null;
-            connectedAddress = null;
             consecutiveSendFailures = 0;
             lastSendErrorLogNanos = 0L;
             nextRetryAtNanos = 0L;
             retryDelayMillis = PUSH_RETRY_BASE_MILLIS;
+            publishBackoff(target, 0, 0L, 0L);
           }
         } catch (IOException | IllegalArgumentException | SecurityException sendError) {
-          if (stopRequested.get()) {
+          if (stopRequested.get() || target.retired) {
             break;
           }
-          if (connected) {
-            connected = false;
-          }
-          closeQuietly(socket);
-          socket = null;
-          currentSocket = null;
+          target.droppedFrames.incrementAndGet();
+          target.sendFailures.incrementAndGet();
+          connected = false;
+          target.connected = false;
+          closeQuietly(transport);
+          transport = null;
+          target.transport = null;
           connectedTarget = null;
-          connectedAddress = null;
           consecutiveSendFailures++;
           long now = System.nanoTime();
           nextRetryAtNanos = now + retryDelayMillis * 1_000_000L;
+          publishBackoff(target, consecutiveSendFailures, retryDelayMillis, nextRetryAtNanos);
           retryDelayMillis = Math.min(PUSH_RETRY_MAX_MILLIS, retryDelayMillis * 2L);
           if (consecutiveSendFailures == 1 || now - lastSendErrorLogNanos >= 2_000_000_000L) {
             String message = sendError.getMessage();
             long retryAfterMillis = Math.max(1L, (nextRetryAtNanos - now) / 1_000_000L);
-            log.accept("UDP 推送失败(不中断采集): 连续失败=" + consecutiveSendFailures + "，原因=" + (message == null ? sendError.getClass().getSimpleName() : message) + "，将在约 " + retryAfterMillis + "ms 后重试");
+            LogEntry entry = asyncLog.claim(LogEvent.PUSH_FAILED);
+            if (entry != null) {
+              asyncLog.publish(entry.text(0, prefix).number(0, consecutiveSendFailures)
+                  .text(1, message == null ? sendError.getClass().getSimpleName() : message).number(1, retryAfterMillis));
+            }
             lastSendErrorLogNanos = now;
           }
         }
-        metricsConsumer.accept(frame.metrics);
+        long now = System.nanoTime();
+        if (now - rateWindowStartNanos >= 1_000_000_000L) {
+          target.pushBytesPerSecond = rateWindowBytes * 1_000_000_000L / (now - rateWindowStartNanos);
+          target.pushPacketsPerSecond = rateWindowPackets * 1_000_000_000L / (now - rateWindowStartNanos);
+          rateWindowStartNanos = now;
+          rateWindowBytes = 0L;
+          rateWindowPackets = 0L;
+          if (!target.primary && verboseEnabled.get()) {
+            LogEntry entry = asyncLog.claim(LogEvent.PUSH_RATE);
+            if (entry != null) {
+              asyncLog.publish(entry.text(0, prefix).decimal(0, target.pushBytesPerSecond).number(0, target.droppedFrames.get()));
+            }
+          }
+        }
+        publishMetrics(target, frame);
+        target.freeFrames.offer(frame);
       }
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
     } catch (Throwable t) {
       reportError(t);
     } finally {
-      closeQuietly(socket);
-      currentSocket = null;
+      closeQuietly(transport);
+      target.transport = null;
+      target.connected = false;
+    }
+  }
+
+  private static void publishBackoff(OutputTarget target, int consecutiveFailures, long retryDelayMillis, long nextRetryAtNanos) {
+    target.consecutiveSendFailures = consecutiveFailures;
+    target.retryDelayMillis = retryDelayMillis;
+    target.nextRetryAtNanos = nextRetryAtNanos;
+  }
+
+  private void publishMetrics(OutputTarget target, OutboundFrame frame) {
+    if (target.primary) {
+      frame.metrics.pushBytesPerSecond = target.pushBytesPerSecond;
+      frame.metrics.droppedFrames = target.droppedFrames.get();
+      frame.metrics.overwrittenFrames = target.mailbox.overwritten();
+      published.publish(frame.metrics);
+      metricsConsumer.accept(frame.metrics);
+    }
+  }
+
+  private void recordSent(OutboundFrame frame) {
+    long sendEnd = System.nanoTime();
+    frame.sendEndNanos = sendEnd;
+    timings.record(PipelineStage.SEND, sendEnd - frame.takeNanos);
+    if (frame.audioNanos != 0L) {
+      frame.metrics.endToEndNanos = sendEnd - frame.audioNanos;
+      timings.record(PipelineStage.END_TO_END, frame.metrics.endToEndNanos);
+    }
+  }
+
+  private void logLatencySummary() {
+    for (PipelineStage stage : PipelineStage.values()) {
+      LatencySnapshot snapshot = timings.snapshot(stage);
+      if (snapshot.count > 0L) {
+        log.accept("阶段耗时 " + stage.uiLabel() + ": " + snapshot);
+      }
+    }
+  }
+
+  private static int frameBytes(OutboundFrame frame) {
+    int bytes = 0;
+    for (int i = 0; i < frame.packetCount; i++) {
+      bytes += frame.packets[i].length;
+    }
+    return bytes;
+  }
+
+  private boolean usesActivePalette() {
+    return config.outputMode == OutputMode.DDP || config.canvasPixelCount > 0;
+  }
+
+  private void prepareColorLut(DdpColorPalette palette) {
+    PaletteColorLut lut = palette.renderer().colorLut();
+    if (lut.isBuilt()) {
+      return;
+    }
+    long start = System.nanoTime();
+    lut.table();
+    LogEntry entry = asyncLog.claim(LogEvent.LUT_READY);
+    if (entry != null) {
+      asyncLog.publish(entry.text(0, palette.cliValue()).number(0, PaletteColorLut.footprintBytes() / 1024)
+          .decimal(0, System.nanoTime() - start));
     }
   }
 
-  private static DatagramSocket createSocket(InetAddress destAddr) throws java.io.IOException {
-    if (destAddr.isMulticastAddress()) {
-      return SignalProcessing.createMulticastSender();
+  private void logFrameStats(SenderMetrics metrics, FramePipeline pipeline) {
+    LogEntry entry = asyncLog.claim(LogEvent.FRAME_STATS);
+    if (entry == null) {
+      return;
     }
-    return new DatagramSocket();
+    entry.decimal(0, metrics.rawAmp).decimal(1, metrics.smoothedAmp).number(0, metrics.peak)
+        .decimal(2, metrics.majorPeakHz).decimal(3, metrics.magnitude)
+        .decimal(4, pipeline.ampAutoGain()).decimal(5, pipeline.fftAutoGain())
+        .number(1, metrics.audioOverruns).number(2, metrics.audioUnderruns)
+        .decimal(6, metrics.frameIntervalNanos).decimal(7, metrics.frameLatenessNanos).number(3, metrics.missedDeadlines);
+    asyncLog.publish(entry);
   }
 
   private static String normalizeDest(String dest, String fallback) {
@@ -435,17 +829,12 @@ public final class SenderController {
     return port > 0 ? port : fallback;
   }
 
-  private static void enqueueLatest(BlockingQueue<OutboundFrame> queue, OutboundFrame frame) {
-    if (queue.offer(frame)) {
-      return;
-    }
-    queue.poll();
-    queue.offer(frame);
-  }
-
-  private static void offerPoison(BlockingQueue<OutboundFrame> queue) {
-    while (!queue.offer(POISON)) {
-      queue.poll();
+  private static void enqueueLatest(OutputTarget target, OutboundFrame frame) {
+    frame.postNanos = System.nanoTime();
+    OutboundFrame displaced = target.mailbox.post(frame);
+    if (displaced != null) {
+      target.droppedFrames.incrementAndGet();
+      target.freeFrames.offer(displaced);
     }
   }
 
@@ -461,9 +850,9 @@ public final class SenderController {
     }
   }
 
-  private static void closeQuietly(DatagramSocket socket) {
-    if (socket != null) {
-      socket.close();
+  private static void closeQuietly(DatagramTransport transport) {
+    if (transport != null) {
+      transport.close();
     }
   }
 
@@ -478,51 +867,4 @@ public final class SenderController {
       line.close();
     }
   }
-
-  private static final class OutboundFrame {
-    final byte[][] packets;
-    final SenderMetrics metrics;
-    final boolean isPoison;
-
-    private OutboundFrame(byte[][] packets, SenderMetrics metrics, boolean isPoison) {
-      this.packets = packets;
-      this.metrics = metrics;
-      this.isPoison = isPoison;
-    }
-
-    static OutboundFrame data(byte[][] packets, SenderMetrics metrics) {
-      return new OutboundFrame(packets, metrics, false);
-    }
-
-    static OutboundFrame poison() {
-      return new OutboundFrame(new byte[0][], null, true);
-    }
-  }
-
-  private static final class PushTarget {
-    final String dest;
-    final int port;
-
-    PushTarget(String dest, int port) {
-      this.dest = dest;
-      this.port = port;
-    }
-
-    @Override
-    public boolean equals(Object o) {
-      if (this == o) {
-        return true;
-      }
-      if (!(o instanceof PushTarget)) {
-        return false;
-      }
-      PushTarget that = (PushTarget) o;
-      return port == that.port && Objects.equals(dest, that.dest);
-    }
-
-    @Override
-    public int hashCode() {
-      return Objects.hash(dest, port);
-    }
-  }
 }
@@ -3,21 +3,60 @@ package local.wled.core;
 public final class SenderMetrics {
   public static final int SPECTRUM_BANDS = 16;
 
-  public final float rawAmp;
-  public final float smoothedAmp;
-  public final int peak;
-  public final float majorPeakHz;
-  public final float magnitude;
-  public final int frameCounter;
-  public final byte[] spectrum16;
+  public float rawAmp;
+  public float smoothedAmp;
+  public int peak;
+  public float majorPeakHz;
+  public float magnitude;
+  public int frameCounter;
+  public final byte[] spectrum16 = new byte[SPECTRUM_BANDS];
+  public long audioOverruns;
+  public long audioUnderruns;
+  public long frameIntervalNanos;
+  public long frameLatenessNanos;
+  public long missedDeadlines;
+  public long pushBytesPerSecond;
+  public long droppedFrames;
+  public long overwrittenFrames;
+  public long endToEndNanos;
 
-  public SenderMetrics(float rawAmp, float smoothedAmp, int peak, float majorPeakHz, float magnitude, int frameCounter, byte[] spectrum16) {
+  public SenderMetrics() {
+  }
+
+  public SenderMetrics(float rawAmp, float smoothedAmp, int peak, float majorPeakHz, float magnitude, int frameCounter, byte[] spectrum16,
+                       long audioOverruns, long audioUnderruns, long frameIntervalNanos, long frameLatenessNanos, long missedDeadlines) {
     this.rawAmp = rawAmp;
     this.smoothedAmp = smoothedAmp;
     this.peak = peak;
     this.majorPeakHz = majorPeakHz;
     this.magnitude = magnitude;
     this.frameCounter = frameCounter;
-    this.spectrum16 = spectrum16;
+    if (spectrum16 != null) {
+      System.arraycopy(spectrum16, 0, this.spectrum16, 0, Math.min(SPECTRUM_BANDS, spectrum16.length));
+    }
+    this.audioOverruns = audioOverruns;
+    this.audioUnderruns = audioUnderruns;
+    this.frameIntervalNanos = frameIntervalNanos;
+    this.frameLatenessNanos = frameLatenessNanos;
+    this.missedDeadlines = missedDeadlines;
+  }
+
+  public void copyFrom(SenderMetrics other) {
+    rawAmp = other.rawAmp;
+    smoothedAmp = other.smoothedAmp;
+    peak = other.peak;
+    majorPeakHz = other.majorPeakHz;
+    magnitude = other.magnitude;
+    frameCounter = other.frameCounter;
+    System.arraycopy(other.spectrum16, 0, spectrum16, 0, SPECTRUM_BANDS);
+    audioOverruns = other.audioOverruns;
+    audioUnderruns = other.audioUnderruns;
+    frameIntervalNanos = other.frameIntervalNanos;
+    frameLatenessNanos = other.frameLatenessNanos;
+    missedDeadlines = other.missedDeadlines;
+    pushBytesPerSecond = other.pushBytesPerSecond;
+    droppedFrames = other.droppedFrames;
+    overwrittenFrames = other.overwrittenFrames;
+    endToEndNanos = other.endToEndNanos;
   }
 }
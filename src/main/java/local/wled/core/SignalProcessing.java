@@ -4,15 +4,9 @@ import javax.sound.sampled.TargetDataLine;
 import java.io.IOException;
 import java.net.DatagramSocket;
 import java.net.MulticastSocket;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 
 final class SignalProcessing {
-  private static final int DDP_HEADER_LEN = 10;
-  private static final int DDP_MAX_DATALEN = 480 * 3;
-  private static final int DDP_FLAG_VER1 = 0x40;
-  private static final int DDP_FLAG_PUSH = 0x01;
-  private static final int DDP_DATATYPE_RGB = 0x0B;
+  static final int AUDIO_SYNC_V2_PACKET_LEN = 44;
 
   private SignalProcessing() {
   }
@@ -44,39 +38,56 @@ final class SignalProcessing {
       float fftMagnitude,
       float fftMajorPeakHz
   ) {
-    ByteBuffer bb = ByteBuffer.allocate(44).order(ByteOrder.LITTLE_ENDIAN);
-    bb.put((byte) '0').put((byte) '0').put((byte) '0').put((byte) '0').put((byte) '2').put((byte) 0);
-    bb.putShort((short) 0);
-    bb.putFloat(sampleRaw);
-    bb.putFloat(sampleSmth);
-    bb.put((byte) (samplePeak & 0xFF));
-    bb.put((byte) (frameCounter & 0xFF));
-    bb.put(fft16, 0, 16);
-    bb.putShort((short) 0);
-    bb.putFloat(fftMagnitude);
-    bb.putFloat(fftMajorPeakHz);
-    return bb.array();
+    byte[] out = new byte[AUDIO_SYNC_V2_PACKET_LEN];
+    writeWledAudioSyncV2(out, sampleRaw, sampleSmth, samplePeak, frameCounter, fft16, fftMagnitude, fftMajorPeakHz);
+    return out;
+  }
+
+  static void writeWledAudioSyncV2(
+      byte[] out,
+      float sampleRaw,
+      float sampleSmth,
+      int samplePeak,
+      int frameCounter,
+      byte[] fft16,
+      float fftMagnitude,
+      float fftMajorPeakHz
+  ) {
+    out[0] = (byte) '0';
+    out[1] = (byte) '0';
+    out[2] = (byte) '0';
+    out[3] = (byte) '0';
+    out[4] = (byte) '2';
+    out[5] = 0;
+    out[6] = 0;
+    out[7] = 0;
+    putFloatLe(out, 8, sampleRaw);
+    putFloatLe(out, 12, sampleSmth);
+    out[16] = (byte) (samplePeak & 0xFF);
+    out[17] = (byte) (frameCounter & 0xFF);
+    System.arraycopy(fft16, 0, out, 18, 16);
+    out[34] = 0;
+    out[35] = 0;
+    putFloatLe(out, 36, fftMagnitude);
+    putFloatLe(out, 40, fftMajorPeakHz);
+  }
+
+  private static void putFloatLe(byte[] out, int off, float value) {
+    int bits = Float.floatToRawIntBits(value);
+    out[off] = (byte) bits;
+    out[off + 1] = (byte) (bits >>> 8);
+    out[off + 2] = (byte) (bits >>> 16);
+    out[off + 3] = (byte) (bits >>> 24);
   }
 
   static byte[][] buildDdpPackets(byte[] rgbData, int frameCounter, int destinationId) {
-    int packetCount = Math.max(1, (rgbData.length + DDP_MAX_DATALEN - 1) / DDP_MAX_DATALEN);
-    byte[][] packets = new byte[packetCount][];
-    int sequence = (frameCounter % 15) + 1;
-    for (int i = 0; i < packetCount; i++) {
-      int offset = i * DDP_MAX_DATALEN;
-      int len = Math.min(DDP_MAX_DATALEN, rgbData.length - offset);
-      boolean push = i == packetCount - 1;
-      ByteBuffer bb = ByteBuffer.allocate(DDP_HEADER_LEN + len).order(ByteOrder.BIG_ENDIAN);
-      bb.put((byte) (DDP_FLAG_VER1 | (push ? DDP_FLAG_PUSH : 0)));
-      bb.put((byte) (sequence & 0xFF));
-      bb.put((byte) DDP_DATATYPE_RGB);
-      bb.put((byte) (destinationId & 0xFF));
-      bb.putInt(offset);
-      bb.putShort((short) (len & 0xFFFF));
-      bb.put(rgbData, offset, len);
-      packets[i] = bb.array();
-    }
-    return packets;
+    return buildDdpPackets(rgbData, frameCounter, destinationId, DdpPacketizer.PIXELS_PER_PACKET);
+  }
+
+  static byte[][] buildDdpPackets(byte[] rgbData, int frameCounter, int destinationId, int pixelsPerPacket) {
+    DdpPacketizer packetizer = new DdpPacketizer(rgbData.length, destinationId, 0, 0, false, pixelsPerPacket);
+    packetizer.fill(rgbData, frameCounter);
+    return packetizer.packets();
   }
 
   static void renderSpectrumToDdpRgb(
@@ -94,358 +105,7 @@ final class SignalProcessing {
 
     DdpLayoutMode mode = layoutMode == null ? DdpLayoutMode.REPEAT : layoutMode;
     DdpColorPalette palette = colorPalette == null ? DdpColorPalette.NIGHTCLUB : colorPalette;
-    double ampNorm = clamp01(smoothedAmp / 255.0);
-    double global = 0.24 + 1.40 * Math.pow(ampNorm, 0.72);
-    double bandsMax = SenderMetrics.SPECTRUM_BANDS - 1.0;
-    double motionPhase = frameCounter * 0.24;
-    double sweepAmount;
-    double sweepFreq;
-    double pulseFreq;
-    double pulseDepth;
-    double sparkleFreq;
-    double sparkleDepth;
-    double hueDriftAmount;
-    double hueDriftFreq;
-    double strobeStrength;
-    double strobeFreq;
-    double strobeSpatial;
-    switch (palette) {
-      case NIGHTCLUB:
-        sweepAmount = 0.85 + ampNorm * 1.30;
-        sweepFreq = 1.45;
-        pulseFreq = 1.75;
-        pulseDepth = 0.34;
-        sparkleFreq = 2.90;
-        sparkleDepth = 0.24;
-        hueDriftAmount = ampNorm * 30.0;
-        hueDriftFreq = 0.90;
-        strobeStrength = 0.52;
-        strobeFreq = 2.20;
-        strobeSpatial = 8.0;
-        break;
-      case FIRE:
-        sweepAmount = 0.58 + ampNorm * 0.72;
-        sweepFreq = 1.10;
-        pulseFreq = 1.40;
-        pulseDepth = 0.26;
-        sparkleFreq = 2.25;
-        sparkleDepth = 0.16;
-        hueDriftAmount = ampNorm * 18.0;
-        hueDriftFreq = 0.78;
-        strobeStrength = 0.68;
-        strobeFreq = 2.65;
-        strobeSpatial = 6.0;
-        break;
-      case OCEAN:
-        sweepAmount = 0.34 + ampNorm * 0.52;
-        sweepFreq = 0.70;
-        pulseFreq = 0.92;
-        pulseDepth = 0.14;
-        sparkleFreq = 1.55;
-        sparkleDepth = 0.08;
-        hueDriftAmount = ampNorm * 14.0;
-        hueDriftFreq = 0.52;
-        strobeStrength = 0.0;
-        strobeFreq = 1.0;
-        strobeSpatial = 0.0;
-        break;
-      case CANDY:
-        sweepAmount = 0.62 + ampNorm * 0.90;
-        sweepFreq = 1.20;
-        pulseFreq = 1.28;
-        pulseDepth = 0.22;
-        sparkleFreq = 3.30;
-        sparkleDepth = 0.18;
-        hueDriftAmount = ampNorm * 24.0;
-        hueDriftFreq = 1.10;
-        strobeStrength = 0.26;
-        strobeFreq = 2.00;
-        strobeSpatial = 10.0;
-        break;
-      case SUNSET:
-        sweepAmount = 0.48 + ampNorm * 0.70;
-        sweepFreq = 0.95;
-        pulseFreq = 1.06;
-        pulseDepth = 0.12;
-        sparkleFreq = 1.80;
-        sparkleDepth = 0.02;
-        hueDriftAmount = ampNorm * 16.0;
-        hueDriftFreq = 0.66;
-        strobeStrength = 0.0;
-        strobeFreq = 1.0;
-        strobeSpatial = 0.0;
-        break;
-      case AURORA:
-      default:
-        sweepAmount = 0.55 + ampNorm * 0.95;
-        sweepFreq = 1.00;
-        pulseFreq = 1.35;
-        pulseDepth = 0.20;
-        sparkleFreq = 2.30;
-        sparkleDepth = 0.14;
-        hueDriftAmount = ampNorm * 20.0;
-        hueDriftFreq = 0.72;
-        strobeStrength = 0.0;
-        strobeFreq = 1.0;
-        strobeSpatial = 0.0;
-        break;
-    }
-    for (int i = 0; i < pixels; i++) {
-      double pos = resolveBandPosition(i, pixels, mode, bandsMax);
-      double spatialNorm = resolveSpatialNorm(i, pixels, mode);
-      double sweepWave = Math.sin(motionPhase * sweepFreq + spatialNorm * Math.PI * 4.0);
-      double sampledPos = shiftBandPosition(pos, sweepWave * sweepAmount, mode, bandsMax);
-      sampledPos = stylizeSampledPosition(sampledPos, pos, spatialNorm, motionPhase, mode, bandsMax, palette);
-
-      int i0 = Math.max(0, Math.min(SenderMetrics.SPECTRUM_BANDS - 1, (int) Math.floor(sampledPos)));
-      int i1 = Math.min(SenderMetrics.SPECTRUM_BANDS - 1, i0 + 1);
-      double mix = Math.max(0.0, Math.min(1.0, sampledPos - i0));
-
-      double b0 = (spectrum16[i0] & 0xFF) / 255.0;
-      double b1 = (spectrum16[i1] & 0xFF) / 255.0;
-      double level = mode == DdpLayoutMode.STRETCH ? b0 * (1.0 - mix) + b1 * mix : b0;
-      level = stylizeLevel(level, spectrum16, sampledPos, motionPhase, palette);
-      double gated = Math.max(0.0, level - 0.045) / 0.955;
-      double shaped = Math.pow(gated, 0.58);
-      double punch = 0.88 + 0.46 * Math.pow(Math.max(0.0, level), 0.5);
-      double pulse = 0.92 + pulseDepth * Math.sin(motionPhase * pulseFreq - spatialNorm * Math.PI * 5.5);
-      double sparkle = 0.92 + sparkleDepth * Math.sin(motionPhase * sparkleFreq + sampledPos * 0.9);
-      double strobe = 1.0;
-      if (strobeStrength > 0.0) {
-        double beatWave = Math.sin(motionPhase * strobeFreq - spatialNorm * Math.PI * strobeSpatial);
-        double gate = beatWave > 0.12 ? 1.0 : 0.16;
-        strobe = (1.0 - strobeStrength) + strobeStrength * gate;
-      }
-      double value = clamp01(shaped * global * punch * pulse * sparkle * strobe);
-      if (mode == DdpLayoutMode.MIRROR) {
-        double centerFocus = Math.pow(Math.max(0.0, 1.0 - spatialNorm), 1.45);
-        value = clamp01(value * (0.60 + centerFocus * 0.95) + centerFocus * 0.12);
-      }
-      double posNorm = pos / bandsMax;
-      double hue = paletteHue(palette, posNorm, value) + hueDriftAmount * Math.sin(motionPhase * hueDriftFreq + spatialNorm * Math.PI * 3.0);
-      double sat = paletteSaturation(palette, posNorm, value);
-      double val = paletteValue(palette, posNorm, value);
-
-      int[] rgb = hsvToRgb(hue, sat, val);
-      int base = i * 3;
-      outRgb[base] = (byte) (rgb[0] & 0xFF);
-      outRgb[base + 1] = (byte) (rgb[1] & 0xFF);
-      outRgb[base + 2] = (byte) (rgb[2] & 0xFF);
-    }
-  }
-
-  private static double resolveSpatialNorm(int pixelIndex, int pixelCount, DdpLayoutMode mode) {
-    if (pixelCount <= 1) {
-      return 0.0;
-    }
-    double t = pixelIndex / (pixelCount - 1.0);
-    if (mode == DdpLayoutMode.MIRROR) {
-      return Math.abs(t - 0.5) * 2.0;
-    }
-    if (mode == DdpLayoutMode.REPEAT) {
-      return repeatCycleNorm(pixelIndex, pixelCount);
-    }
-    return t;
-  }
-
-  private static double shiftBandPosition(double basePos, double offset, DdpLayoutMode mode, double bandsMax) {
-    double shifted = basePos + offset;
-    if (mode == DdpLayoutMode.STRETCH || mode == DdpLayoutMode.MIRROR) {
-      return Math.max(0.0, Math.min(bandsMax, shifted));
-    }
-    double span = bandsMax + 1.0;
-    double wrapped = shifted % span;
-    if (wrapped < 0.0) {
-      wrapped += span;
-    }
-    return wrapped;
-  }
-
-  private static double stylizeSampledPosition(double sampledPos, double basePos, double spatialNorm, double motionPhase,
-                                               DdpLayoutMode mode, double bandsMax, DdpColorPalette palette) {
-    switch (palette) {
-      case SUNSET:
-        return shiftBandPosition(basePos * 0.82 + sampledPos * 0.18, 0.0, mode, bandsMax);
-      case OCEAN:
-        return shiftBandPosition(basePos * 0.74 + sampledPos * 0.26, 0.0, mode, bandsMax);
-      case CANDY:
-        double zig = Math.sin(motionPhase * 2.7 + spatialNorm * Math.PI * 13.0) * 0.55;
-        double chunked = Math.floor((sampledPos + zig) * 1.15) / 1.15;
-        double candyStep = Math.sin(motionPhase * 3.6 + spatialNorm * Math.PI * 18.0) > 0.0 ? 0.38 : -0.38;
-        return shiftBandPosition(chunked, candyStep, mode, bandsMax);
-      case AURORA:
-        return shiftBandPosition(sampledPos, Math.sin(motionPhase * 0.85 + spatialNorm * Math.PI * 2.5) * 0.16, mode, bandsMax);
-      case NIGHTCLUB:
-      case FIRE:
-      default:
-        return sampledPos;
-    }
-  }
-
-  private static double stylizeLevel(double level, byte[] spectrum16, double sampledPos, double motionPhase, DdpColorPalette palette) {
-    switch (palette) {
-      case SUNSET:
-        return clamp01(level * 0.58 + sampleSpectrumLevel(spectrum16, sampledPos - 0.75) * 0.21 + sampleSpectrumLevel(spectrum16, sampledPos + 0.75) * 0.21);
-      case OCEAN:
-        return clamp01(level * 0.72 + sampleSpectrumLevel(spectrum16, sampledPos - 0.45) * 0.14 + sampleSpectrumLevel(spectrum16, sampledPos + 0.45) * 0.14);
-      case CANDY:
-        double candyPeak = Math.max(level, sampleSpectrumLevel(spectrum16, sampledPos - 0.18));
-        candyPeak = Math.max(candyPeak, sampleSpectrumLevel(spectrum16, sampledPos + 0.18));
-        double stripeGate = Math.sin(motionPhase * 3.3 + sampledPos * 6.2) > 0.0 ? 1.72 : 0.0;
-        return clamp01(Math.pow(candyPeak, 0.62) * stripeGate);
-      case AURORA:
-        return clamp01(level * 0.82 + sampleSpectrumLevel(spectrum16, sampledPos + 0.35) * 0.18);
-      case NIGHTCLUB:
-      case FIRE:
-      default:
-        return level;
-    }
-  }
-
-  private static double sampleSpectrumLevel(byte[] spectrum16, double bandPos) {
-    double clamped = Math.max(0.0, Math.min(SenderMetrics.SPECTRUM_BANDS - 1.0, bandPos));
-    int i0 = (int) Math.floor(clamped);
-    int i1 = Math.min(SenderMetrics.SPECTRUM_BANDS - 1, i0 + 1);
-    double mix = clamped - i0;
-    double b0 = (spectrum16[i0] & 0xFF) / 255.0;
-    double b1 = (spectrum16[i1] & 0xFF) / 255.0;
-    return b0 * (1.0 - mix) + b1 * mix;
-  }
-
-  private static double paletteHue(DdpColorPalette palette, double posNorm, double value) {
-    switch (palette) {
-      case NIGHTCLUB:
-        return 292.0 - posNorm * 92.0 + value * 14.0;
-      case SUNSET:
-        return 34.0 - posNorm * 44.0 - value * 8.0;
-      case FIRE:
-        return 16.0 - posNorm * 20.0 - value * 4.0;
-      case OCEAN:
-        return 222.0 - posNorm * 48.0 + value * 6.0;
-      case CANDY:
-        return 318.0 - posNorm * 62.0 - value * 5.0;
-      case AURORA:
-      default:
-        return 176.0 - posNorm * 108.0 - value * 10.0;
-    }
-  }
-
-  private static double paletteSaturation(DdpColorPalette palette, double posNorm, double value) {
-    switch (palette) {
-      case NIGHTCLUB:
-        return clamp01(0.93 + value * 0.07);
-      case SUNSET:
-        return clamp01(0.88 + value * 0.10);
-      case FIRE:
-        return clamp01(0.94 + value * 0.06);
-      case OCEAN:
-        return clamp01(0.80 + (1.0 - posNorm) * 0.10 + value * 0.08);
-      case CANDY:
-        return clamp01(0.90 + posNorm * 0.08 + value * 0.02);
-      case AURORA:
-      default:
-        return clamp01(0.86 + value * 0.12);
-    }
-  }
-
-  private static double paletteValue(DdpColorPalette palette, double posNorm, double value) {
-    switch (palette) {
-      case NIGHTCLUB:
-        return clamp01(value * 0.92 + 0.06 + Math.max(0.0, 0.5 - Math.abs(posNorm - 0.5)) * 0.05);
-      case SUNSET:
-        return clamp01(value * 0.90 + 0.10 + posNorm * 0.08);
-      case FIRE:
-        return clamp01(value * 0.86 + 0.14);
-      case OCEAN:
-        return clamp01(value * 0.80 + 0.06 + (1.0 - posNorm) * 0.06);
-      case CANDY:
-        return clamp01(value * 0.86 + 0.08 + posNorm * 0.03);
-      case AURORA:
-      default:
-        return clamp01(value * 0.88 + 0.12);
-    }
-  }
-
-  private static double resolveBandPosition(int pixelIndex, int pixelCount, DdpLayoutMode mode, double bandsMax) {
-    if (pixelCount <= 1) {
-      return 0.0;
-    }
-    double t = pixelIndex / (pixelCount - 1.0);
-    if (mode == DdpLayoutMode.STRETCH) {
-      return t * bandsMax;
-    }
-    if (mode == DdpLayoutMode.MIRROR) {
-      double centered = 1.0 - Math.abs(t - 0.5) * 2.0;
-      return Math.pow(Math.max(0.0, centered), 1.18) * bandsMax;
-    }
-    return repeatCycleNorm(pixelIndex, pixelCount) * bandsMax;
-  }
-
-  private static double repeatCycleNorm(int pixelIndex, int pixelCount) {
-    int cycles = repeatCycles(pixelCount);
-    int cycle = Math.min(cycles - 1, (pixelIndex * cycles) / pixelCount);
-    int start = (cycle * pixelCount) / cycles;
-    int end = ((cycle + 1) * pixelCount) / cycles - 1;
-    if (end <= start) {
-      return 0.0;
-    }
-    return (pixelIndex - start) / (double) (end - start);
-  }
-
-  private static int repeatCycles(int pixelCount) {
-    if (pixelCount <= 48) {
-      return 3;
-    }
-    return Math.max(3, (int) Math.round(pixelCount / 28.0));
-  }
-
-  private static double clamp01(double value) {
-    return Math.max(0.0, Math.min(1.0, value));
-  }
-
-  private static int[] hsvToRgb(double hue, double sat, double val) {
-    double h = ((hue % 360.0) + 360.0) % 360.0;
-    double c = val * sat;
-    double x = c * (1.0 - Math.abs((h / 60.0) % 2.0 - 1.0));
-    double m = val - c;
-
-    double r;
-    double g;
-    double b;
-    if (h < 60.0) {
-      r = c;
-      g = x;
-      b = 0.0;
-    } else if (h < 120.0) {
-      r = x;
-      g = c;
-      b = 0.0;
-    } else if (h < 180.0) {
-      r = 0.0;
-      g = c;
-      b = x;
-    } else if (h < 240.0) {
-      r = 0.0;
-      g = x;
-      b = c;
-    } else if (h < 300.0) {
-      r = x;
-      g = 0.0;
-      b = c;
-    } else {
-      r = c;
-      g = 0.0;
-      b = x;
-    }
-
-    int ri = (int) Math.round(255.0 * (r + m));
-    int gi = (int) Math.round(255.0 * (g + m));
-    int bi = (int) Math.round(255.0 * (b + m));
-    return new int[]{
-        Math.max(0, Math.min(255, ri)),
-        Math.max(0, Math.min(255, gi)),
-        Math.max(0, Math.min(255, bi))
-    };
+    palette.renderer().render(spectrum16, smoothedAmp, frameCounter, PixelLayoutTable.forLayout(pixels, mode), outRgb, 0, 0, pixels);
   }
 
   static double[] hannWindow(int n) {
@@ -494,6 +154,18 @@ final class SignalProcessing {
       int n,
       float fftAutoGain,
       byte[] out16
+  ) {
+    return summarizeFftTo16(re, im, sampleRate, n, fftAutoGain, out16, new FftSummary());
+  }
+
+  static FftSummary summarizeFftTo16(
+      double[] re,
+      double[] im,
+      int sampleRate,
+      int n,
+      float fftAutoGain,
+      byte[] out16,
+      FftSummary summary
   ) {
     int half = n / 2;
     int minBin = Math.max(1, (int) Math.floor(40.0 * n / sampleRate));
@@ -501,7 +173,7 @@ final class SignalProcessing {
 
     double maxMag = 0.0;
     int maxBin = minBin;
-    double[] mags = new double[half];
+    double[] mags = re;
     for (int i = 0; i < half; i++) {
       double mag = Math.hypot(re[i], im[i]) * fftScale;
       mags[i] = mag;
@@ -546,55 +218,15 @@ final class SignalProcessing {
       f0 = f1;
     }
 
-    float majorHz = (float) (maxBin * (sampleRate / (double) n));
-    return new FftSummary(scaledMax, majorHz, nextGain);
-  }
-
-  static void fftRadix2(double[] re, double[] im) {
-    int n = re.length;
-    int bits = 31 - Integer.numberOfLeadingZeros(n);
-    for (int i = 0; i < n; i++) {
-      int j = Integer.reverse(i) >>> (32 - bits);
-      if (j > i) {
-        double tr = re[i];
-        re[i] = re[j];
-        re[j] = tr;
-        double ti = im[i];
-        im[i] = im[j];
-        im[j] = ti;
-      }
-    }
-
-    for (int size = 2; size <= n; size <<= 1) {
-      int halfsize = size >>> 1;
-      double tablestep = -2.0 * Math.PI / size;
-      for (int i = 0; i < n; i += size) {
-        for (int j = 0; j < halfsize; j++) {
-          double angle = j * tablestep;
-          double wr = Math.cos(angle);
-          double wi = Math.sin(angle);
-          int k = i + j;
-          int l = k + halfsize;
-          double tr = wr * re[l] - wi * im[l];
-          double ti = wr * im[l] + wi * re[l];
-          re[l] = re[k] - tr;
-          im[l] = im[k] - ti;
-          re[k] = re[k] + tr;
-          im[k] = im[k] + ti;
-        }
-      }
-    }
+    summary.magnitude = scaledMax;
+    summary.majorPeakHz = (float) (maxBin * (sampleRate / (double) n));
+    summary.nextAutoGain = nextGain;
+    return summary;
   }
 
   static final class FftSummary {
-    final float magnitude;
-    final float majorPeakHz;
-    final float nextAutoGain;
-
-    FftSummary(float magnitude, float majorPeakHz, float nextAutoGain) {
-      this.magnitude = magnitude;
-      this.majorPeakHz = majorPeakHz;
-      this.nextAutoGain = nextAutoGain;
-    }
+    float magnitude;
+    float majorPeakHz;
+    float nextAutoGain;
   }
 }
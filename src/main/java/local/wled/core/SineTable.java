@@ -0,0 +1,32 @@
+package local.wled.core;
+
+final class SineTable {
+  private static final int BITS = 12;
+  private static final int SIZE = 1 << BITS;
+  private static final int MASK = SIZE - 1;
+  private static final double STEP = 2.0 * Math.PI / SIZE;
+  private static final double INV_STEP = SIZE / (2.0 * Math.PI);
+  private static final double[] SIN = new double[SIZE];
+  private static final double[] COS = new double[SIZE];
+
+  static {
+    for (int i = 0; i < SIZE; i++) {
+      SIN[i] = Math.sin(i * STEP);
+      COS[i] = Math.cos(i * STEP);
+    }
+  }
+
+  private SineTable() {
+  }
+
+  static double sin(double x) {
+    double k = x * INV_STEP;
+    double base = Math.floor(k);
+    double d = (k - base) * STEP;
+    int i = (int) ((long) base & MASK);
+    double d2 = d * d;
+    double sinD = d * (1.0 - d2 * (1.0 / 6.0 - d2 * (1.0 / 120.0)));
+    double cosD = 1.0 - d2 * (0.5 - d2 * (1.0 / 24.0));
+    return SIN[i] * cosD + COS[i] * sinD;
+  }
+}
@@ -0,0 +1,37 @@
+package local.wled.core;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+
+final class SocketDatagramTransport implements DatagramTransport {
+  private final DatagramSocket socket;
+  private final DatagramPacket datagram;
+
+  SocketDatagramTransport(InetAddress address, int port) throws IOException {
+    this.socket = address.isMulticastAddress() ? SignalProcessing.createMulticastSender() : new DatagramSocket();
+    this.datagram = new DatagramPacket(new byte[0], 0, address, port);
+  }
+
+  @Override
+  public void send(byte[] packet, int length) throws IOException {
+    datagram.setData(packet, 0, length);
+    socket.send(datagram);
+  }
+
+  @Override
+  public boolean isConnected() {
+    return false;
+  }
+
+  @Override
+  public boolean isOpen() {
+    return !socket.isClosed();
+  }
+
+  @Override
+  public void close() {
+    socket.close();
+  }
+}
@@ -0,0 +1,65 @@
+package local.wled.core;
+
+final class SunsetPaletteRenderer implements PaletteRenderer, PaletteColorLut.ColorModel {
+  private final PaletteColorLut colorLut = new PaletteColorLut(16.0, this);
+
+  @Override
+  public PaletteColorLut colorLut() {
+    return colorLut;
+  }
+
+  @Override
+  public void render(byte[] spectrum16, float smoothedAmp, int frameCounter, PixelLayoutTable layout,
+                     byte[] out, int outOffset, int fromPixel, int toPixel) {
+    double ampNorm = PaletteRendering.ampNorm(smoothedAmp);
+    double global = PaletteRendering.globalGain(ampNorm);
+    double motionPhase = PaletteRendering.motionPhase(frameCounter);
+    double sweepAmount = 0.48 + ampNorm * 0.70;
+    double sweepPhase = motionPhase * 0.95;
+    double pulsePhase = motionPhase * 1.06;
+    double sparklePhase = motionPhase * 1.80;
+    double hueDriftPhase = motionPhase * 0.66;
+    DdpLayoutMode mode = layout.mode;
+    double[] bandPosition = layout.bandPosition;
+    double[] spatialNorms = layout.spatialNorm;
+    double[] centerFocus = layout.centerFocus;
+    int[] colors = colorLut.table();
+
+    for (int i = fromPixel, o = outOffset; i < toPixel; i++, o += 3) {
+      double pos = bandPosition[i];
+      double spatialNorm = spatialNorms[i];
+      double sampledPos = PaletteRendering.shiftBandPosition(pos, SineTable.sin(sweepPhase + spatialNorm * Math.PI * 4.0) * sweepAmount, mode);
+      sampledPos = PaletteRendering.shiftBandPosition(pos * 0.82 + sampledPos * 0.18, 0.0, mode);
+      double level = PaletteRendering.bandLevel(spectrum16, sampledPos, mode);
+      level = PaletteRendering.clamp01(level * 0.58 + PaletteRendering.sampleSpectrumLevel(spectrum16, sampledPos - 0.75) * 0.21
+          + PaletteRendering.sampleSpectrumLevel(spectrum16, sampledPos + 0.75) * 0.21);
+      double pulse = 0.92 + 0.12 * SineTable.sin(pulsePhase - spatialNorm * Math.PI * 5.5);
+      double sparkle = 0.92 + 0.02 * SineTable.sin(sparklePhase + sampledPos * 0.9);
+      double value = PaletteRendering.clamp01(PaletteRendering.intensity(level, global) * pulse * sparkle);
+      if (centerFocus != null) {
+        value = PaletteRendering.mirrorFocus(value, centerFocus[i]);
+      }
+      double posNorm = pos / PaletteRendering.BANDS_MAX;
+      double drift = ampNorm * SineTable.sin(hueDriftPhase + spatialNorm * Math.PI * 3.0);
+      int rgb = colors[PaletteColorLut.index(posNorm, value, drift)];
+      out[o] = (byte) (rgb >>> 16);
+      out[o + 1] = (byte) (rgb >>> 8);
+      out[o + 2] = (byte) rgb;
+    }
+  }
+
+  @Override
+  public double hue(double posNorm, double value) {
+    return 34.0 - posNorm * 44.0 - value * 8.0;
+  }
+
+  @Override
+  public double saturation(double posNorm, double value) {
+    return PaletteRendering.clamp01(0.88 + value * 0.10);
+  }
+
+  @Override
+  public double brightness(double posNorm, double value) {
+    return PaletteRendering.clamp01(value * 0.90 + 0.10 + posNorm * 0.08);
+  }
+}
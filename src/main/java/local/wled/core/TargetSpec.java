@@ -0,0 +1,155 @@
+package local.wled.core;
+
+import java.util.Objects;
+
+public final class TargetSpec {
+  final String id;
+  final String dest;
+  final int port;
+  final OutputMode outputMode;
+  final int ddpPixelCount;
+  final DdpLayoutMode ddpLayoutMode;
+  final DdpColorPalette ddpColorPalette;
+  final int canvasStart;
+  final int ddpDestinationId;
+  final int ddpDeviceOffset;
+  final int ddpPacketPixels;
+
+  public TargetSpec(String id,
+                    String dest,
+                    int port,
+                    OutputMode outputMode,
+                    int ddpPixelCount,
+                    DdpLayoutMode ddpLayoutMode,
+                    DdpColorPalette ddpColorPalette) {
+    this(id, dest, port, outputMode, ddpPixelCount, ddpLayoutMode, ddpColorPalette, -1, 1, 0);
+  }
+
+  public TargetSpec(String id,
+                    String dest,
+                    int port,
+                    OutputMode outputMode,
+                    int ddpPixelCount,
+                    DdpLayoutMode ddpLayoutMode,
+                    DdpColorPalette ddpColorPalette,
+                    int canvasStart,
+                    int ddpDestinationId,
+                    int ddpDeviceOffset) {
+    this(id, dest, port, outputMode, ddpPixelCount, ddpLayoutMode, ddpColorPalette, canvasStart, ddpDestinationId,
+        ddpDeviceOffset, DdpPacketizer.PIXELS_PER_PACKET);
+  }
+
+  public TargetSpec(String id,
+                    String dest,
+                    int port,
+                    OutputMode outputMode,
+                    int ddpPixelCount,
+                    DdpLayoutMode ddpLayoutMode,
+                    DdpColorPalette ddpColorPalette,
+                    int canvasStart,
+                    int ddpDestinationId,
+                    int ddpDeviceOffset,
+                    int ddpPacketPixels) {
+    this.dest = Objects.requireNonNull(dest, "dest");
+    this.port = port;
+    this.id = id == null || id.isEmpty() ? dest + ":" + port : id;
+    this.outputMode = outputMode == null ? OutputMode.DDP : outputMode;
+    this.ddpPixelCount = ddpPixelCount;
+    this.ddpLayoutMode = ddpLayoutMode == null ? DdpLayoutMode.REPEAT : ddpLayoutMode;
+    this.ddpColorPalette = ddpColorPalette == null ? DdpColorPalette.NIGHTCLUB : ddpColorPalette;
+    this.canvasStart = canvasStart;
+    this.ddpDestinationId = ddpDestinationId;
+    this.ddpDeviceOffset = ddpDeviceOffset;
+    this.ddpPacketPixels = ddpPacketPixels;
+  }
+
+  public String id() {
+    return id;
+  }
+
+  public int canvasStart() {
+    return canvasStart;
+  }
+
+  public int canvasEnd() {
+    return canvasStart + ddpPixelCount;
+  }
+
+  boolean sameShape(TargetSpec other) {
+    return other != null
+        && outputMode == other.outputMode
+        && ddpPixelCount == other.ddpPixelCount
+        && canvasStart == other.canvasStart
+        && ddpDestinationId == other.ddpDestinationId
+        && ddpDeviceOffset == other.ddpDeviceOffset
+        && ddpPacketPixels == other.ddpPacketPixels;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof TargetSpec)) {
+      return false;
+    }
+    TargetSpec that = (TargetSpec) o;
+    return port == that.port
+        && ddpPixelCount == that.ddpPixelCount
+        && canvasStart == that.canvasStart
+        && ddpDestinationId == that.ddpDestinationId
+        && ddpDeviceOffset == that.ddpDeviceOffset
+        && ddpPacketPixels == that.ddpPacketPixels
+        && id.equals(that.id)
+        && dest.equals(that.dest)
+        && outputMode == that.outputMode
+        && ddpLayoutMode == that.ddpLayoutMode
+        && ddpColorPalette == that.ddpColorPalette;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(id, dest, port, outputMode, ddpPixelCount, ddpLayoutMode, ddpColorPalette, canvasStart,
+        ddpDestinationId, ddpDeviceOffset, ddpPacketPixels);
+  }
+
+  public String cliValue() {
+    StringBuilder sb = new StringBuilder();
+    sb.append(dest).append(':').append(port).append(" mode=").append(outputMode.cliValue());
+    if (outputMode == OutputMode.DDP) {
+      sb.append(" pixels=").append(ddpPixelCount);
+      if (canvasStart >= 0) {
+        sb.append(" canvas=").append(canvasStart);
+      } else {
+        sb.append(" layout=").append(ddpLayoutMode.cliValue())
+            .append(" palette=").append(ddpColorPalette.cliValue());
+      }
+      if (ddpDestinationId != 1) {
+        sb.append(" dest-id=").append(ddpDestinationId);
+      }
+      if (ddpDeviceOffset != 0) {
+        sb.append(" offset=").append(ddpDeviceOffset);
+      }
+      if (ddpPacketPixels != DdpPacketizer.PIXELS_PER_PACKET) {
+        sb.append(" packet=").append(ddpPacketPixels);
+      }
+    }
+    if (!id.equals(dest + ":" + port)) {
+      sb.append(" name=").append(id);
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public String toString() {
+    if (outputMode == OutputMode.DDP && canvasStart >= 0) {
+      return id + " -> " + dest + ":" + port + " ddp canvas=" + canvasStart + ".." + (canvasEnd() - 1)
+          + " dest-id=" + ddpDestinationId + " offset=" + ddpDeviceOffset;
+    }
+    if (outputMode == OutputMode.DDP) {
+      return id + " -> " + dest + ":" + port + " ddp pixels=" + ddpPixelCount + " layout=" + ddpLayoutMode.cliValue()
+          + " palette=" + ddpColorPalette.cliValue();
+    }
+    return id + " -> " + dest + ":" + port + " " + outputMode.cliValue();
+  }
+}
@@ -0,0 +1,151 @@
+package local.wled.core;
+
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncLogTest {
+  @Test
+  void entriesAreFormattedByTheDrainInOrder() {
+    List<String> lines = new ArrayList<>();
+    AsyncLog log = new AsyncLog(lines::add, 8);
+    LogEntry entry = log.claim(LogEvent.PUSH_RECOVERED);
+    log.publish(entry.text(0, "[wall] ").number(0, 3));
+    entry = log.claim(LogEvent.RENDER_THREADS);
+    log.publish(entry.number(0, 4));
+    assertTrue(lines.isEmpty());
+
+    assertEquals(2, log.drain());
+    assertEquals(List.of("[wall] UDP 推送恢复，连续失败次数=3", "DDP 渲染线程: 4 (并行)"), lines);
+    log.text("发送已停止。");
+    assertEquals("发送已停止。", lines.get(2));
+  }
+
+  @Test
+  void rateLimitedEventsAreSummarised() throws Exception {
+    List<String> lines = new ArrayList<>();
+    AsyncLog log = new AsyncLog(lines::add, 64);
+    int limit = LogEvent.PUSH_FAILED.maxPerSecond();
+    int published = 0;
+    for (int i = 0; i < limit + 7; i++) {
+      LogEntry entry = log.claim(LogEvent.PUSH_FAILED);
+      if (entry != null) {
+        log.publish(entry.text(0, "").number(0, i).text(1, "timeout").number(1, 100));
+        published++;
+      }
+    }
+    assertEquals(limit, published);
+    assertEquals(7L, log.suppressed(LogEvent.PUSH_FAILED));
+
+    Thread.sleep(1_050L);
+    log.drain();
+    assertEquals(limit + 1, lines.size());
+    String summary = lines.get(lines.size() - 1);
+    assertTrue(summary.startsWith("日志限流: ") && summary.contains("7 条「推送失败」"), summary);
+    assertEquals(0L, log.suppressed(LogEvent.PUSH_FAILED));
+  }
+
+  @Test
+  void controlPathTextIsNeverRateLimited() {
+    List<String> lines = new ArrayList<>();
+    AsyncLog log = new AsyncLog(lines::add, 16);
+    for (int i = 0; i < 500; i++) {
+      log.text("错误: " + i);
+    }
+    log.text("发送已停止。");
+    assertEquals(501, lines.size());
+    assertEquals("发送已停止。", lines.get(500));
+    assertEquals(0L, log.suppressed(LogEvent.TEXT));
+  }
+
+  @Test
+  void fullRingDropsAndReportsInsteadOfBlocking() {
+    List<String> lines = new ArrayList<>();
+    AsyncLog log = new AsyncLog(lines::add, 4);
+    for (int i = 0; i < 6; i++) {
+      LogEntry entry = log.claim(LogEvent.CANVAS_READY);
+      if (i < 4) {
+        log.publish(entry.number(0, i));
+      } else {
+        assertNull(entry);
+      }
+    }
+    assertEquals(2L, log.dropped());
+    assertEquals(4, log.drain());
+    assertEquals("日志缓冲已满: 丢弃了 2 条日志", lines.get(4));
+    assertEquals(0, log.drain());
+    assertEquals(5, lines.size());
+  }
+
+  @Test
+  void concurrentProducersLoseNothing() throws Exception {
+    List<String> lines = Collections.synchronizedList(new ArrayList<>());
+    AsyncLog log = new AsyncLog(lines::add, 256);
+    log.start();
+    int threads = 4;
+    int perThread = 2_000;
+    List<Thread> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      int id = t;
+      Thread worker = new Thread(() -> {
+        for (int i = 0; i < perThread; i++) {
+          LogEntry entry;
+          while ((entry = log.claim(LogEvent.CANVAS_READY)) == null) {
+            Thread.onSpinWait();
+          }
+          log.publish(entry.number(0, id).number(1, i));
+        }
+      });
+      workers.add(worker);
+      worker.start();
+    }
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    log.stop();
+
+    Set<String> unique = new HashSet<>();
+    for (String line : lines) {
+      if (line.startsWith("虚拟画布: ")) {
+        unique.add(line);
+      }
+    }
+    assertEquals(threads * perThread, unique.size());
+  }
+
+  @Test
+  void claimAndPublishDoNotAllocate() {
+    ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    AsyncLog log = new AsyncLog(line -> { }, 1024);
+    for (int i = 0; i < 2_000; i++) {
+      LogEntry entry = log.claim(LogEvent.CANVAS_READY);
+      log.publish(entry.number(0, i).number(1, 2).number(2, 3));
+      log.drain();
+    }
+    long before = threads.getCurrentThreadAllocatedBytes();
+    long baseline = threads.getCurrentThreadAllocatedBytes() - before;
+    before = threads.getCurrentThreadAllocatedBytes();
+    for (int i = 0; i < 1_000; i++) {
+      LogEntry entry = log.claim(LogEvent.CANVAS_READY);
+      log.publish(entry.number(0, i).number(1, 2).number(2, 3));
+    }
+    long allocated = threads.getCurrentThreadAllocatedBytes() - before - baseline;
+    assertEquals(0L, allocated);
+  }
+
+  @Test
+  void capacityMustBeAPowerOfTwo() {
+    assertThrows(IllegalArgumentException.class, () -> new AsyncLog(line -> { }, 100));
+  }
+}
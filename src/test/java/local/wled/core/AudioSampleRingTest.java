@@ -0,0 +1,129 @@
+package local.wled.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AudioSampleRingTest {
+
+  @Test
+  void copyLatestReturnsOverlappingWindowsAcrossWrap() {
+    AudioSampleRing ring = new AudioSampleRing(8 + 2);
+    assertEquals(16, ring.capacity());
+
+    double[] window = new double[8];
+    for (int hop = 0; hop < 12; hop++) {
+      ring.appendPcm16(monoPcm(hop * 2, 2), 0, 2, 1);
+    }
+    ring.copyLatest(window, 8);
+
+    for (int i = 0; i < 8; i++) {
+      assertEquals((16 + i) / 32768.0, window[i], 1e-12);
+    }
+  }
+
+  @Test
+  void copyLatestZeroFillsBeforeEnoughSamplesArrive() {
+    AudioSampleRing ring = new AudioSampleRing(8);
+    ring.appendPcm16(monoPcm(100, 3), 0, 3, 1);
+
+    double[] window = new double[8];
+    ring.copyLatest(window, 8);
+
+    for (int i = 0; i < 5; i++) {
+      assertEquals(0.0, window[i]);
+    }
+    assertEquals(100 / 32768.0, window[5], 1e-12);
+    assertEquals(102 / 32768.0, window[7], 1e-12);
+  }
+
+  @Test
+  void appendPcm16AveragesStereoChannels() {
+    AudioSampleRing ring = new AudioSampleRing(4);
+    byte[] pcm = {(byte) 0x00, (byte) 0x40, (byte) 0x00, (byte) 0xC0, (byte) 0x00, (byte) 0x20, (byte) 0x00, (byte) 0x20};
+    ring.appendPcm16(pcm, 0, 2, 2);
+
+    double[] window = new double[2];
+    ring.copyLatest(window, 2);
+
+    assertEquals(0.0, window[0], 1e-12);
+    assertEquals(0.25, window[1], 1e-12);
+  }
+
+  @Test
+  void awaitWrittenWakesWhenReaderThreadPublishes() throws Exception {
+    AudioSampleRing ring = new AudioSampleRing(64, 16);
+    Thread reader = new Thread(() -> {
+      for (int i = 0; i < 8; i++) {
+        ring.appendPcm16(monoPcm(i * 16, 16), 0, 16, 1);
+      }
+    });
+    reader.start();
+
+    assertTrue(ring.awaitWritten(128, 2, TimeUnit.SECONDS));
+    reader.join();
+    double[] window = new double[32];
+    assertTrue(ring.copyLatest(window, 32));
+    assertEquals(127 / 32768.0, window[31], 1e-12);
+    assertEquals(0L, ring.underruns());
+  }
+
+  @Test
+  void awaitWrittenNeverMissesAWakeupInLockstep() throws Exception {
+    AudioSampleRing ring = new AudioSampleRing(64, 1);
+    int rounds = 20_000;
+    AtomicLong consumed = new AtomicLong();
+    byte[] pcm = monoPcm(1, 1);
+    Thread writer = new Thread(() -> {
+      for (int i = 1; i <= rounds; i++) {
+        ring.appendPcm16(pcm, 0, 1, 1);
+        while (consumed.get() < i) {
+          Thread.onSpinWait();
+        }
+      }
+    });
+    writer.start();
+
+    for (int i = 1; i <= rounds; i++) {
+      assertTrue(ring.awaitWritten(i, 1, TimeUnit.SECONDS), "round " + i);
+      consumed.set(i);
+    }
+    writer.join();
+    assertEquals(0L, ring.underruns());
+  }
+
+  @Test
+  void awaitWrittenCountsUnderrunWhenNoAudioArrives() {
+    AudioSampleRing ring = new AudioSampleRing(64, 16);
+
+    assertFalse(ring.awaitWritten(16, 5, TimeUnit.MILLISECONDS));
+    assertEquals(1L, ring.underruns());
+  }
+
+  @Test
+  void copyLatestReportsOverrunWhenWindowWasOverwritten() {
+    AudioSampleRing ring = new AudioSampleRing(16, 16);
+    for (int i = 0; i < 4; i++) {
+      ring.appendPcm16(monoPcm(i * 16, 16), 0, 16, 1);
+    }
+
+    double[] window = new double[24];
+    assertFalse(ring.copyLatest(window, 24));
+    assertEquals(1L, ring.overruns());
+  }
+
+  private static byte[] monoPcm(int firstValue, int frames) {
+    byte[] pcm = new byte[frames * 2];
+    for (int i = 0; i < frames; i++) {
+      int v = firstValue + i;
+      pcm[i * 2] = (byte) (v & 0xFF);
+      pcm[i * 2 + 1] = (byte) ((v >> 8) & 0xFF);
+    }
+    return pcm;
+  }
+}
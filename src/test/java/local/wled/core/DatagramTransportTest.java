@@ -0,0 +1,68 @@
+package local.wled.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DatagramTransportTest {
+
+  @Test
+  void bothTransportsDeliverDdpFragmentsOverLoopback() throws Exception {
+    byte[] rgb = new byte[700 * 3];
+    for (int i = 0; i < rgb.length; i++) {
+      rgb[i] = (byte) (i * 31);
+    }
+    byte[][] packets = SignalProcessing.buildDdpPackets(rgb, 5, 1);
+
+    InetAddress loopback = InetAddress.getLoopbackAddress();
+    try (DatagramSocket receiver = new DatagramSocket(0, loopback)) {
+      receiver.setSoTimeout(2_000);
+      for (PushTransport kind : PushTransport.values()) {
+        DatagramTransport transport = DatagramTransport.open(kind, loopback, receiver.getLocalPort());
+        try {
+          assertEquals(kind == PushTransport.CHANNEL, transport.isConnected());
+          for (byte[] packet : packets) {
+            transport.send(packet, packet.length);
+          }
+          byte[] buf = new byte[DatagramTransport.MAX_PACKET_BYTES];
+          for (byte[] packet : packets) {
+            DatagramPacket received = new DatagramPacket(buf, buf.length);
+            receiver.receive(received);
+            assertArrayEquals(packet, Arrays.copyOf(buf, received.getLength()), kind.cliValue());
+          }
+        } finally {
+          transport.close();
+        }
+        assertFalse(transport.isOpen());
+      }
+    }
+  }
+
+  @Test
+  void portUnreachableIsTreatedAsALostDatagram() throws Exception {
+    InetAddress loopback = InetAddress.getLoopbackAddress();
+    int closedPort;
+    try (DatagramSocket probe = new DatagramSocket(0, loopback)) {
+      closedPort = probe.getLocalPort();
+    }
+    byte[] packet = new byte[64];
+    DatagramTransport transport = DatagramTransport.open(PushTransport.CHANNEL, loopback, closedPort);
+    try {
+      for (int i = 0; i < 20; i++) {
+        transport.send(packet, packet.length);
+        Thread.sleep(5L);
+      }
+      assertTrue(transport.isOpen());
+    } finally {
+      transport.close();
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package local.wled.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DdpCanvasTest {
+  private static final int CANVAS_PIXELS = 5_000;
+
+  @Test
+  void oneCanvasRenderFillsEverySegmentWithItsOwnOffsetAndDestination() {
+    OutputTarget[] targets = {
+        segment("left", 0, 1_300, 1, 0),
+        new OutputTarget("strip", false, OutputMode.DDP, 200, endpoint(), layout(), palette()),
+        segment("middle", 1_300, 2_000, 2, 150),
+        segment("right", 3_300, 1_700, 1, 0)
+    };
+    DdpCanvas canvas = DdpCanvas.forTargets(CANVAS_PIXELS, targets);
+    assertEquals(3, canvas.segments.length);
+
+    byte[] spectrum = new byte[SenderMetrics.SPECTRUM_BANDS];
+    for (int i = 0; i < spectrum.length; i++) {
+      spectrum[i] = (byte) (30 + i * 14);
+    }
+    for (int i = 0; i < canvas.segments.length; i++) {
+      canvas.frames[i] = canvas.segments[i].freeFrames.poll();
+    }
+    DdpFrameRenderer renderer = new DdpFrameRenderer(CANVAS_PIXELS, 3, 0);
+    try {
+      renderer.render(spectrum, 140f, 7, DdpLayoutMode.MIRROR, DdpColorPalette.CANDY, canvas);
+    } finally {
+      renderer.close();
+    }
+
+    byte[] rgb = new byte[CANVAS_PIXELS * 3];
+    SignalProcessing.renderSpectrumToDdpRgb(spectrum, 140f, 7, rgb, DdpLayoutMode.MIRROR, DdpColorPalette.CANDY);
+    assertSegment(canvas.frames[0], rgb, 7, 0, 1_300, 1, 0);
+    assertSegment(canvas.frames[1], rgb, 7, 1_300, 2_000, 2, 150);
+    assertSegment(canvas.frames[2], rgb, 7, 3_300, 1_700, 1, 0);
+  }
+
+  @Test
+  void missingSegmentFramesAreSkipped() {
+    OutputTarget[] targets = {segment("a", 0, 500, 1, 0), segment("b", 500, 500, 1, 0)};
+    DdpCanvas canvas = DdpCanvas.forTargets(1_000, targets);
+    canvas.frames[1] = canvas.segments[1].freeFrames.poll();
+
+    byte[] spectrum = new byte[SenderMetrics.SPECTRUM_BANDS];
+    Arrays.fill(spectrum, (byte) 120);
+    new DdpFrameRenderer(1_000, 1, 0).render(spectrum, 90f, 3, DdpLayoutMode.STRETCH, DdpColorPalette.OCEAN, canvas);
+
+    byte[] rgb = new byte[1_000 * 3];
+    SignalProcessing.renderSpectrumToDdpRgb(spectrum, 90f, 3, rgb, DdpLayoutMode.STRETCH, DdpColorPalette.OCEAN);
+    assertSegment(canvas.frames[1], rgb, 3, 500, 500, 1, 0);
+  }
+
+  private static void assertSegment(OutboundFrame frame, byte[] canvasRgb, int frameCounter, int start, int pixels,
+                                    int destinationId, int deviceOffset) {
+    byte[] slice = Arrays.copyOfRange(canvasRgb, start * 3, (start + pixels) * 3);
+    DdpPacketizer expected = new DdpPacketizer(pixels * 3, destinationId, deviceOffset * 3, 0);
+    expected.fill(slice, frameCounter);
+    assertEquals(expected.packets().length, frame.packets.length);
+    for (int i = 0; i < frame.packets.length; i++) {
+      assertArrayEquals(expected.packets()[i], frame.packets[i], "segment at " + start + ", packet " + i);
+    }
+  }
+
+  private static OutputTarget segment(String id, int start, int pixels, int destinationId, int deviceOffset) {
+    return new OutputTarget(id, false, OutputMode.DDP, pixels, start, destinationId, deviceOffset, endpoint(), layout(),
+        palette());
+  }
+
+  private static AtomicReference<PushTarget> endpoint() {
+    return new AtomicReference<>(new PushTarget("127.0.0.1", 4048));
+  }
+
+  private static AtomicReference<DdpLayoutMode> layout() {
+    return new AtomicReference<>(DdpLayoutMode.STRETCH);
+  }
+
+  private static AtomicReference<DdpColorPalette> palette() {
+    return new AtomicReference<>(DdpColorPalette.NIGHTCLUB);
+  }
+}
@@ -0,0 +1,54 @@
+package local.wled.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DdpPayloadProbeTest {
+
+  @Test
+  void findsTheLargestPayloadTheEchoReceiverReturns() throws Exception {
+    int limitBytes = 4_000;
+    DatagramSocket echo = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+    Thread thread = startEcho(echo, limitBytes);
+    try {
+      int pixels = new DdpPayloadProbe("127.0.0.1", echo.getLocalPort(), 30, null).largestPacketPixels();
+      assertEquals((limitBytes - DdpPacketizer.HEADER_LEN) / 3, pixels);
+    } finally {
+      echo.close();
+      thread.join(1_000L);
+    }
+  }
+
+  @Test
+  void reportsZeroWhenNothingEchoes() throws Exception {
+    try (DatagramSocket silent = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+      assertEquals(0, new DdpPayloadProbe("127.0.0.1", silent.getLocalPort(), 50, null).largestPacketPixels());
+    }
+  }
+
+  private static Thread startEcho(DatagramSocket echo, int limitBytes) throws SocketException {
+    echo.setReceiveBufferSize(1 << 20);
+    Thread thread = new Thread(() -> {
+      byte[] buf = new byte[DatagramTransport.MAX_PACKET_BYTES];
+      try {
+        while (true) {
+          DatagramPacket packet = new DatagramPacket(buf, buf.length);
+          echo.receive(packet);
+          if (packet.getLength() <= limitBytes) {
+            echo.send(packet);
+          }
+        }
+      } catch (Exception ignored) {
+      }
+    }, "ddp-echo");
+    thread.setDaemon(true);
+    thread.start();
+    return thread;
+  }
+}
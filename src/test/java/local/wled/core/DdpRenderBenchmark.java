@@ -0,0 +1,82 @@
+package local.wled.core;
+
+import java.util.Locale;
+
+final class DdpRenderBenchmark {
+  private static final int[] PIXELS = {1024, 4096};
+  private static final int WARMUP_ROUNDS = 2_000;
+  private static final int MEASURE_ROUNDS = 2_000;
+
+  private DdpRenderBenchmark() {
+  }
+
+  public static void main(String[] args) {
+    byte[] spectrum = new byte[SenderMetrics.SPECTRUM_BANDS];
+    for (int i = 0; i < spectrum.length; i++) {
+      spectrum[i] = (byte) (40 + i * 13);
+    }
+    System.out.println("pixels   layout    palette      ns/pixel");
+    for (int pixels : PIXELS) {
+      byte[] rgb = new byte[pixels * 3];
+      for (DdpLayoutMode layout : DdpLayoutMode.values()) {
+        for (DdpColorPalette palette : DdpColorPalette.values()) {
+          measure(spectrum, rgb, layout, palette, WARMUP_ROUNDS);
+          double nanos = measure(spectrum, rgb, layout, palette, MEASURE_ROUNDS);
+          System.out.println(String.format(Locale.ROOT, "%6d   %-8s  %-10s  %9.2f",
+              pixels, layout.cliValue(), palette.cliValue(), nanos / pixels));
+        }
+      }
+    }
+
+    System.out.println();
+    System.out.println("pixels   layout    upscale-from  ns/pixel");
+    for (int pixels : PIXELS) {
+      byte[] rgb = new byte[pixels * 3];
+      for (DdpLayoutMode layout : DdpLayoutMode.values()) {
+        PixelUpscaler upscaler = new PixelUpscaler(pixels, layout, 128);
+        measureUpscaled(spectrum, rgb, upscaler, WARMUP_ROUNDS);
+        double nanos = measureUpscaled(spectrum, rgb, upscaler, MEASURE_ROUNDS);
+        System.out.println(String.format(Locale.ROOT, "%6d   %-8s  %12d  %9.2f",
+            pixels, layout.cliValue(), upscaler.resolution, nanos / pixels));
+      }
+    }
+
+    measureSin(false, 5_000_000);
+    measureSin(true, 5_000_000);
+    System.out.println(String.format(Locale.ROOT, "Math.sin %.2f ns/call, SineTable.sin %.2f ns/call",
+        measureSin(false, 20_000_000), measureSin(true, 20_000_000)));
+  }
+
+  private static double measureSin(boolean table, int rounds) {
+    double acc = 0.0;
+    long start = System.nanoTime();
+    for (int i = 0; i < rounds; i++) {
+      double x = i * 0.0137;
+      acc += table ? SineTable.sin(x) : Math.sin(x);
+    }
+    long elapsed = System.nanoTime() - start;
+    if (acc == 42.0) {
+      System.out.println(acc);
+    }
+    return elapsed / (double) rounds;
+  }
+
+  private static double measure(byte[] spectrum, byte[] rgb, DdpLayoutMode layout, DdpColorPalette palette, int rounds) {
+    long start = System.nanoTime();
+    for (int i = 0; i < rounds; i++) {
+      SignalProcessing.renderSpectrumToDdpRgb(spectrum, 150f, i, rgb, layout, palette);
+    }
+    return (System.nanoTime() - start) / (double) rounds;
+  }
+
+  private static double measureUpscaled(byte[] spectrum, byte[] rgb, PixelUpscaler upscaler, int rounds) {
+    byte[] samples = new byte[upscaler.resolution * 3];
+    PaletteRenderer renderer = DdpColorPalette.NIGHTCLUB.renderer();
+    long start = System.nanoTime();
+    for (int i = 0; i < rounds; i++) {
+      renderer.render(spectrum, 150f, i, upscaler.sampleLayout, samples, 0, 0, upscaler.resolution);
+      upscaler.upscale(samples, rgb, 0, 0, upscaler.pixelCount);
+    }
+    return (System.nanoTime() - start) / (double) rounds;
+  }
+}
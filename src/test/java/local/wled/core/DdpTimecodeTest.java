@@ -0,0 +1,141 @@
+package local.wled.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DdpTimecodeTest {
+  private static final int SAMPLE_RATE = 44_100;
+  private static final int FFT_SIZE = 512;
+  private static final int DELAY_MS = 120;
+
+  @Test
+  void timecodeIsTheMiddleOfAnNtpTimestamp() {
+    assertEquals(0x7E80_0000, DdpPacketizer.timecode(0L));
+    assertEquals(0x7E80_8000, DdpPacketizer.timecode(500L));
+    assertEquals(0x7E81_4000, DdpPacketizer.timecode(1_250L));
+  }
+
+  @Test
+  void everyFragmentOfAFrameCarriesTheSameTimecode() throws Exception {
+    SenderConfig config = new SenderConfig("127.0.0.1", 4048, null, SAMPLE_RATE, 1, FFT_SIZE, FFT_SIZE, 60,
+        FramePacing.PARK, false, OutputMode.DDP, 1_000, DdpLayoutMode.MIRROR, DdpColorPalette.FIRE,
+        DdpPacketizer.PIXELS_PER_PACKET, 1, 0, PushTransport.CHANNEL, null, 0, DELAY_MS, 0, null, 0, true, true);
+    FramePipeline pipeline = new FramePipeline(config);
+    OutboundFrame frame = OutboundFrame.forConfig(config);
+    OutboundFrame segment = OutboundFrame.forOutput(OutputMode.DDP, 600, 2, 0, 0, true, DdpPacketizer.PIXELS_PER_PACKET);
+    DdpFrameRenderer segmentRenderer = pipeline.newDdpRenderer(600);
+    AudioSampleRing ring = new AudioSampleRing(4 * FFT_SIZE, FFT_SIZE);
+
+    InetAddress loopback = InetAddress.getLoopbackAddress();
+    try (DatagramSocket receiver = new DatagramSocket(0, loopback)) {
+      receiver.setSoTimeout(2_000);
+      DatagramTransport transport = DatagramTransport.open(PushTransport.CHANNEL, loopback, receiver.getLocalPort());
+      try {
+        for (int f = 0; f < 3; f++) {
+          feed(ring, f);
+          long before = System.currentTimeMillis();
+          assertTrue(pipeline.analyze(ring));
+          pipeline.emit(frame, pipeline.ddpRenderer(), DdpLayoutMode.MIRROR, DdpColorPalette.FIRE);
+          pipeline.emit(segment, segmentRenderer, DdpLayoutMode.MIRROR, DdpColorPalette.FIRE);
+          long after = System.currentTimeMillis();
+          for (OutboundFrame out : new OutboundFrame[]{frame, segment}) {
+            for (int i = 0; i < out.packetCount; i++) {
+              transport.send(out.packets[i], out.packets[i].length);
+            }
+          }
+
+          List<byte[]> received = receive(receiver, frame.packetCount + segment.packetCount);
+          int timecode = timecode(received.get(0));
+          for (byte[] packet : received) {
+            assertEquals(0x10, packet[0] & 0x10, "timecode flag");
+            assertEquals(timecode, timecode(packet), "frame " + f);
+          }
+          assertEquals(0x01, received.get(frame.packetCount - 1)[0] & 0x01);
+          assertEquals(0x01, received.get(received.size() - 1)[0] & 0x01);
+          assertTrue(within(timecode, DdpPacketizer.timecode(before + DELAY_MS), DdpPacketizer.timecode(after + DELAY_MS)),
+              "timecode " + Integer.toHexString(timecode));
+
+          byte[] rgb = new byte[1_000 * 3];
+          SignalProcessing.renderSpectrumToDdpRgb(frame.metrics.spectrum16, frame.metrics.smoothedAmp, f, rgb,
+              DdpLayoutMode.MIRROR, DdpColorPalette.FIRE);
+          for (int i = 0; i < frame.packetCount; i++) {
+            byte[] packet = received.get(i);
+            assertEquals(DdpPacketizer.HEADER_LEN + DdpPacketizer.TIMECODE_LEN + (packet[8] & 0xFF) * 256 + (packet[9] & 0xFF),
+                packet.length);
+            byte[] expected = Arrays.copyOfRange(rgb, i * DdpPacketizer.MAX_DATALEN,
+                i * DdpPacketizer.MAX_DATALEN + packet.length - 14);
+            assertArrayEquals(expected, Arrays.copyOfRange(packet, 14, packet.length));
+          }
+        }
+      } finally {
+        transport.close();
+        segmentRenderer.close();
+        pipeline.close();
+      }
+    }
+  }
+
+  @Test
+  void canvasSegmentsShareTheFrameTimecode() {
+    OutputTarget[] targets = {segment("a", 0, 700), segment("b", 700, 900)};
+    DdpCanvas canvas = DdpCanvas.forTargets(1_600, targets);
+    for (int i = 0; i < canvas.segments.length; i++) {
+      canvas.frames[i] = canvas.segments[i].freeFrames.poll();
+    }
+    byte[] spectrum = new byte[SenderMetrics.SPECTRUM_BANDS];
+    Arrays.fill(spectrum, (byte) 90);
+    int timecode = DdpPacketizer.timecode(1_700_000_000_123L);
+    new DdpFrameRenderer(1_600, 1, 0).render(spectrum, 80f, 4, DdpLayoutMode.STRETCH, DdpColorPalette.OCEAN, timecode, canvas);
+    for (OutboundFrame frame : canvas.frames) {
+      for (byte[] packet : frame.packets) {
+        assertEquals(timecode, timecode(packet));
+      }
+    }
+  }
+
+  private static OutputTarget segment(String id, int start, int pixels) {
+    return new OutputTarget(id, false, OutputMode.DDP, pixels, start, 1, 0, true, DdpPacketizer.PIXELS_PER_PACKET,
+        new AtomicReference<>(new PushTarget("127.0.0.1", 4048)), new AtomicReference<>(DdpLayoutMode.STRETCH),
+        new AtomicReference<>(DdpColorPalette.OCEAN));
+  }
+
+  private static List<byte[]> receive(DatagramSocket receiver, int count) throws Exception {
+    List<byte[]> packets = new ArrayList<>();
+    byte[] buf = new byte[DatagramTransport.MAX_PACKET_BYTES];
+    for (int i = 0; i < count; i++) {
+      DatagramPacket packet = new DatagramPacket(buf, buf.length);
+      receiver.receive(packet);
+      packets.add(Arrays.copyOf(buf, packet.getLength()));
+    }
+    return packets;
+  }
+
+  private static int timecode(byte[] packet) {
+    return (packet[10] & 0xFF) << 24 | (packet[11] & 0xFF) << 16 | (packet[12] & 0xFF) << 8 | (packet[13] & 0xFF);
+  }
+
+  private static boolean within(int value, int from, int to) {
+    return value - from >= 0 && to - value >= 0;
+  }
+
+  private static void feed(AudioSampleRing ring, int frame) {
+    byte[] pcm = new byte[FFT_SIZE * 2];
+    for (int i = 0; i < FFT_SIZE; i++) {
+      short s = (short) (9_000 * Math.sin(2 * Math.PI * (220 + frame * 110) * (frame * FFT_SIZE + i) / SAMPLE_RATE));
+      pcm[i * 2] = (byte) s;
+      pcm[i * 2 + 1] = (byte) (s >>> 8);
+    }
+    ring.appendPcm16(pcm, 0, FFT_SIZE, 1);
+  }
+}
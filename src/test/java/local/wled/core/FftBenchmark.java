@@ -0,0 +1,95 @@
+package local.wled.core;
+
+import java.util.Locale;
+
+final class FftBenchmark {
+  private static final int[] SIZES = {512, 1024, 2048, 4096};
+  private static final int WARMUP_ROUNDS = 3_000;
+  private static final int MEASURE_ROUNDS = 5_000;
+
+  private FftBenchmark() {
+  }
+
+  public static void main(String[] args) {
+    System.out.println("fftSize   trig-in-loop(us/frame)   FftPlan(us/frame)   FftPlan real(us/frame)");
+    for (int size : SIZES) {
+      double[] input = new double[size];
+      double[] window = SignalProcessing.hannWindow(size);
+      for (int i = 0; i < size; i++) {
+        input[i] = (Math.sin(i * 0.113) + 0.4 * Math.sin(i * 0.71)) * window[i];
+      }
+      double[] re = new double[size];
+      double[] im = new double[size];
+      double[] packedRe = new double[size / 2 + 1];
+      double[] packedIm = new double[size / 2 + 1];
+      FftPlan plan = FftPlan.forSize(size);
+
+      measure(() -> legacyFftRadix2(reset(input, re, im), im), WARMUP_ROUNDS);
+      measure(() -> plan.transform(reset(input, re, im), im), WARMUP_ROUNDS);
+      measure(() -> plan.transformReal(pack(input, packedRe, packedIm), packedIm), WARMUP_ROUNDS);
+      double legacyMicros = measure(() -> legacyFftRadix2(reset(input, re, im), im), MEASURE_ROUNDS);
+      double planMicros = measure(() -> plan.transform(reset(input, re, im), im), MEASURE_ROUNDS);
+      double realMicros = measure(() -> plan.transformReal(pack(input, packedRe, packedIm), packedIm), MEASURE_ROUNDS);
+      System.out.println(String.format(Locale.ROOT, "%7d   %22.2f   %17.2f   %22.2f",
+          size, legacyMicros, planMicros, realMicros));
+    }
+  }
+
+  private static double[] reset(double[] input, double[] re, double[] im) {
+    System.arraycopy(input, 0, re, 0, input.length);
+    java.util.Arrays.fill(im, 0.0);
+    return re;
+  }
+
+  private static double[] pack(double[] input, double[] re, double[] im) {
+    for (int i = 0; i < input.length; i += 2) {
+      re[i >>> 1] = input[i];
+      im[i >>> 1] = input[i + 1];
+    }
+    return re;
+  }
+
+  private static double measure(Runnable frame, int rounds) {
+    long start = System.nanoTime();
+    for (int i = 0; i < rounds; i++) {
+      frame.run();
+    }
+    return (System.nanoTime() - start) / 1_000.0 / rounds;
+  }
+
+  private static void legacyFftRadix2(double[] re, double[] im) {
+    int n = re.length;
+    int bits = 31 - Integer.numberOfLeadingZeros(n);
+    for (int i = 0; i < n; i++) {
+      int j = Integer.reverse(i) >>> (32 - bits);
+      if (j > i) {
+        double tr = re[i];
+        re[i] = re[j];
+        re[j] = tr;
+        double ti = im[i];
+        im[i] = im[j];
+        im[j] = ti;
+      }
+    }
+
+    for (int size = 2; size <= n; size <<= 1) {
+      int halfsize = size >>> 1;
+      double tablestep = -2.0 * Math.PI / size;
+      for (int i = 0; i < n; i += size) {
+        for (int j = 0; j < halfsize; j++) {
+          double angle = j * tablestep;
+          double wr = Math.cos(angle);
+          double wi = Math.sin(angle);
+          int k = i + j;
+          int l = k + halfsize;
+          double tr = wr * re[l] - wi * im[l];
+          double ti = wr * im[l] + wi * re[l];
+          re[l] = re[k] - tr;
+          im[l] = im[k] - ti;
+          re[k] = re[k] + tr;
+          im[k] = im[k] + ti;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package local.wled.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class FftPlanTest {
+
+  @Test
+  void forSizeReturnsCachedPlanPerSize() {
+    assertSame(FftPlan.forSize(1024), FftPlan.forSize(1024));
+    assertEquals(2048, FftPlan.forSize(2048).size);
+  }
+
+  @Test
+  void transformMatchesDirectDft() {
+    int n = 256;
+    double[] re = new double[n];
+    double[] im = new double[n];
+    for (int i = 0; i < n; i++) {
+      re[i] = Math.sin(i * 0.37) + 0.25 * Math.cos(i * 1.91);
+      im[i] = 0.1 * Math.sin(i * 0.05);
+    }
+    double[] expectRe = new double[n];
+    double[] expectIm = new double[n];
+    for (int k = 0; k < n; k++) {
+      for (int t = 0; t < n; t++) {
+        double angle = -2.0 * Math.PI * k * t / n;
+        expectRe[k] += re[t] * Math.cos(angle) - im[t] * Math.sin(angle);
+        expectIm[k] += re[t] * Math.sin(angle) + im[t] * Math.cos(angle);
+      }
+    }
+
+    FftPlan.forSize(n).transform(re, im);
+
+    for (int k = 0; k < n; k++) {
+      assertEquals(expectRe[k], re[k], 1e-9);
+      assertEquals(expectIm[k], im[k], 1e-9);
+    }
+  }
+
+  @Test
+  void transformRealMatchesComplexTransformForNonNegativeBins() {
+    int n = 512;
+    double[] samples = new double[n];
+    for (int i = 0; i < n; i++) {
+      samples[i] = Math.sin(i * 0.21) + 0.5 * Math.sin(i * 2.3) - 0.2 * Math.cos(i * 0.013);
+    }
+    double[] fullRe = samples.clone();
+    double[] fullIm = new double[n];
+    FftPlan.forSize(n).transform(fullRe, fullIm);
+
+    double[] re = new double[n / 2 + 1];
+    double[] im = new double[n / 2 + 1];
+    for (int i = 0; i < n; i++) {
+      if ((i & 1) == 0) {
+        re[i >>> 1] = samples[i];
+      } else {
+        im[i >>> 1] = samples[i];
+      }
+    }
+    FftPlan.forSize(n).transformReal(re, im);
+
+    for (int k = 0; k <= n / 2; k++) {
+      assertEquals(fullRe[k], re[k], 1e-9);
+      assertEquals(fullIm[k], im[k], 1e-9);
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package local.wled.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrameMailboxTest {
+
+  @Test
+  void latestFrameWinsAndOverwritesAreCounted() throws Exception {
+    FrameMailbox mailbox = new FrameMailbox();
+    OutboundFrame a = frame();
+    OutboundFrame b = frame();
+    OutboundFrame c = frame();
+    assertNull(mailbox.post(a));
+    assertSame(a, mailbox.post(b));
+    assertSame(b, mailbox.post(c));
+    assertEquals(2L, mailbox.overwritten());
+    assertSame(c, mailbox.take());
+    assertNull(mailbox.poll());
+  }
+
+  @Test
+  void takeParksUntilAFrameIsPosted() throws Exception {
+    FrameMailbox mailbox = new FrameMailbox();
+    AtomicReference<OutboundFrame> taken = new AtomicReference<>();
+    CountDownLatch done = new CountDownLatch(1);
+    Thread consumer = new Thread(() -> {
+      try {
+        taken.set(mailbox.take());
+      } catch (InterruptedException ignored) {
+      }
+      done.countDown();
+    });
+    consumer.start();
+    Thread.sleep(20L);
+    assertEquals(1L, done.getCount());
+    OutboundFrame frame = frame();
+    mailbox.post(frame);
+    assertTrue(done.await(2, TimeUnit.SECONDS));
+    assertSame(frame, taken.get());
+  }
+
+  @Test
+  void closeWakesAParkedConsumerImmediately() throws Exception {
+    FrameMailbox mailbox = new FrameMailbox();
+    AtomicLong wokeAt = new AtomicLong();
+    CountDownLatch parked = new CountDownLatch(1);
+    Thread consumer = new Thread(() -> {
+      parked.countDown();
+      try {
+        assertNull(mailbox.take());
+      } catch (InterruptedException ignored) {
+      }
+      wokeAt.set(System.nanoTime());
+    });
+    consumer.start();
+    parked.await();
+    Thread.sleep(20L);
+    long closedAt = System.nanoTime();
+    mailbox.close();
+    consumer.join(2_000L);
+    assertTrue(wokeAt.get() - closedAt < 100_000_000L, "woke after " + (wokeAt.get() - closedAt) + "ns");
+    assertTrue(mailbox.isClosed());
+  }
+
+  @Test
+  void everyPostedFrameIsEitherTakenOrCountedAsOverwritten() throws Exception {
+    FrameMailbox mailbox = new FrameMailbox();
+    int posts = 200_000;
+    AtomicLong taken = new AtomicLong();
+    Thread consumer = new Thread(() -> {
+      try {
+        while (mailbox.take() != null) {
+          taken.incrementAndGet();
+        }
+      } catch (InterruptedException ignored) {
+      }
+    });
+    consumer.start();
+    OutboundFrame[] frames = {frame(), frame(), frame()};
+    for (int i = 0; i < posts; i++) {
+      mailbox.post(frames[i % frames.length]);
+    }
+    long deadline = System.nanoTime() + 2_000_000_000L;
+    while (mailbox.overwritten() + taken.get() < posts && System.nanoTime() < deadline) {
+      Thread.sleep(1L);
+    }
+    mailbox.close();
+    consumer.join(2_000L);
+    assertEquals(posts, mailbox.overwritten() + taken.get());
+    assertTrue(taken.get() > 0L);
+  }
+
+  private static OutboundFrame frame() {
+    return OutboundFrame.forOutput(OutputMode.AUDIO_SYNC_V2, 0);
+  }
+}
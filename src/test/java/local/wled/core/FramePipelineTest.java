@@ -0,0 +1,270 @@
+package local.wled.core;
+
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FramePipelineTest {
+  private static final int SAMPLE_RATE = 44_100;
+  private static final int FFT_SIZE = 512;
+  private static final int HOP = 256;
+
+  @Test
+  void ddpSteadyStateDoesNotAllocate() {
+    SenderConfig config = config(OutputMode.DDP, 300);
+    assertSteadyStateAllocatesNothing(config);
+  }
+
+  @Test
+  void upscaledDdpSteadyStateDoesNotAllocate() {
+    SenderConfig config = config(OutputMode.DDP, 1_000, 64);
+    assertSteadyStateAllocatesNothing(config);
+  }
+
+  @Test
+  void audioSyncSteadyStateDoesNotAllocate() {
+    SenderConfig config = config(OutputMode.AUDIO_SYNC_V2, 0);
+    assertSteadyStateAllocatesNothing(config);
+  }
+
+  @Test
+  void pooledDdpPacketsMatchFreshlyBuiltPackets() {
+    SenderConfig config = config(OutputMode.DDP, 700);
+    FramePipeline pipeline = new FramePipeline(config);
+    OutboundFrame frame = OutboundFrame.forConfig(config);
+    AudioSampleRing ring = new AudioSampleRing(4 * FFT_SIZE, HOP);
+    feed(ring, 0, FFT_SIZE);
+
+    assertTrue(pipeline.analyze(ring));
+    pipeline.emit(frame, pipeline.ddpRenderer(), DdpLayoutMode.MIRROR, DdpColorPalette.AURORA);
+
+    byte[] rgb = new byte[700 * 3];
+    SignalProcessing.renderSpectrumToDdpRgb(frame.metrics.spectrum16, frame.metrics.smoothedAmp, 0, rgb,
+        DdpLayoutMode.MIRROR, DdpColorPalette.AURORA);
+    byte[][] expected = SignalProcessing.buildDdpPackets(rgb, 0, 1);
+    assertEquals(expected.length, frame.packetCount);
+    for (int i = 0; i < expected.length; i++) {
+      assertArrayEquals(expected[i], frame.packets[i]);
+    }
+  }
+
+  @Test
+  void upscaledDdpPacketsCarryInterpolatedPixels() {
+    SenderConfig config = config(OutputMode.DDP, 1_000, 64);
+    FramePipeline pipeline = new FramePipeline(config);
+    OutboundFrame frame = OutboundFrame.forConfig(config);
+    AudioSampleRing ring = new AudioSampleRing(4 * FFT_SIZE, HOP);
+    feed(ring, 0, FFT_SIZE);
+
+    assertTrue(pipeline.analyze(ring));
+    pipeline.emit(frame, pipeline.ddpRenderer(), DdpLayoutMode.REPEAT, DdpColorPalette.OCEAN);
+
+    PixelUpscaler upscaler = new PixelUpscaler(1_000, DdpLayoutMode.REPEAT, 64);
+    byte[] samples = new byte[64 * 3];
+    DdpColorPalette.OCEAN.renderer().render(frame.metrics.spectrum16, frame.metrics.smoothedAmp, 0, upscaler.sampleLayout,
+        samples, 0, 0, 64);
+    byte[] rgb = new byte[1_000 * 3];
+    upscaler.upscale(samples, rgb, 0, 0, 1_000);
+    byte[][] expected = SignalProcessing.buildDdpPackets(rgb, 0, 1);
+    assertEquals(expected.length, frame.packetCount);
+    for (int i = 0; i < expected.length; i++) {
+      assertArrayEquals(expected[i], frame.packets[i]);
+    }
+  }
+
+  @Test
+  void oneAnalysisFansOutToTargetsWithTheirOwnModeAndPixels() {
+    SenderConfig config = config(OutputMode.DDP, 700);
+    FramePipeline pipeline = new FramePipeline(config);
+    AudioSampleRing ring = new AudioSampleRing(4 * FFT_SIZE, HOP);
+    feed(ring, 0, FFT_SIZE);
+    assertTrue(pipeline.analyze(ring));
+
+    OutboundFrame strip = OutboundFrame.forOutput(OutputMode.DDP, 300);
+    DdpFrameRenderer stripRenderer = pipeline.newDdpRenderer(300);
+    pipeline.emit(strip, stripRenderer, DdpLayoutMode.STRETCH, DdpColorPalette.SUNSET);
+    byte[] rgb = new byte[300 * 3];
+    SignalProcessing.renderSpectrumToDdpRgb(strip.metrics.spectrum16, strip.metrics.smoothedAmp, 0, rgb,
+        DdpLayoutMode.STRETCH, DdpColorPalette.SUNSET);
+    byte[][] expected = SignalProcessing.buildDdpPackets(rgb, 0, 1);
+    assertEquals(expected.length, strip.packetCount);
+    for (int i = 0; i < expected.length; i++) {
+      assertArrayEquals(expected[i], strip.packets[i]);
+    }
+
+    OutboundFrame sync = OutboundFrame.forOutput(OutputMode.AUDIO_SYNC_V2, 0);
+    pipeline.emit(sync, null, null, null);
+    SenderConfig syncConfig = config(OutputMode.AUDIO_SYNC_V2, 0);
+    OutboundFrame syncOnly = OutboundFrame.forConfig(syncConfig);
+    AudioSampleRing syncRing = new AudioSampleRing(4 * FFT_SIZE, HOP);
+    feed(syncRing, 0, FFT_SIZE);
+    FramePipeline syncPipeline = new FramePipeline(syncConfig);
+    assertTrue(syncPipeline.analyze(syncRing));
+    syncPipeline.emit(syncOnly, syncPipeline.ddpRenderer(), null, null);
+    assertArrayEquals(syncOnly.packets[0], sync.packets[0]);
+    assertEquals(1, sync.metrics.frameCounter);
+    assertEquals(1, strip.metrics.frameCounter);
+  }
+
+  @Test
+  void processedFramesCarryOrderedStageTimestamps() {
+    SenderConfig config = config(OutputMode.DDP, 300);
+    PipelineTimings timings = new PipelineTimings();
+    FramePipeline pipeline = new FramePipeline(config, timings);
+    OutboundFrame frame = OutboundFrame.forConfig(config);
+    AudioSampleRing ring = new AudioSampleRing(4 * FFT_SIZE, HOP);
+    feed(ring, 0, FFT_SIZE);
+
+    assertTrue(pipeline.analyze(ring));
+    pipeline.emit(frame, pipeline.ddpRenderer(), DdpLayoutMode.MIRROR, DdpColorPalette.AURORA);
+
+    assertTrue(frame.audioNanos != 0L);
+    assertTrue(frame.audioNanos <= frame.analyzeStartNanos);
+    assertTrue(frame.analyzeStartNanos <= frame.fftStartNanos);
+    assertTrue(frame.fftStartNanos <= frame.summarizeStartNanos);
+    assertTrue(frame.summarizeStartNanos <= frame.renderStartNanos);
+    assertTrue(frame.renderStartNanos <= frame.packetizeStartNanos);
+    assertTrue(frame.packetizeStartNanos <= frame.packetizeEndNanos);
+    for (PipelineStage stage : new PipelineStage[]{PipelineStage.AUDIO, PipelineStage.FFT, PipelineStage.RENDER,
+        PipelineStage.PACKETIZE}) {
+      assertEquals(1L, timings.snapshot(stage).count, stage.cliValue());
+    }
+
+    pipeline.analyzeIdle();
+    pipeline.emit(frame, pipeline.ddpRenderer(), DdpLayoutMode.MIRROR, DdpColorPalette.AURORA);
+    assertEquals(1L, timings.snapshot(PipelineStage.RENDER).count);
+    assertEquals(0L, frame.audioNanos);
+  }
+
+  @Test
+  void fanOutTargetsOfDifferentLengthsOnOneLayoutDoNotAllocate() {
+    SenderConfig config = config(OutputMode.DDP, 300);
+    FramePipeline pipeline = new FramePipeline(config);
+    DdpFrameRenderer extraRenderer = pipeline.newDdpRenderer(600);
+    OutboundFrame primary = OutboundFrame.forConfig(config);
+    OutboundFrame extra = OutboundFrame.forOutput(OutputMode.DDP, 600);
+    AudioSampleRing ring = new AudioSampleRing(4 * (FFT_SIZE + HOP), HOP);
+    DdpColorPalette[] palettes = DdpColorPalette.values();
+
+    assertFramesAllocateNothing(ring, pipeline, i -> {
+      DdpColorPalette palette = palettes[i % palettes.length];
+      pipeline.emit(primary, pipeline.ddpRenderer(), DdpLayoutMode.MIRROR, palette);
+      pipeline.emit(extra, extraRenderer, DdpLayoutMode.MIRROR, palette);
+    });
+    assertEquals(600 * 3 + extra.packets.length * DdpPacketizer.HEADER_LEN, frameBytes(extra));
+  }
+
+  @Test
+  void primaryAndCanvasOnOneLayoutDoNotAllocate() {
+    SenderConfig config = config(OutputMode.DDP, 300);
+    FramePipeline pipeline = new FramePipeline(config);
+    OutboundFrame primary = OutboundFrame.forConfig(config);
+    OutputTarget[] targets = {segment("left", 0, 600), segment("right", 600, 400)};
+    DdpCanvas canvas = DdpCanvas.forTargets(1_000, targets);
+    for (int i = 0; i < canvas.segments.length; i++) {
+      canvas.frames[i] = canvas.segments[i].freeFrames.poll();
+    }
+    DdpFrameRenderer canvasRenderer = pipeline.newDdpRenderer(canvas.pixelCount);
+    AudioSampleRing ring = new AudioSampleRing(4 * (FFT_SIZE + HOP), HOP);
+    DdpColorPalette[] palettes = DdpColorPalette.values();
+    assertFramesAllocateNothing(ring, pipeline, i -> {
+      DdpColorPalette palette = palettes[i % palettes.length];
+      pipeline.emit(primary, pipeline.ddpRenderer(), DdpLayoutMode.MIRROR, palette);
+      pipeline.emitCanvas(canvas, canvasRenderer, DdpLayoutMode.MIRROR, palette);
+    });
+    assertEquals(400 * 3 + canvas.frames[1].packets.length * DdpPacketizer.HEADER_LEN, frameBytes(canvas.frames[1]));
+  }
+
+  private static void assertFramesAllocateNothing(AudioSampleRing ring, FramePipeline pipeline, IntConsumer emit) {
+    ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    byte[] pcm = new byte[HOP * 2];
+    int frame = 0;
+    for (; frame < 5_000; frame++) {
+      runFrames(ring, pcm, pipeline, emit, frame);
+    }
+
+    long allocated = -1L;
+    for (int window = 0; window < 3 && allocated != 0L; window++) {
+      long before = threads.getCurrentThreadAllocatedBytes();
+      long baseline = threads.getCurrentThreadAllocatedBytes() - before;
+      before = threads.getCurrentThreadAllocatedBytes();
+      for (int end = frame + 1_000; frame < end; frame++) {
+        runFrames(ring, pcm, pipeline, emit, frame);
+      }
+      allocated = threads.getCurrentThreadAllocatedBytes() - before - baseline;
+    }
+
+    assertEquals(0L, allocated, "steady-state frames allocated " + allocated + " bytes");
+  }
+
+  private static void runFrames(AudioSampleRing ring, byte[] pcm, FramePipeline pipeline, IntConsumer emit, int i) {
+    fillHop(pcm, (long) i * HOP);
+    ring.appendPcm16(pcm, 0, HOP, 1);
+    if (i % 16 == 15) {
+      pipeline.analyzeIdle();
+    } else {
+      assertTrue(pipeline.analyze(ring));
+    }
+    emit.accept(i);
+  }
+
+  private static int frameBytes(OutboundFrame frame) {
+    int bytes = 0;
+    for (int i = 0; i < frame.packets.length; i++) {
+      bytes += frame.packets[i].length;
+    }
+    return bytes;
+  }
+
+  private static void assertSteadyStateAllocatesNothing(SenderConfig config) {
+    FramePipeline pipeline = new FramePipeline(config);
+    OutboundFrame frame = OutboundFrame.forConfig(config);
+    AudioSampleRing ring = new AudioSampleRing(4 * (FFT_SIZE + HOP), HOP);
+    DdpLayoutMode[] layouts = DdpLayoutMode.values();
+    DdpColorPalette[] palettes = DdpColorPalette.values();
+    assertFramesAllocateNothing(ring, pipeline,
+        i -> pipeline.emit(frame, pipeline.ddpRenderer(), layouts[i % layouts.length], palettes[i % palettes.length]));
+  }
+
+  private static void fillHop(byte[] pcm, long phase) {
+    for (int i = 0; i < HOP; i++) {
+      double t = (phase + i) / (double) SAMPLE_RATE;
+      short s = (short) (Math.sin(2.0 * Math.PI * 220.0 * t) * 12_000 + Math.sin(2.0 * Math.PI * 3_100.0 * t) * 4_000);
+      pcm[i * 2] = (byte) s;
+      pcm[i * 2 + 1] = (byte) (s >> 8);
+    }
+  }
+
+  private static void feed(AudioSampleRing ring, long phase, int frames) {
+    byte[] pcm = new byte[frames * 2];
+    for (int i = 0; i < frames; i++) {
+      double t = (phase + i) / (double) SAMPLE_RATE;
+      short s = (short) (Math.sin(2.0 * Math.PI * 440.0 * t) * 16_000);
+      pcm[i * 2] = (byte) s;
+      pcm[i * 2 + 1] = (byte) (s >> 8);
+    }
+    ring.appendPcm16(pcm, 0, frames, 1);
+  }
+
+  private static OutputTarget segment(String id, int start, int pixels) {
+    return new OutputTarget(id, false, OutputMode.DDP, pixels, start, 1, 0,
+        new AtomicReference<>(new PushTarget("127.0.0.1", 4048)), new AtomicReference<>(DdpLayoutMode.MIRROR),
+        new AtomicReference<>(DdpColorPalette.NIGHTCLUB));
+  }
+
+  private static SenderConfig config(OutputMode mode, int pixels) {
+    return config(mode, pixels, 0);
+  }
+
+  private static SenderConfig config(OutputMode mode, int pixels, int renderResolution) {
+    return new SenderConfig("127.0.0.1", 4048, null, SAMPLE_RATE, 1, FFT_SIZE, HOP, 60, FramePacing.PARK, false,
+        mode, pixels, DdpLayoutMode.MIRROR, DdpColorPalette.NIGHTCLUB, DdpPacketizer.PIXELS_PER_PACKET, 1, renderResolution, PushTransport.CHANNEL, null, 0, -1, 0, null, 0, true, true);
+  }
+}
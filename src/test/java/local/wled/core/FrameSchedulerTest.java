@@ -0,0 +1,55 @@
+package local.wled.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrameSchedulerTest {
+
+  @Test
+  void audioClockSchedulerReleasesFramesOnSoundCardPosition() throws Exception {
+    AtomicLong position = new AtomicLong(1_000L);
+    FrameScheduler scheduler = FrameScheduler.create(FramePacing.AUDIO_CLOCK, 50, 48_000, () -> position.addAndGet(240L));
+
+    long first = 0L;
+    for (int i = 0; i < 10; i++) {
+      scheduler.awaitNextFrame();
+      if (i == 0) {
+        first = scheduler.frameTimestampNanos();
+      }
+    }
+
+    assertEquals(9L * 20_000_000L, scheduler.frameTimestampNanos() - first);
+    assertEquals(0L, scheduler.missedDeadlines());
+  }
+
+  @Test
+  void audioClockSchedulerSkipsSlotsWhenFarBehind() throws Exception {
+    AtomicLong position = new AtomicLong(0L);
+    FrameScheduler scheduler = FrameScheduler.create(FramePacing.AUDIO_CLOCK, 50, 48_000, position::get);
+
+    scheduler.awaitNextFrame();
+    position.set(960L * 4 + 10L);
+    scheduler.awaitNextFrame();
+
+    assertEquals(3L, scheduler.missedDeadlines());
+    assertTrue(scheduler.lastLatenessNanos() >= 60_000_000L);
+  }
+
+  @Test
+  void wallClockSchedulersHoldTheTargetInterval() throws Exception {
+    for (FramePacing pacing : new FramePacing[]{FramePacing.SLEEP_SPIN, FramePacing.PARK}) {
+      FrameScheduler scheduler = FrameScheduler.create(pacing, 100, 48_000, () -> 0L);
+      long start = System.nanoTime();
+      for (int i = 0; i < 11; i++) {
+        scheduler.awaitNextFrame();
+      }
+      long elapsed = System.nanoTime() - start;
+      assertTrue(elapsed >= 100_000_000L, pacing + " elapsed=" + elapsed);
+      assertTrue(scheduler.lastIntervalNanos() > 0L, pacing.cliValue());
+    }
+  }
+}
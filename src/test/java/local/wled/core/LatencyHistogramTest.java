@@ -0,0 +1,79 @@
+package local.wled.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+  @Test
+  void bucketsCoverValuesWithinOneSixteenth() {
+    for (long value : new long[]{0L, 1L, 15L, 16L, 17L, 31L, 32L, 1_000L, 123_456L, 16_666_667L, 5_000_000_000L}) {
+      int bucket = LatencyHistogram.bucketOf(value);
+      long upper = LatencyHistogram.bucketUpperBound(bucket);
+      assertTrue(upper >= value, value + " above bucket bound " + upper);
+      assertTrue(upper - value <= Math.max(0L, value / 16), value + " bucket too wide: " + upper);
+      if (bucket > 0) {
+        assertTrue(LatencyHistogram.bucketUpperBound(bucket - 1) < value, "value " + value + " fits an earlier bucket");
+      }
+    }
+    assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+  }
+
+  @Test
+  void percentilesTrackUniformSamples() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 10_000; i++) {
+      histogram.record(i * 1_000L);
+    }
+    LatencySnapshot snapshot = histogram.snapshot();
+    assertEquals(10_000L, snapshot.count);
+    assertEquals(10_000_000L, snapshot.maxNanos);
+    assertEquals(50_005_000_000L, snapshot.sumNanos);
+    assertWithin(5_000_000L, snapshot.p50Nanos);
+    assertWithin(9_900_000L, snapshot.p99Nanos);
+    assertWithin(9_990_000L, snapshot.p999Nanos);
+  }
+
+  @Test
+  void emptyHistogramReportsZero() {
+    LatencySnapshot snapshot = new LatencyHistogram().snapshot();
+    assertEquals(0L, snapshot.count);
+    assertEquals(0L, snapshot.p99Nanos);
+    assertEquals(0L, snapshot.maxNanos);
+  }
+
+  @Test
+  void concurrentRecordersLoseNoSamples() throws Exception {
+    LatencyHistogram histogram = new LatencyHistogram();
+    int threads = 4;
+    int perThread = 50_000;
+    List<Thread> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      Thread worker = new Thread(() -> {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < perThread; i++) {
+          histogram.record(random.nextLong(1L, 20_000_000L));
+        }
+      });
+      workers.add(worker);
+      worker.start();
+    }
+    histogram.record(25_000_000L);
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    LatencySnapshot snapshot = histogram.snapshot();
+    assertEquals(threads * perThread + 1L, snapshot.count);
+    assertEquals(25_000_000L, snapshot.maxNanos);
+    assertTrue(snapshot.p50Nanos <= snapshot.p99Nanos && snapshot.p99Nanos <= snapshot.p999Nanos);
+  }
+
+  private static void assertWithin(long expected, long actual) {
+    assertTrue(Math.abs(actual - expected) <= expected / 16, "expected ~" + expected + " but was " + actual);
+  }
+}
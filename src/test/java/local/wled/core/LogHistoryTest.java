@@ -0,0 +1,76 @@
+package local.wled.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogHistoryTest {
+  @Test
+  void keepsOnlyTheNewestLines() {
+    LogHistory history = new LogHistory(3);
+    for (int i = 0; i < 3; i++) {
+      assertNull(history.append("line " + i));
+    }
+    assertEquals("line 0", history.append("line 3"));
+    assertEquals("line 1", history.append("line 4"));
+    assertEquals(3, history.size());
+    assertEquals(3, history.visibleSize());
+    assertEquals("line 2", history.visibleLine(0));
+    assertEquals("line 4", history.visibleLine(2));
+    assertThrows(IndexOutOfBoundsException.class, () -> history.visibleLine(3));
+  }
+
+  @Test
+  void filterIndexesMatchingLinesAndFollowsEviction() {
+    LogHistory history = new LogHistory(4);
+    history.append("UDP 推送失败 a");
+    history.append("推送速率=1.0KB/s");
+    history.append("udp 推送恢复");
+    assertTrue(history.setFilter(" UDP "));
+    assertFalse(history.setFilter("UDP"));
+    assertEquals(2, history.visibleSize());
+    assertEquals("udp 推送恢复", history.visibleLine(1));
+
+    assertNull(history.append("音频格式"));
+    assertEquals("UDP 推送失败 a", history.append("UDP 推送失败 b"));
+    assertNull(history.append("帧调度"));
+    assertEquals(2, history.visibleSize());
+    assertEquals("udp 推送恢复", history.visibleLine(0));
+    assertEquals("UDP 推送失败 b", history.visibleLine(1));
+
+    assertTrue(history.setFilter(""));
+    assertEquals(4, history.visibleSize());
+    assertEquals("udp 推送恢复", history.visibleLine(0));
+  }
+
+  @Test
+  void findWrapsAroundTheVisibleLines() {
+    LogHistory history = new LogHistory(8);
+    history.append("错误: a");
+    history.append("ok");
+    history.append("错误: b");
+    assertEquals(0, history.find("错误", 0));
+    assertEquals(2, history.find("错误", 1));
+    assertEquals(0, history.find("错误", 3));
+    assertEquals(1, history.find("OK", 0));
+    assertEquals(-1, history.find("missing", 0));
+    assertEquals(-1, history.find("", 0));
+  }
+
+  @Test
+  void clearDropsEverything() {
+    LogHistory history = new LogHistory(2);
+    history.append("a");
+    history.append("b");
+    history.clear();
+    assertEquals(0, history.size());
+    assertEquals(0, history.visibleSize());
+    assertNull(history.append("c"));
+    assertNull(history.append("d"));
+    assertEquals("c", history.append("e"));
+  }
+}
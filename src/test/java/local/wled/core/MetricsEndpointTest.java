@@ -0,0 +1,81 @@
+package local.wled.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsEndpointTest {
+  @Test
+  void exportsPerTargetCountersAndStageSummaries() {
+    OutputTarget target = new OutputTarget("wall \"left\"", false, OutputMode.DDP, 300,
+        new AtomicReference<>(new PushTarget("127.0.0.1", 4048)), new AtomicReference<>(DdpLayoutMode.MIRROR),
+        new AtomicReference<>(DdpColorPalette.FIRE));
+    target.framesSent.set(120);
+    target.droppedFrames.set(3);
+    target.packetsSent.set(360);
+    target.bytesSent.set(324_000);
+    target.sendFailures.set(2);
+    target.pushPacketsPerSecond = 150;
+    target.consecutiveSendFailures = 2;
+    target.retryDelayMillis = 500;
+    target.nextRetryAtNanos = 1_250_000_000L;
+    PipelineTimings timings = new PipelineTimings();
+    timings.record(PipelineStage.END_TO_END, 4_000_000L);
+    timings.record(PipelineStage.END_TO_END, 6_000_000L);
+    PublishedMetrics audio = new PublishedMetrics();
+    audio.peak = 200;
+
+    StringBuilder out = new StringBuilder();
+    MetricsEndpoint.write(out, new OutputTarget[]{target}, timings, audio, 1_000_000_000L);
+    String text = out.toString();
+
+    assertTrue(text.contains("# TYPE wled_sender_frames_sent_total counter\n"), text);
+    assertTrue(text.contains("wled_sender_frames_sent_total{target=\"wall \\\"left\\\"\"} 120\n"), text);
+    assertTrue(text.contains("wled_sender_frames_dropped_total{target=\"wall \\\"left\\\"\"} 3\n"), text);
+    assertTrue(text.contains("wled_sender_bytes_sent_total{target=\"wall \\\"left\\\"\"} 324000\n"), text);
+    assertTrue(text.contains("wled_sender_send_failures_total{target=\"wall \\\"left\\\"\"} 2\n"), text);
+    assertTrue(text.contains("wled_sender_packets_per_second{target=\"wall \\\"left\\\"\"} 150\n"), text);
+    assertTrue(text.contains("wled_sender_backoff_remaining_seconds{target=\"wall \\\"left\\\"\"} 0.250000000\n"), text);
+    assertTrue(text.contains("wled_sender_audio_peak 200.000000\n"), text);
+    assertTrue(text.contains("wled_sender_stage_latency_seconds_count{stage=\"e2e\"} 2\n"), text);
+    assertTrue(text.contains("wled_sender_stage_latency_seconds_sum{stage=\"e2e\"} 0.0100000000\n"), text);
+    assertTrue(text.contains("wled_sender_stage_latency_max_seconds{stage=\"e2e\"} 0.00600000000\n"), text);
+    for (String line : text.split("\n")) {
+      assertTrue(line.startsWith("# HELP wled_sender_") || line.startsWith("# TYPE wled_sender_")
+          || line.matches("wled_sender_[a-z0-9_]+(\\{.*\\})? \\S+"), line);
+    }
+  }
+
+  @Test
+  void servesTheTextFormatOverHttp() throws Exception {
+    SenderController controller = new SenderController(new SenderConfig("127.0.0.1", 4048, null, 44_100, 1, 512, 256, 50,
+        FramePacing.PARK, false, OutputMode.DDP, 100, DdpLayoutMode.MIRROR, DdpColorPalette.NIGHTCLUB,
+        DdpPacketizer.PIXELS_PER_PACKET, 1, 0, PushTransport.CHANNEL, null, 0, -1, 0, null, 0, true, true),
+        msg -> { }, metrics -> { }, error -> { });
+    MetricsEndpoint endpoint = MetricsEndpoint.start("127.0.0.1", 0, controller);
+    try {
+      URL url = new URL("http://127.0.0.1:" + endpoint.port() + MetricsEndpoint.PATH);
+      HttpURLConnection get = (HttpURLConnection) url.openConnection();
+      assertEquals(200, get.getResponseCode());
+      assertEquals(MetricsEndpoint.CONTENT_TYPE, get.getContentType());
+      String body;
+      try (InputStream in = get.getInputStream()) {
+        body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+      }
+      assertTrue(body.contains("wled_sender_stage_latency_seconds{stage=\"fft\",quantile=\"0.99\"} "), body);
+
+      HttpURLConnection post = (HttpURLConnection) url.openConnection();
+      post.setRequestMethod("POST");
+      assertEquals(405, post.getResponseCode());
+    } finally {
+      endpoint.close();
+    }
+  }
+}
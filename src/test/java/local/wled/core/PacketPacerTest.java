@@ -0,0 +1,77 @@
+package local.wled.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PacketPacerTest {
+  private static final int BURST = DdpPacketizer.HEADER_LEN + DdpPacketizer.MAX_DATALEN;
+
+  @Test
+  void spreadsFragmentsEvenlyAcrossTheWindow() {
+    PacketPacer pacer = new PacketPacer(50, 50);
+    assertEquals(10_000_000L, pacer.windowNanos());
+    byte[][] packets = new DdpPacketizer(4_096 * 3, 1).packets();
+    int frameBytes = 0;
+    for (byte[] packet : packets) {
+      frameBytes += packet.length;
+    }
+
+    long now = 1_000L;
+    pacer.beginFrame(frameBytes, packets[0].length, now);
+    long[] sentAt = new long[packets.length];
+    for (int i = 0; i < packets.length; i++) {
+      long wait = pacer.delayNanos(packets[i].length, now);
+      if (wait > 0L) {
+        now += wait;
+        assertEquals(0L, pacer.delayNanos(packets[i].length, now), "packet " + i);
+      }
+      sentAt[i] = now;
+    }
+
+    assertEquals(1_000L, sentAt[0]);
+    long span = sentAt[packets.length - 1] - sentAt[0];
+    assertTrue(span > 9_900_000L && span <= 10_000_100L, "span " + span);
+    long fullGap = sentAt[2] - sentAt[1];
+    for (int i = 3; i < packets.length - 1; i++) {
+      assertTrue(Math.abs(sentAt[i] - sentAt[i - 1] - fullGap) <= 2L, "gap " + i);
+    }
+    assertTrue(sentAt[packets.length - 1] - sentAt[packets.length - 2] < fullGap);
+  }
+
+  @Test
+  void singlePacketFramesAndDisabledPacingNeverWait() {
+    PacketPacer pacer = new PacketPacer(60, 80);
+    pacer.beginFrame(500, 500, 0L);
+    assertEquals(0L, pacer.delayNanos(500, 0L));
+
+    PacketPacer off = new PacketPacer(60, 0);
+    assertFalse(off.enabled());
+    off.beginFrame(BURST * 9, BURST, 0L);
+    for (int i = 0; i < 9; i++) {
+      assertEquals(0L, off.delayNanos(BURST, 0L));
+    }
+    assertThrows(IllegalArgumentException.class, () -> new PacketPacer(60, 101));
+  }
+
+  @Test
+  void awaitHoldsTheLastFragmentUntilTheWindowEnds() {
+    PacketPacer pacer = new PacketPacer(100, 50);
+    FrameMailbox mailbox = new FrameMailbox();
+    long start = System.nanoTime();
+    pacer.beginFrame(BURST * 5, BURST, start);
+    for (int i = 0; i < 5; i++) {
+      assertTrue(pacer.await(BURST, mailbox));
+    }
+    long elapsed = System.nanoTime() - start;
+    assertTrue(elapsed >= 4_500_000L, "elapsed " + elapsed);
+
+    pacer.beginFrame(BURST * 5, BURST, System.nanoTime());
+    assertTrue(pacer.await(BURST, mailbox));
+    mailbox.close();
+    assertFalse(pacer.await(BURST, mailbox));
+  }
+}
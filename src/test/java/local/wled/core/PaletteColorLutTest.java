@@ -0,0 +1,54 @@
+package local.wled.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaletteColorLutTest {
+
+  @Test
+  void tableIsBuiltOnceAndSizedAsReported() {
+    PaletteColorLut lut = DdpColorPalette.OCEAN.renderer().colorLut();
+    int[] table = lut.table();
+    assertTrue(lut.isBuilt());
+    assertSame(table, lut.table());
+    assertEquals(PaletteColorLut.footprintBytes(), table.length * Integer.BYTES);
+  }
+
+  @Test
+  void lookupStaysCloseToDirectHsvConversion() {
+    Random random = new Random(3);
+    byte[] exact = new byte[3];
+    for (DdpColorPalette palette : DdpColorPalette.values()) {
+      PaletteColorLut.ColorModel model = (PaletteColorLut.ColorModel) palette.renderer();
+      PaletteColorLut lut = palette.renderer().colorLut();
+      int[] table = lut.table();
+      double maxDrift = lut.maxHueDrift();
+      long errorSum = 0L;
+      int maxError = 0;
+      int samples = 20_000;
+      for (int i = 0; i < samples; i++) {
+        double posNorm = random.nextDouble();
+        double value = random.nextDouble();
+        double ampNorm = random.nextDouble();
+        double drift = ampNorm * (random.nextDouble() * 2.0 - 1.0);
+        PaletteRendering.hsvToRgb(model.hue(posNorm, value) + drift * maxDrift, model.saturation(posNorm, value),
+            model.brightness(posNorm, value), exact, 0);
+        int rgb = table[PaletteColorLut.index(posNorm, value, drift)];
+        for (int c = 0; c < 3; c++) {
+          int approx = (rgb >>> (16 - c * 8)) & 0xFF;
+          int error = Math.abs(approx - (exact[c] & 0xFF));
+          errorSum += error;
+          maxError = Math.max(maxError, error);
+        }
+      }
+      double meanError = errorSum / (samples * 3.0);
+      assertTrue(maxError <= 12, palette + " maxError=" + maxError);
+      assertTrue(meanError <= 1.5, palette + " meanError=" + meanError);
+    }
+  }
+}
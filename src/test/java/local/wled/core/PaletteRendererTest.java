@@ -0,0 +1,33 @@
+package local.wled.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PaletteRendererTest {
+
+  @Test
+  void rangeRenderMatchesSliceOfFullFrame() {
+    byte[] spectrum = new byte[SenderMetrics.SPECTRUM_BANDS];
+    for (int i = 0; i < spectrum.length; i++) {
+      spectrum[i] = (byte) (30 + i * 14);
+    }
+    int pixels = 333;
+    for (DdpLayoutMode mode : DdpLayoutMode.values()) {
+      PixelLayoutTable layout = PixelLayoutTable.forLayout(pixels, mode);
+      for (DdpColorPalette palette : DdpColorPalette.values()) {
+        byte[] full = new byte[pixels * 3];
+        SignalProcessing.renderSpectrumToDdpRgb(spectrum, 170f, 77, full, mode, palette);
+
+        byte[] slice = new byte[5 + 100 * 3];
+        palette.renderer().render(spectrum, 170f, 77, layout, slice, 5, 120, 220);
+
+        assertEquals(0, slice[4], palette + "/" + mode);
+        assertArrayEquals(Arrays.copyOfRange(full, 120 * 3, 220 * 3), Arrays.copyOfRange(slice, 5, slice.length), palette + "/" + mode);
+      }
+    }
+  }
+}
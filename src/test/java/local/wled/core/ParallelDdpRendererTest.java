@@ -0,0 +1,76 @@
+package local.wled.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelDdpRendererTest {
+
+  @Test
+  void parallelOutputMatchesSerialRender() {
+    int pixels = 5_000;
+    byte[] spectrum = new byte[SenderMetrics.SPECTRUM_BANDS];
+    for (int i = 0; i < spectrum.length; i++) {
+      spectrum[i] = (byte) (20 + i * 15);
+    }
+    ParallelDdpRenderer parallel = new ParallelDdpRenderer(pixels, 4);
+    try {
+      assertEquals(4, parallel.threads());
+      assertTrue(parallel.chunkCount() > 1);
+      for (DdpLayoutMode mode : DdpLayoutMode.values()) {
+        PixelLayoutTable layout = PixelLayoutTable.forLayout(pixels, mode);
+        for (DdpColorPalette palette : DdpColorPalette.values()) {
+          byte[] serial = new byte[pixels * 3];
+          byte[] split = new byte[pixels * 3];
+          SignalProcessing.renderSpectrumToDdpRgb(spectrum, 160f, 31, serial, mode, palette);
+          parallel.render(spectrum, 160f, 31, layout, palette.renderer(), split);
+          assertArrayEquals(serial, split, palette + "/" + mode);
+        }
+      }
+    } finally {
+      parallel.close();
+    }
+  }
+
+  @Test
+  void rendersDirectlyIntoDdpFragments() {
+    int pixels = 5_000;
+    byte[] spectrum = new byte[SenderMetrics.SPECTRUM_BANDS];
+    for (int i = 0; i < spectrum.length; i++) {
+      spectrum[i] = (byte) (200 - i * 11);
+    }
+    PixelLayoutTable layout = PixelLayoutTable.forLayout(pixels, DdpLayoutMode.REPEAT);
+    byte[] rgb = new byte[pixels * 3];
+    SignalProcessing.renderSpectrumToDdpRgb(spectrum, 120f, 9, rgb, DdpLayoutMode.REPEAT, DdpColorPalette.FIRE);
+    byte[][] expected = SignalProcessing.buildDdpPackets(rgb, 9, 1);
+
+    for (int threads : new int[]{1, 3}) {
+      ParallelDdpRenderer renderer = new ParallelDdpRenderer(pixels, threads);
+      try {
+        DdpPacketizer packetizer = new DdpPacketizer(pixels * 3, 1);
+        renderer.render(spectrum, 120f, 9, layout, DdpColorPalette.FIRE.renderer(), packetizer);
+        packetizer.stamp(9);
+        assertEquals(expected.length, packetizer.packets().length);
+        for (int i = 0; i < expected.length; i++) {
+          assertArrayEquals(expected[i], packetizer.packets()[i], threads + " threads, packet " + i);
+        }
+      } finally {
+        renderer.close();
+      }
+    }
+  }
+
+  @Test
+  void staysSingleThreadedBelowThreshold() {
+    ParallelDdpRenderer small = new ParallelDdpRenderer(ParallelDdpRenderer.PARALLEL_THRESHOLD_PIXELS - 1, 8);
+    assertEquals(1, small.threads());
+    assertEquals(1, small.chunkCount());
+    small.close();
+
+    ParallelDdpRenderer oneThread = new ParallelDdpRenderer(16_384, 1);
+    assertEquals(1, oneThread.threads());
+    oneThread.close();
+  }
+}
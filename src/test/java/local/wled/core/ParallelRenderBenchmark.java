@@ -0,0 +1,52 @@
+package local.wled.core;
+
+import java.util.Locale;
+
+final class ParallelRenderBenchmark {
+  private static final int[] PIXELS = {1_024, 4_096, 16_384};
+  private static final int WARMUP_ROUNDS = 500;
+  private static final int MEASURE_ROUNDS = 1_000;
+
+  private ParallelRenderBenchmark() {
+  }
+
+  public static void main(String[] args) {
+    int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+    byte[] spectrum = new byte[SenderMetrics.SPECTRUM_BANDS];
+    for (int i = 0; i < spectrum.length; i++) {
+      spectrum[i] = (byte) (40 + i * 13);
+    }
+    DdpColorPalette palette = DdpColorPalette.AURORA;
+    palette.renderer().colorLut().table();
+    System.out.println("cores=" + Runtime.getRuntime().availableProcessors() + ", palette=" + palette.cliValue() + ", layout=stretch");
+    System.out.println("pixels   threads   chunks   us/frame   speedup");
+    for (int pixels : PIXELS) {
+      PixelLayoutTable layout = PixelLayoutTable.forLayout(pixels, DdpLayoutMode.STRETCH);
+      byte[] rgb = new byte[pixels * 3];
+      double baseline = 0.0;
+      for (int threads = 1; threads <= maxThreads; threads++) {
+        ParallelDdpRenderer renderer = new ParallelDdpRenderer(pixels, threads);
+        try {
+          measure(renderer, spectrum, layout, palette, rgb, WARMUP_ROUNDS);
+          double micros = measure(renderer, spectrum, layout, palette, rgb, MEASURE_ROUNDS);
+          if (threads == 1) {
+            baseline = micros;
+          }
+          System.out.println(String.format(Locale.ROOT, "%6d   %7d   %6d   %8.1f   %6.2fx",
+              pixels, renderer.threads(), renderer.chunkCount(), micros, baseline / micros));
+        } finally {
+          renderer.close();
+        }
+      }
+    }
+  }
+
+  private static double measure(ParallelDdpRenderer renderer, byte[] spectrum, PixelLayoutTable layout, DdpColorPalette palette,
+                                byte[] rgb, int rounds) {
+    long start = System.nanoTime();
+    for (int i = 0; i < rounds; i++) {
+      renderer.render(spectrum, 150f, i, layout, palette.renderer(), rgb);
+    }
+    return (System.nanoTime() - start) / 1_000.0 / rounds;
+  }
+}
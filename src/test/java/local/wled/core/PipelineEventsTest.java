@@ -0,0 +1,85 @@
+package local.wled.core;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PipelineEventsTest {
+  private static final int FFT_SIZE = 512;
+
+  @Test
+  void eventsAreOnlyCreatedWhileARecordingRuns() {
+    assertFalse(PipelineEvents.enabled);
+    assertNull(PipelineEvents.beginRender());
+    try (Recording recording = new Recording()) {
+      recording.start();
+      assertTrue(PipelineEvents.enabled);
+      assertNotNull(PipelineEvents.beginRender());
+      recording.stop();
+      assertFalse(PipelineEvents.enabled);
+    }
+  }
+
+  @Test
+  void renderedFrameProducesStageEvents() throws Exception {
+    SenderConfig config = new SenderConfig("127.0.0.1", 4048, null, 44_100, 1, FFT_SIZE, FFT_SIZE, 60,
+        FramePacing.PARK, false, OutputMode.DDP, 1_000, DdpLayoutMode.MIRROR, DdpColorPalette.OCEAN,
+        DdpPacketizer.PIXELS_PER_PACKET, 1, 0, PushTransport.CHANNEL, null, 0, -1, 0, null, 0, true, true);
+    FramePipeline pipeline = new FramePipeline(config);
+    OutboundFrame frame = OutboundFrame.forConfig(config);
+    AudioSampleRing ring = new AudioSampleRing(4 * FFT_SIZE, FFT_SIZE);
+    byte[] pcm = new byte[FFT_SIZE * 2];
+    for (int i = 0; i < FFT_SIZE; i++) {
+      short s = (short) (Math.sin(2.0 * Math.PI * 440.0 * i / 44_100.0) * 16_000);
+      pcm[i * 2] = (byte) s;
+      pcm[i * 2 + 1] = (byte) (s >> 8);
+    }
+    ring.appendPcm16(pcm, 0, FFT_SIZE, 1);
+
+    Path file = Files.createTempFile("wled-pipeline", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(PipelineEvents.Fft.class);
+      recording.enable(PipelineEvents.Render.class);
+      recording.enable(PipelineEvents.Packetize.class);
+      recording.start();
+      assertTrue(pipeline.analyze(ring));
+      pipeline.emit(frame, pipeline.ddpRenderer(), DdpLayoutMode.MIRROR, DdpColorPalette.OCEAN);
+      recording.stop();
+      recording.dump(file);
+    } finally {
+      pipeline.close();
+    }
+
+    Map<String, RecordedEvent> byName = new HashMap<>();
+    List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+    Files.deleteIfExists(file);
+    for (RecordedEvent event : events) {
+      byName.put(event.getEventType().getName(), event);
+    }
+    RecordedEvent fft = byName.get("local.wled.Fft");
+    assertNotNull(fft);
+    assertEquals(FFT_SIZE, fft.getInt("fftSize"));
+    RecordedEvent render = byName.get("local.wled.Render");
+    assertNotNull(render);
+    assertEquals(frame.frameNumber, render.getInt("frame"));
+    assertEquals(1_000, render.getInt("pixels"));
+    assertEquals("ocean", render.getString("palette"));
+    RecordedEvent packetize = byName.get("local.wled.Packetize");
+    assertNotNull(packetize);
+    assertEquals(frame.packetCount, packetize.getInt("packets"));
+    assertEquals(1_000 * 3 + frame.packetCount * DdpPacketizer.HEADER_LEN, packetize.getInt("bytes"));
+  }
+}
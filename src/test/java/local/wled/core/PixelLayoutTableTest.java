@@ -0,0 +1,56 @@
+package local.wled.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class PixelLayoutTableTest {
+
+  @Test
+  void cachedPerLayoutAndRebuiltWhenPixelCountChanges() {
+    PixelLayoutTable stretch = PixelLayoutTable.forLayout(1200, DdpLayoutMode.STRETCH);
+    PixelLayoutTable mirror = PixelLayoutTable.forLayout(1200, DdpLayoutMode.MIRROR);
+
+    assertSame(stretch, PixelLayoutTable.forLayout(1200, DdpLayoutMode.STRETCH));
+    assertSame(mirror, PixelLayoutTable.forLayout(1200, DdpLayoutMode.MIRROR));
+
+    PixelLayoutTable resized = PixelLayoutTable.forLayout(1201, DdpLayoutMode.STRETCH);
+    assertNotSame(stretch, resized);
+    assertEquals(1201, resized.bandPosition.length);
+  }
+
+  @Test
+  void sameLayoutWithDifferentPixelCountsDoesNotEvict() {
+    PixelLayoutTable small = PixelLayoutTable.forLayout(300, DdpLayoutMode.MIRROR);
+    PixelLayoutTable large = PixelLayoutTable.forLayout(600, DdpLayoutMode.MIRROR);
+
+    assertSame(small, PixelLayoutTable.forLayout(300, DdpLayoutMode.MIRROR));
+    assertSame(large, PixelLayoutTable.forLayout(600, DdpLayoutMode.MIRROR));
+  }
+
+  @Test
+  void tablesMatchLayoutGeometry() {
+    PixelLayoutTable stretch = PixelLayoutTable.forLayout(31, DdpLayoutMode.STRETCH);
+    assertEquals(0.0, stretch.bandPosition[0], 1e-12);
+    assertEquals(7.5, stretch.bandPosition[15], 1e-12);
+    assertEquals(15.0, stretch.bandPosition[30], 1e-12);
+    assertEquals(0.5, stretch.spatialNorm[15], 1e-12);
+    assertNull(stretch.centerFocus);
+
+    PixelLayoutTable mirror = PixelLayoutTable.forLayout(31, DdpLayoutMode.MIRROR);
+    assertEquals(15.0, mirror.bandPosition[15], 1e-12);
+    assertEquals(0.0, mirror.bandPosition[0], 1e-12);
+    assertEquals(1.0, mirror.spatialNorm[30], 1e-12);
+    assertEquals(1.0, mirror.centerFocus[15], 1e-12);
+    assertEquals(0.0, mirror.centerFocus[0], 1e-12);
+
+    PixelLayoutTable repeat = PixelLayoutTable.forLayout(30, DdpLayoutMode.REPEAT);
+    assertEquals(0.0, repeat.spatialNorm[0], 1e-12);
+    assertEquals(1.0, repeat.spatialNorm[9], 1e-12);
+    assertEquals(0.0, repeat.spatialNorm[10], 1e-12);
+    assertEquals(15.0, repeat.bandPosition[29], 1e-12);
+  }
+}
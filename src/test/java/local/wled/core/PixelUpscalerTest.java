@@ -0,0 +1,81 @@
+package local.wled.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PixelUpscalerTest {
+  private static final int PIXELS = 1_200;
+
+  @Test
+  void upscaledFramesStayCloseToPerPixelRender() {
+    for (DdpLayoutMode mode : DdpLayoutMode.values()) {
+      PixelUpscaler upscaler = new PixelUpscaler(PIXELS, mode, 128);
+      for (DdpColorPalette palette : DdpColorPalette.values()) {
+        double error = meanAbsoluteError(upscaler, mode, palette);
+        double limit = palette == DdpColorPalette.CANDY ? 10.0 : 4.0;
+        assertTrue(error <= limit, palette + "/" + mode + " mean error " + error);
+      }
+    }
+  }
+
+  @Test
+  void higherResolutionReducesError() {
+    for (DdpLayoutMode mode : DdpLayoutMode.values()) {
+      for (DdpColorPalette palette : DdpColorPalette.values()) {
+        double coarse = meanAbsoluteError(new PixelUpscaler(PIXELS, mode, 64), mode, palette);
+        double fine = meanAbsoluteError(new PixelUpscaler(PIXELS, mode, 512), mode, palette);
+        assertTrue(fine < coarse, palette + "/" + mode + " " + fine + " >= " + coarse);
+      }
+    }
+  }
+
+  @Test
+  void stretchEndpointsCopyExactSamples() {
+    PixelUpscaler upscaler = new PixelUpscaler(PIXELS, DdpLayoutMode.STRETCH, 64);
+    byte[] samples = new byte[64 * 3];
+    for (int i = 0; i < samples.length; i++) {
+      samples[i] = (byte) (i * 7);
+    }
+    byte[] out = new byte[PIXELS * 3];
+    upscaler.upscale(samples, out, 0, 0, PIXELS);
+    for (int c = 0; c < 3; c++) {
+      assertEquals(samples[c], out[c]);
+      assertEquals(samples[samples.length - 3 + c], out[out.length - 3 + c]);
+    }
+  }
+
+  @Test
+  void appliesOnlyWhenResolutionIsBelowPixelCount() {
+    assertTrue(PixelUpscaler.applies(1_200, 128));
+    assertFalse(PixelUpscaler.applies(128, 128));
+    assertFalse(PixelUpscaler.applies(1_200, 0));
+    assertThrows(IllegalArgumentException.class, () -> new PixelUpscaler(100, DdpLayoutMode.STRETCH, 1));
+  }
+
+  private static double meanAbsoluteError(PixelUpscaler upscaler, DdpLayoutMode mode, DdpColorPalette palette) {
+    byte[] spectrum = new byte[SenderMetrics.SPECTRUM_BANDS];
+    byte[] samples = new byte[upscaler.resolution * 3];
+    byte[] exact = new byte[PIXELS * 3];
+    byte[] upscaled = new byte[PIXELS * 3];
+    long sum = 0L;
+    int frames = 8;
+    for (int frame = 0; frame < frames; frame++) {
+      for (int i = 0; i < spectrum.length; i++) {
+        spectrum[i] = (byte) (40 + ((i * 37 + frame * 23) % 200));
+      }
+      float amp = 60f + frame * 20f;
+      int frameCounter = frame * 13;
+      SignalProcessing.renderSpectrumToDdpRgb(spectrum, amp, frameCounter, exact, mode, palette);
+      palette.renderer().render(spectrum, amp, frameCounter, upscaler.sampleLayout, samples, 0, 0, upscaler.resolution);
+      upscaler.upscale(samples, upscaled, 0, 0, PIXELS);
+      for (int i = 0; i < exact.length; i++) {
+        sum += Math.abs((exact[i] & 0xFF) - (upscaled[i] & 0xFF));
+      }
+    }
+    return sum / (double) (frames * exact.length);
+  }
+}
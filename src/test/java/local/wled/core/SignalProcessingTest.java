@@ -47,6 +47,26 @@ class SignalProcessingTest {
     assertArrayEquals(slice(rgb, 2880, 3000), slice(packets[2], 10, 130));
   }
 
+  @Test
+  void buildDdpPacketsFollowsTheConfiguredPacketSize() {
+    byte[] rgb = new byte[4_096 * 3];
+    for (int i = 0; i < rgb.length; i++) {
+      rgb[i] = (byte) (i * 7);
+    }
+
+    byte[][] packets = SignalProcessing.buildDdpPackets(rgb, 3, 1, 1_500);
+
+    assertEquals(3, packets.length);
+    assertEquals(4_510, packets[0].length);
+    assertEquals(4_500, readU16(packets[1], 8));
+    assertEquals(4_500, readU32(packets[1], 4));
+    assertEquals(9_000, readU32(packets[2], 4));
+    assertEquals(rgb.length - 9_000, readU16(packets[2], 8));
+    assertEquals(0x41, packets[2][0] & 0xFF);
+    assertArrayEquals(slice(rgb, 9_000, rgb.length), slice(packets[2], 10, packets[2].length));
+    assertEquals(1, SignalProcessing.buildDdpPackets(rgb, 3, 1, DdpPacketizer.MAX_PIXELS_PER_PACKET).length);
+  }
+
   @Test
   void renderSpectrumToDdpRgbProducesRgbTripletsInBounds() {
     byte[] spectrum = new byte[16];
@@ -0,0 +1,31 @@
+package local.wled.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SineTableTest {
+
+  @Test
+  void matchesMathSinAcrossRendererPhaseRange() {
+    Random random = new Random(7);
+    double maxError = 0.0;
+    for (int i = 0; i < 200_000; i++) {
+      double x = (random.nextDouble() * 2.0 - 1.0) * 20_000.0;
+      maxError = Math.max(maxError, Math.abs(SineTable.sin(x) - Math.sin(x)));
+    }
+    assertTrue(maxError < 1e-11, "max error " + maxError);
+  }
+
+  @Test
+  void exactAtTableNodesAndQuadrants() {
+    assertEquals(0.0, SineTable.sin(0.0), 1e-15);
+    assertEquals(1.0, SineTable.sin(Math.PI / 2.0), 1e-15);
+    assertEquals(-1.0, SineTable.sin(-Math.PI / 2.0), 1e-15);
+    assertEquals(Math.sin(3.0), SineTable.sin(3.0), 1e-15);
+    assertEquals(Math.sin(-123.456), SineTable.sin(-123.456), 1e-13);
+  }
+}
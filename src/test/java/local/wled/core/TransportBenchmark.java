@@ -0,0 +1,96 @@
+package local.wled.core;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+final class TransportBenchmark {
+  private static final int WARMUP_PACKETS = 200_000;
+  private static final int MEASURE_PACKETS = 1_000_000;
+  private static final int FRAME_PIXELS = 4_096;
+  private static final int FPS = 50;
+  private static final int[] PACKET_PIXELS = {170, 480, 1_024, 2_048, 4_096};
+  private static final int MEASURE_FRAMES = 20_000;
+
+  private TransportBenchmark() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    int[] sizes = {SignalProcessing.AUDIO_SYNC_V2_PACKET_LEN, DdpPacketizer.HEADER_LEN + DdpPacketizer.MAX_DATALEN};
+    InetAddress loopback = InetAddress.getLoopbackAddress();
+    try (DatagramChannel receiver = DatagramChannel.open().bind(new InetSocketAddress(loopback, 0))) {
+      AtomicLong received = new AtomicLong();
+      Thread drain = new Thread(() -> drain(receiver, received), "benchmark-drain");
+      drain.setDaemon(true);
+      drain.start();
+      int port = ((InetSocketAddress) receiver.getLocalAddress()).getPort();
+
+      System.out.println("transport  bytes   packets/s    received");
+      for (int size : sizes) {
+        byte[] packet = new byte[size];
+        for (PushTransport kind : PushTransport.values()) {
+          DatagramTransport transport = DatagramTransport.open(kind, loopback, port);
+          try {
+            send(transport, packet, WARMUP_PACKETS);
+            long before = received.get();
+            long start = System.nanoTime();
+            send(transport, packet, MEASURE_PACKETS);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            Thread.sleep(50L);
+            System.out.println(String.format(Locale.ROOT, "%-9s  %5d  %10.0f  %9.1f%%",
+                kind.cliValue(), size, MEASURE_PACKETS / seconds, 100.0 * (received.get() - before) / MEASURE_PACKETS));
+          } finally {
+            transport.close();
+          }
+        }
+      }
+
+      System.out.println();
+      System.out.println("pixels/packet  packets/frame  sendto/s@" + FPS + "fps  us/frame");
+      for (int packetPixels : PACKET_PIXELS) {
+        DdpPacketizer packetizer = new DdpPacketizer(FRAME_PIXELS * 3, 1, 0, 0, false, packetPixels);
+        byte[][] packets = packetizer.packets();
+        DatagramTransport transport = DatagramTransport.open(PushTransport.CHANNEL, loopback, port);
+        try {
+          sendFrames(transport, packets, MEASURE_FRAMES / 4);
+          long start = System.nanoTime();
+          sendFrames(transport, packets, MEASURE_FRAMES);
+          double micros = (System.nanoTime() - start) / 1e3 / MEASURE_FRAMES;
+          System.out.println(String.format(Locale.ROOT, "%13d  %13d  %15d  %8.1f",
+              packetPixels, packets.length, packets.length * FPS, micros));
+        } finally {
+          transport.close();
+        }
+      }
+    }
+  }
+
+  private static void sendFrames(DatagramTransport transport, byte[][] packets, int frames) throws Exception {
+    for (int f = 0; f < frames; f++) {
+      for (byte[] packet : packets) {
+        transport.send(packet, packet.length);
+      }
+    }
+  }
+
+  private static void send(DatagramTransport transport, byte[] packet, int count) throws Exception {
+    for (int i = 0; i < count; i++) {
+      transport.send(packet, packet.length);
+    }
+  }
+
+  private static void drain(DatagramChannel receiver, AtomicLong received) {
+    ByteBuffer buf = ByteBuffer.allocateDirect(DatagramTransport.MAX_PACKET_BYTES);
+    try {
+      while (true) {
+        buf.clear();
+        receiver.receive(buf);
+        received.incrementAndGet();
+      }
+    } catch (Exception ignored) {
+    }
+  }
+}